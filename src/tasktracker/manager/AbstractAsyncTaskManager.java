@@ -0,0 +1,275 @@
+package tasktracker.manager;
+
+import tasktracker.models.Epic;
+import tasktracker.models.Status;
+import tasktracker.models.Subtask;
+import tasktracker.models.Task;
+import tasktracker.models.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Общая часть асинхронных менеджеров: каждая операция TaskManager превращается в команду чтения
+// или изменения, а как и когда команда выполняется, решает наследник
+public abstract class AbstractAsyncTaskManager implements AsyncTaskManager {
+
+    // Чтение: будущее завершается результатом операции
+    protected abstract <R> CompletableFuture<R> query(Function<TaskManager, R> action);
+
+    // Изменение: когда завершается будущее, определяет наследник
+    protected abstract <R> CompletableFuture<R> mutation(Function<TaskManager, R> action);
+
+    @Override
+    public CompletableFuture<Void> createTask(Task task) {
+        return run(manager -> manager.createTask(task));
+    }
+
+    @Override
+    public CompletableFuture<Void> createEpic(Epic epic) {
+        return run(manager -> manager.createEpic(epic));
+    }
+
+    @Override
+    public CompletableFuture<Void> createSubtask(Subtask subtask, int epicId) {
+        return run(manager -> manager.createSubtask(subtask, epicId));
+    }
+
+    @Override
+    public CompletableFuture<ArrayList<Task>> getTasks() {
+        return query(manager -> manager.getTasks());
+    }
+
+    @Override
+    public CompletableFuture<ArrayList<Epic>> getEpics() {
+        return query(manager -> manager.getEpics());
+    }
+
+    @Override
+    public CompletableFuture<ArrayList<Subtask>> getSubtasks() {
+        return query(manager -> manager.getSubtasks());
+    }
+
+    @Override
+    public CompletableFuture<ArrayList<Subtask>> getEpicSubtasks(int epicId) {
+        return query(manager -> manager.getEpicSubtasks(epicId));
+    }
+
+    @Override
+    public CompletableFuture<Collection<Task>> getTasksView() {
+        return query(manager -> Collections.unmodifiableCollection(new ArrayList<>(manager.getTasksView())));
+    }
+
+    @Override
+    public CompletableFuture<Collection<Epic>> getEpicsView() {
+        return query(manager -> Collections.unmodifiableCollection(new ArrayList<>(manager.getEpicsView())));
+    }
+
+    @Override
+    public CompletableFuture<Collection<Subtask>> getSubtasksView() {
+        return query(manager -> Collections.unmodifiableCollection(new ArrayList<>(manager.getSubtasksView())));
+    }
+
+    @Override
+    public CompletableFuture<List<Subtask>> getEpicSubtasksView(int epicId) {
+        return query(manager -> List.copyOf(manager.getEpicSubtasksView(epicId)));
+    }
+
+    @Override
+    public CompletableFuture<SortedSet<Task>> getPrioritizedTasksView() {
+        return query(manager -> Collections.unmodifiableSortedSet(new TreeSet<>(manager.getPrioritizedTasksView())));
+    }
+
+    @Override
+    public CompletableFuture<Void> forEachTask(Consumer<? super Task> visitor) {
+        return visit(manager -> manager.forEachTask(visitor));
+    }
+
+    @Override
+    public CompletableFuture<Void> forEachEpic(Consumer<? super Epic> visitor) {
+        return visit(manager -> manager.forEachEpic(visitor));
+    }
+
+    @Override
+    public CompletableFuture<Void> forEachSubtask(Consumer<? super Subtask> visitor) {
+        return visit(manager -> manager.forEachSubtask(visitor));
+    }
+
+    @Override
+    public CompletableFuture<Void> forEachPrioritized(Consumer<? super Task> visitor) {
+        return visit(manager -> manager.forEachPrioritized(visitor));
+    }
+
+    @Override
+    public CompletableFuture<List<Task>> findByStatus(Status status) {
+        return query(manager -> manager.findByStatus(status));
+    }
+
+    @Override
+    public CompletableFuture<List<Task>> findByStatus(TaskType type, Status status) {
+        return query(manager -> manager.findByStatus(type, status));
+    }
+
+    @Override
+    public CompletableFuture<Integer> countByStatus(Status status) {
+        return query(manager -> manager.countByStatus(status));
+    }
+
+    @Override
+    public CompletableFuture<Integer> countByStatus(TaskType type, Status status) {
+        return query(manager -> manager.countByStatus(type, status));
+    }
+
+    @Override
+    public CompletableFuture<Integer> countByType(TaskType type) {
+        return query(manager -> manager.countByType(type));
+    }
+
+    @Override
+    public CompletableFuture<Integer> countEpicSubtasks(int epicId, Status status) {
+        return query(manager -> manager.countEpicSubtasks(epicId, status));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAllTasks() {
+        return run(manager -> manager.deleteAllTasks());
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAllEpics() {
+        return run(manager -> manager.deleteAllEpics());
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAllSubtasks() {
+        return run(manager -> manager.deleteAllSubtasks());
+    }
+
+    @Override
+    public CompletableFuture<Task> getTaskById(int id) {
+        return query(manager -> manager.getTaskById(id));
+    }
+
+    @Override
+    public CompletableFuture<Epic> getEpicById(int id) {
+        return query(manager -> manager.getEpicById(id));
+    }
+
+    @Override
+    public CompletableFuture<Subtask> getSubtaskById(int id) {
+        return query(manager -> manager.getSubtaskById(id));
+    }
+
+    @Override
+    public CompletableFuture<Task> getById(int id) {
+        return query(manager -> manager.getById(id));
+    }
+
+    @Override
+    public CompletableFuture<Void> updateTask(Task task) {
+        return run(manager -> manager.updateTask(task));
+    }
+
+    @Override
+    public CompletableFuture<Void> updateEpic(Epic epic) {
+        return run(manager -> manager.updateEpic(epic));
+    }
+
+    @Override
+    public CompletableFuture<Void> updateSubtask(Subtask subtask) {
+        return run(manager -> manager.updateSubtask(subtask));
+    }
+
+    @Override
+    public CompletableFuture<Void> updateTaskStatus(int taskId, Status status) {
+        return run(manager -> manager.updateTaskStatus(taskId, status));
+    }
+
+    @Override
+    public CompletableFuture<Void> updateSubtaskStatus(int subtaskId, Status status) {
+        return run(manager -> manager.updateSubtaskStatus(subtaskId, status));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteTaskById(int taskId) {
+        return run(manager -> manager.deleteTaskById(taskId));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteEpicById(int epicId) {
+        return run(manager -> manager.deleteEpicById(epicId));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteSubtaskById(int subtaskId) {
+        return run(manager -> manager.deleteSubtaskById(subtaskId));
+    }
+
+    @Override
+    public CompletableFuture<List<Task>> getHistory() {
+        return query(manager -> manager.getHistory());
+    }
+
+    @Override
+    public CompletableFuture<List<Task>> getPrioritizedTasks() {
+        return query(manager -> manager.getPrioritizedTasks());
+    }
+
+    @Override
+    public CompletableFuture<SortedSet<Task>> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return query(manager -> Collections.unmodifiableSortedSet(
+                new TreeSet<>(manager.getPrioritizedTasks(from, to))));
+    }
+
+    @Override
+    public CompletableFuture<List<Task>> getNextTasks(int limit) {
+        return query(manager -> manager.getNextTasks(limit));
+    }
+
+    @Override
+    public CompletableFuture<List<Task>> getNextTasks(LocalDateTime from, int limit) {
+        return query(manager -> manager.getNextTasks(from, limit));
+    }
+
+    @Override
+    public CompletableFuture<LocalDateTime> findEarliestFreeSlot(Duration duration) {
+        return query(manager -> manager.findEarliestFreeSlot(duration));
+    }
+
+    @Override
+    public CompletableFuture<LocalDateTime> findEarliestFreeSlot(Duration duration, LocalDateTime from, LocalDateTime to) {
+        return query(manager -> manager.findEarliestFreeSlot(duration, from, to));
+    }
+
+    @Override
+    public CompletableFuture<List<Task>> autoSchedule(List<? extends Task> unscheduled, LocalDateTime from, LocalDateTime to) {
+        return mutation(manager -> manager.autoSchedule(unscheduled, from, to));
+    }
+
+    @Override
+    public CompletableFuture<List<BatchOperationResult>> applyBatch(List<BatchOperation> operations) {
+        return mutation(manager -> manager.applyBatch(operations));
+    }
+
+    private CompletableFuture<Void> run(Consumer<TaskManager> action) {
+        return mutation(manager -> {
+            action.accept(manager);
+            return null;
+        });
+    }
+
+    private CompletableFuture<Void> visit(Consumer<TaskManager> action) {
+        return query(manager -> {
+            action.accept(manager);
+            return null;
+        });
+    }
+}
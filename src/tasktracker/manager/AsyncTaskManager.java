@@ -0,0 +1,118 @@
+package tasktracker.manager;
+
+import tasktracker.models.Epic;
+import tasktracker.models.Status;
+import tasktracker.models.Subtask;
+import tasktracker.models.Task;
+import tasktracker.models.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+// Асинхронный вариант TaskManager: те же операции, результат - CompletableFuture.
+// Позволяет отправить много запросов подряд, не дожидаясь каждого. Когда завершается будущее записи,
+// зависит от реализации: AsyncTaskManagerAdapter - после выполнения операции,
+// DurableAsyncTaskManager - после записи изменения на диск
+public interface AsyncTaskManager {
+
+    CompletableFuture<Void> createTask(Task task);
+
+    CompletableFuture<Void> createEpic(Epic epic);
+
+    CompletableFuture<Void> createSubtask(Subtask subtask, int epicId);
+
+    CompletableFuture<ArrayList<Task>> getTasks();
+
+    CompletableFuture<ArrayList<Epic>> getEpics();
+
+    CompletableFuture<ArrayList<Subtask>> getSubtasks();
+
+    CompletableFuture<ArrayList<Subtask>> getEpicSubtasks(int epicId);
+
+    // Живое представление нельзя отдать в другой поток: здесь это неизменяемая копия на момент выполнения
+    CompletableFuture<Collection<Task>> getTasksView();
+
+    CompletableFuture<Collection<Epic>> getEpicsView();
+
+    CompletableFuture<Collection<Subtask>> getSubtasksView();
+
+    CompletableFuture<List<Subtask>> getEpicSubtasksView(int epicId);
+
+    CompletableFuture<SortedSet<Task>> getPrioritizedTasksView();
+
+    // visitor выполняется там же, где и остальные операции; будущее завершается после обхода
+    CompletableFuture<Void> forEachTask(Consumer<? super Task> visitor);
+
+    CompletableFuture<Void> forEachEpic(Consumer<? super Epic> visitor);
+
+    CompletableFuture<Void> forEachSubtask(Consumer<? super Subtask> visitor);
+
+    CompletableFuture<Void> forEachPrioritized(Consumer<? super Task> visitor);
+
+    CompletableFuture<List<Task>> findByStatus(Status status);
+
+    CompletableFuture<List<Task>> findByStatus(TaskType type, Status status);
+
+    CompletableFuture<Integer> countByStatus(Status status);
+
+    CompletableFuture<Integer> countByStatus(TaskType type, Status status);
+
+    CompletableFuture<Integer> countByType(TaskType type);
+
+    CompletableFuture<Integer> countEpicSubtasks(int epicId, Status status);
+
+    CompletableFuture<Void> deleteAllTasks();
+
+    CompletableFuture<Void> deleteAllEpics();
+
+    CompletableFuture<Void> deleteAllSubtasks();
+
+    CompletableFuture<Task> getTaskById(int id);
+
+    CompletableFuture<Epic> getEpicById(int id);
+
+    CompletableFuture<Subtask> getSubtaskById(int id);
+
+    CompletableFuture<Task> getById(int id);
+
+    CompletableFuture<Void> updateTask(Task task);
+
+    CompletableFuture<Void> updateEpic(Epic epic);
+
+    CompletableFuture<Void> updateSubtask(Subtask subtask);
+
+    CompletableFuture<Void> updateTaskStatus(int taskId, Status status);
+
+    CompletableFuture<Void> updateSubtaskStatus(int subtaskId, Status status);
+
+    CompletableFuture<Void> deleteTaskById(int taskId);
+
+    CompletableFuture<Void> deleteEpicById(int epicId);
+
+    CompletableFuture<Void> deleteSubtaskById(int subtaskId);
+
+    CompletableFuture<List<Task>> getHistory();
+
+    CompletableFuture<List<Task>> getPrioritizedTasks();
+
+    // В отличие от TaskManager - копия окна на момент выполнения, а не живое представление
+    CompletableFuture<SortedSet<Task>> getPrioritizedTasks(LocalDateTime from, LocalDateTime to);
+
+    CompletableFuture<List<Task>> getNextTasks(int limit);
+
+    CompletableFuture<List<Task>> getNextTasks(LocalDateTime from, int limit);
+
+    CompletableFuture<LocalDateTime> findEarliestFreeSlot(Duration duration);
+
+    CompletableFuture<LocalDateTime> findEarliestFreeSlot(Duration duration, LocalDateTime from, LocalDateTime to);
+
+    CompletableFuture<List<Task>> autoSchedule(List<? extends Task> unscheduled, LocalDateTime from, LocalDateTime to);
+
+    CompletableFuture<List<BatchOperationResult>> applyBatch(List<BatchOperation> operations);
+}
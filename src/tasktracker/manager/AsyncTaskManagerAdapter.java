@@ -0,0 +1,34 @@
+package tasktracker.manager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+// Асинхронный доступ к любому TaskManager: операции выполняются на переданном исполнителе.
+// Если исполнитель многопоточный, менеджер должен быть потокобезопасным (например, ConcurrentTaskManager);
+// для обычного менеджера подойдёт однопоточный исполнитель. Будущее записи завершается,
+// когда метод менеджера вернул управление
+public class AsyncTaskManagerAdapter extends AbstractAsyncTaskManager {
+
+    private final TaskManager delegate;
+    private final Executor executor;
+
+    public AsyncTaskManagerAdapter(TaskManager delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    public TaskManager getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    protected <R> CompletableFuture<R> query(Function<TaskManager, R> action) {
+        return CompletableFuture.supplyAsync(() -> action.apply(delegate), executor);
+    }
+
+    @Override
+    protected <R> CompletableFuture<R> mutation(Function<TaskManager, R> action) {
+        return CompletableFuture.supplyAsync(() -> action.apply(delegate), executor);
+    }
+}
@@ -0,0 +1,27 @@
+package tasktracker.manager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Счётчик ID одного менеджера
+public class AtomicIdAllocator implements IdAllocator {
+
+    private final AtomicInteger next;
+
+    public AtomicIdAllocator() {
+        this(1);
+    }
+
+    public AtomicIdAllocator(int firstId) {
+        this.next = new AtomicInteger(firstId);
+    }
+
+    @Override
+    public int nextId() {
+        return next.getAndIncrement();
+    }
+
+    @Override
+    public void advancePast(int id) {
+        next.accumulateAndGet(id + 1, Math::max);
+    }
+}
@@ -0,0 +1,135 @@
+package tasktracker.manager;
+
+import tasktracker.models.Epic;
+import tasktracker.models.Status;
+import tasktracker.models.Subtask;
+import tasktracker.models.Task;
+
+// Одна операция пакета для TaskManager.applyBatch. Создаётся фабричными методами по виду операции
+public class BatchOperation {
+
+    public enum Kind {
+        CREATE_TASK,
+        CREATE_EPIC,
+        CREATE_SUBTASK,
+        UPDATE_TASK,
+        UPDATE_EPIC,
+        UPDATE_SUBTASK,
+        UPDATE_TASK_STATUS,
+        UPDATE_SUBTASK_STATUS,
+        DELETE_TASK,
+        DELETE_EPIC,
+        DELETE_SUBTASK
+    }
+
+    private final Kind kind;
+    private final Task task;
+    private final int id;
+    private final Status status;
+
+    private BatchOperation(Kind kind, Task task, int id, Status status) {
+        this.kind = kind;
+        this.task = task;
+        this.id = id;
+        this.status = status;
+    }
+
+    public static BatchOperation createTask(Task task) {
+        return new BatchOperation(Kind.CREATE_TASK, task, 0, null);
+    }
+
+    public static BatchOperation createEpic(Epic epic) {
+        return new BatchOperation(Kind.CREATE_EPIC, epic, 0, null);
+    }
+
+    public static BatchOperation createSubtask(Subtask subtask, int epicId) {
+        return new BatchOperation(Kind.CREATE_SUBTASK, subtask, epicId, null);
+    }
+
+    public static BatchOperation updateTask(Task task) {
+        return new BatchOperation(Kind.UPDATE_TASK, task, 0, null);
+    }
+
+    public static BatchOperation updateEpic(Epic epic) {
+        return new BatchOperation(Kind.UPDATE_EPIC, epic, 0, null);
+    }
+
+    public static BatchOperation updateSubtask(Subtask subtask) {
+        return new BatchOperation(Kind.UPDATE_SUBTASK, subtask, 0, null);
+    }
+
+    public static BatchOperation updateTaskStatus(int taskId, Status status) {
+        return new BatchOperation(Kind.UPDATE_TASK_STATUS, null, taskId, status);
+    }
+
+    public static BatchOperation updateSubtaskStatus(int subtaskId, Status status) {
+        return new BatchOperation(Kind.UPDATE_SUBTASK_STATUS, null, subtaskId, status);
+    }
+
+    public static BatchOperation deleteTask(int taskId) {
+        return new BatchOperation(Kind.DELETE_TASK, null, taskId, null);
+    }
+
+    public static BatchOperation deleteEpic(int epicId) {
+        return new BatchOperation(Kind.DELETE_EPIC, null, epicId, null);
+    }
+
+    public static BatchOperation deleteSubtask(int subtaskId) {
+        return new BatchOperation(Kind.DELETE_SUBTASK, null, subtaskId, null);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    // ID задачи для операций по ID, ID эпика для CREATE_SUBTASK
+    public int getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    // Проверка, не зависящая от состояния менеджера. null - операция корректна
+    String validate() {
+        switch (kind) {
+            case CREATE_TASK:
+            case UPDATE_TASK:
+                if (task == null) return "Не передана задача";
+                if (task instanceof Epic || task instanceof Subtask) return "Ожидалась обычная задача";
+                return validateTime(task);
+            case CREATE_EPIC:
+            case UPDATE_EPIC:
+                return task == null ? "Не передан эпик" : null;
+            case CREATE_SUBTASK:
+                if (task == null) return "Не передана подзадача";
+                if (id <= 0) return "Некорректный ID эпика: " + id;
+                return validateTime(task);
+            case UPDATE_SUBTASK:
+                return task == null ? "Не передана подзадача" : validateTime(task);
+            case UPDATE_TASK_STATUS:
+            case UPDATE_SUBTASK_STATUS:
+                if (status == null) return "Не передан статус";
+                return id <= 0 ? "Некорректный ID: " + id : null;
+            default:
+                return id <= 0 ? "Некорректный ID: " + id : null;
+        }
+    }
+
+    private static String validateTime(Task task) {
+        if (task.getDuration() != null && task.getDuration().isNegative()) {
+            return "Отрицательная длительность: " + task.getDuration();
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return task != null ? kind + "{" + task.getTitle() + "}" : kind + "{id=" + id + "}";
+    }
+}
@@ -0,0 +1,37 @@
+package tasktracker.manager;
+
+// Результат операции пакета: удалась ли она, ID затронутой задачи и причина отказа
+public class BatchOperationResult {
+    private final BatchOperation operation;
+    private final boolean success;
+    private final int id;
+    private final String message;
+
+    BatchOperationResult(BatchOperation operation, boolean success, int id, String message) {
+        this.operation = operation;
+        this.success = success;
+        this.id = id;
+        this.message = message;
+    }
+
+    public BatchOperation getOperation() {
+        return operation;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return operation + (success ? " -> " + id : " не выполнена: " + message);
+    }
+}
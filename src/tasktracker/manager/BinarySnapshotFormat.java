@@ -0,0 +1,279 @@
+package tasktracker.manager;
+
+import tasktracker.models.*;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Бинарный снимок доски.
+// Заголовок фиксированной длины (20 байт):
+//   int magic, short version, short flags, int tasks, int epics, int subtasks
+// Затем записи в порядке: задачи, эпики, подзадачи. Запись:
+//   byte TaskType.ordinal, varint id, byte Status.ordinal, string title, string description,
+//   [varint epicId - только для подзадач], byte маска времени,
+//   [varlong startTime], [varlong duration], [varlong endTime]
+// Время хранится в минутах от эпохи (UTC), длительность - в минутах, секунды отбрасываются.
+// Строка - varint (длина в байтах UTF-8 + 1, 0 означает null) и сами байты.
+public class BinarySnapshotFormat {
+
+    public static final int MAGIC = 0x4B4E4253; // "KNBS"
+    public static final short VERSION = 1;
+
+    private static final int HAS_START_TIME = 1;
+    private static final int HAS_DURATION = 1 << 1;
+    private static final int HAS_END_TIME = 1 << 2;
+
+    private static final TaskType[] TASK_TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    public static void write(OutputStream out, Collection<? extends Task> tasks, Collection<? extends Task> epics,
+                             Collection<? extends Task> subtasks) throws IOException {
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        output.writeInt(MAGIC);
+        output.writeShort(VERSION);
+        output.writeShort(0);
+        output.writeInt(tasks.size());
+        output.writeInt(epics.size());
+        output.writeInt(subtasks.size());
+
+        for (Task task : tasks) {
+            writeRecord(output, task, TaskType.TASK);
+        }
+        for (Task epic : epics) {
+            writeRecord(output, epic, TaskType.EPIC);
+        }
+        for (Task subtask : subtasks) {
+            writeRecord(output, subtask, TaskType.SUBTASK);
+        }
+        output.flush();
+    }
+
+    // Читаем все записи снимка, возвращаем их количество
+    public static long read(InputStream in, Consumer<Task> consumer) throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Файл не является бинарным снимком");
+        }
+        short version = input.readShort();
+        if (version > VERSION) {
+            throw new IOException("Неподдерживаемая версия бинарного снимка: " + version);
+        }
+        input.readShort(); // флаги, зарезервировано
+        long count = (long) input.readInt() + input.readInt() + input.readInt();
+
+        for (long i = 0; i < count; i++) {
+            consumer.accept(readRecord(input));
+        }
+        return count;
+    }
+
+    // Конвертер из существующего CSV-формата в бинарный
+    public static void csvToBinary(File csv, File binary) {
+        List<Task> tasks = new ArrayList<>();
+        List<Task> epics = new ArrayList<>();
+        List<Task> subtasks = new ArrayList<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(csv.toPath(), StandardCharsets.UTF_8)) {
+            CsvCodec.RowCursor cursor = new CsvCodec.RowCursor();
+            String line = reader.readLine(); // заголовок
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                Task task = cursor.reset(line.trim()).toTask();
+                if (task instanceof Epic) {
+                    epics.add(task);
+                } else if (task instanceof Subtask) {
+                    subtasks.add(task);
+                } else {
+                    tasks.add(task);
+                }
+            }
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Ошибка чтения CSV: " + csv.getAbsolutePath(), exception);
+        }
+
+        try (OutputStream out = new FileOutputStream(binary)) {
+            write(out, tasks, epics, subtasks);
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Ошибка записи бинарного снимка: " + binary.getAbsolutePath(), exception);
+        }
+    }
+
+    // Конвертер из бинарного формата в CSV-формат CSVFormatter
+    public static void binaryToCsv(File binary, File csv) {
+        try (InputStream in = new FileInputStream(binary);
+             BufferedWriter writer = Files.newBufferedWriter(csv.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(CSVFormatter.getHeader());
+            writer.newLine();
+            read(in, task -> {
+                try {
+                    CsvCodec.appendRow(task, writer);
+                    writer.newLine();
+                } catch (IOException exception) {
+                    throw new ManagerSaveException("Ошибка записи CSV: " + csv.getAbsolutePath(), exception);
+                }
+            });
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Ошибка конвертации бинарного снимка: " + binary.getAbsolutePath(),
+                    exception);
+        }
+    }
+
+    private static void writeRecord(DataOutputStream output, Task task, TaskType type) throws IOException {
+        output.writeByte(type.ordinal());
+        writeVarLong(output, task.getId());
+        output.writeByte(task.getStatus().ordinal());
+        writeString(output, task.getTitle());
+        writeString(output, task.getDescription());
+        if (type == TaskType.SUBTASK) {
+            writeVarLong(output, ((Subtask) task).getEpicId());
+        }
+
+        LocalDateTime startTime = task.getStartTime();
+        Duration duration = task.getDuration();
+        LocalDateTime endTime = task.getEndTime();
+        int mask = (startTime != null ? HAS_START_TIME : 0)
+                | (duration != null ? HAS_DURATION : 0)
+                | (endTime != null ? HAS_END_TIME : 0);
+        output.writeByte(mask);
+        if (startTime != null) {
+            writeVarLong(output, toEpochMinute(startTime));
+        }
+        if (duration != null) {
+            writeVarLong(output, duration.toMinutes());
+        }
+        if (endTime != null) {
+            writeVarLong(output, toEpochMinute(endTime));
+        }
+    }
+
+    private static Task readRecord(DataInputStream input) throws IOException {
+        TaskType type = readConstant(input, TASK_TYPES, "тип задачи");
+        int id = readVarInt(input, "ID");
+        Status status = readConstant(input, STATUSES, "статус");
+        String title = readString(input);
+        String description = readString(input);
+
+        Task task;
+        switch (type) {
+            case EPIC:
+                task = new Epic(title, description);
+                break;
+            case SUBTASK:
+                Subtask subtask = new Subtask(title, description);
+                subtask.setEpicId(readVarInt(input, "ID эпика"));
+                task = subtask;
+                break;
+            default:
+                task = new Task(title, description);
+        }
+        task.setId(id);
+        task.setStatus(status);
+
+        int mask = input.readUnsignedByte();
+        if ((mask & HAS_START_TIME) != 0) {
+            task.setStartTime(fromEpochMinute(readVarLong(input)));
+        }
+        if ((mask & HAS_DURATION) != 0) {
+            task.setDuration(Duration.ofMinutes(readVarLong(input)));
+        }
+        if ((mask & HAS_END_TIME) != 0) {
+            LocalDateTime endTime = fromEpochMinute(readVarLong(input));
+            if (task instanceof Epic) {
+                ((Epic) task).setEndTime(endTime);
+            }
+        }
+        return task;
+    }
+
+    // Байт-порядковый номер константы; повреждённый байт - IOException, как и прочие ошибки формата
+    private static <E> E readConstant(DataInputStream input, E[] constants, String what) throws IOException {
+        int ordinal = input.readUnsignedByte();
+        if (ordinal >= constants.length) {
+            throw new IOException(String.format("Неизвестный %s в бинарном снимке: %d", what, ordinal));
+        }
+        return constants[ordinal];
+    }
+
+    private static long toEpochMinute(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static LocalDateTime fromEpochMinute(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(output, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(output, bytes.length + 1L);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        long length = readVarLong(input);
+        if (length == 0) return null;
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new IOException("Некорректная длина строки в бинарном снимке: " + length);
+        }
+        // readNBytes наращивает буфер по мере чтения: повреждённая длина кончится EOFException, а не OutOfMemoryError
+        int expected = (int) (length - 1);
+        byte[] bytes = input.readNBytes(expected);
+        if (bytes.length != expected) {
+            throw new EOFException("Строка бинарного снимка обрывается: ожидалось " + expected + " байт");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Varint в zigzag-кодировке: малые по модулю числа занимают один байт
+    private static void writeVarLong(DataOutputStream output, long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            output.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        output.writeByte((int) zigzag);
+    }
+
+    private static int readVarInt(DataInputStream input, String what) throws IOException {
+        long value = readVarLong(input);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IOException(String.format("Некорректный %s в бинарном снимке: %d", what, value));
+        }
+        return (int) value;
+    }
+
+    private static long readVarLong(DataInputStream input) throws IOException {
+        long zigzag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = input.readUnsignedByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new IOException("Слишком длинный varint");
+    }
+}
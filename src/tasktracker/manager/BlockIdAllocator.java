@@ -0,0 +1,42 @@
+package tasktracker.manager;
+
+// Выдаёт ID из арендованного диапазона и обращается к общему источнику, только когда диапазон исчерпан.
+// Несколько процессов с общим источником пишут в свои хранилища без пересечения ID
+public class BlockIdAllocator implements IdAllocator {
+
+    private final IdBlockSource source;
+    private final int blockSize;
+    private int next;
+    private int limit;
+
+    public BlockIdAllocator(IdBlockSource source, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Размер диапазона ID должен быть положительным: " + blockSize);
+        }
+        this.source = source;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public synchronized int nextId() {
+        if (next == limit) {
+            next = source.leaseBlock(blockSize);
+            limit = next + blockSize;
+        }
+        return next++;
+    }
+
+    @Override
+    public synchronized void advancePast(int id) {
+        if (id < next) {
+            return;
+        }
+        if (id + 1 < limit) {
+            next = id + 1;
+            return;
+        }
+        // Остаток диапазона уже не годится: следующий берём у источника
+        source.advancePast(id);
+        next = limit = 0;
+    }
+}
@@ -0,0 +1,125 @@
+package tasktracker.manager;
+
+import tasktracker.models.Epic;
+import tasktracker.models.Subtask;
+import tasktracker.models.Task;
+import tasktracker.util.IntList;
+import tasktracker.util.PersistentSortedMap;
+
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SortedSet;
+
+// Неизменяемая версия доски: задачи, эпики, подзадачи и список по приоритету одной зафиксированной записи.
+// Следующая версия получается из предыдущей копированием только путей к изменённым задачам.
+// Объекты задач в снимке общие для всех читателей и не должны меняться: для изменения
+// нужно передать в менеджер новую копию
+public final class BoardSnapshot {
+
+    // Тот же порядок, что и у списка по приоритету менеджера
+    static final Comparator<Task> PRIORITY_ORDER = Comparator.comparing(Task::getStartTime,
+                    Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Task::getId);
+
+    static final BoardSnapshot EMPTY = new BoardSnapshot(0,
+            PersistentSortedMap.empty(Comparator.naturalOrder()),
+            PersistentSortedMap.empty(Comparator.naturalOrder()),
+            PersistentSortedMap.empty(Comparator.naturalOrder()),
+            PersistentSortedMap.empty(PRIORITY_ORDER));
+
+    private final long version;
+    final PersistentSortedMap<Integer, Task> tasks;
+    final PersistentSortedMap<Integer, Epic> epics;
+    final PersistentSortedMap<Integer, Subtask> subtasks;
+    final PersistentSortedMap<Task, Task> prioritized;
+
+    BoardSnapshot(long version, PersistentSortedMap<Integer, Task> tasks, PersistentSortedMap<Integer, Epic> epics,
+                  PersistentSortedMap<Integer, Subtask> subtasks, PersistentSortedMap<Task, Task> prioritized) {
+        this.version = version;
+        this.tasks = tasks;
+        this.epics = epics;
+        this.subtasks = subtasks;
+        this.prioritized = prioritized;
+    }
+
+    // Номер зафиксированной записи, растёт с каждой опубликованной версией
+    public long getVersion() {
+        return version;
+    }
+
+    public Task getTask(int id) {
+        return tasks.get(id);
+    }
+
+    public Epic getEpic(int id) {
+        return epics.get(id);
+    }
+
+    public Subtask getSubtask(int id) {
+        return subtasks.get(id);
+    }
+
+    public Task get(int id) {
+        Task task = tasks.get(id);
+        if (task == null) {
+            task = epics.get(id);
+        }
+        return task != null ? task : subtasks.get(id);
+    }
+
+    // Представления без копирования, в порядке ID
+    public Collection<Task> getTasks() {
+        return tasks.values();
+    }
+
+    public Collection<Epic> getEpics() {
+        return epics.values();
+    }
+
+    public Collection<Subtask> getSubtasks() {
+        return subtasks.values();
+    }
+
+    // Подзадачи эпика в порядке добавления: список ID эпика и подзадачи принадлежат одной версии,
+    // поэтому представление согласовано без копирования
+    public List<Subtask> getEpicSubtasks(int epicId) {
+        Epic epic = epics.get(epicId);
+        if (epic == null) {
+            return List.of();
+        }
+        IntList subtaskIds = epic.getSubtaskIds();
+        return new AbstractList<>() {
+            @Override
+            public Subtask get(int index) {
+                return subtasks.get(subtaskIds.getInt(index));
+            }
+
+            @Override
+            public int size() {
+                return subtaskIds.size();
+            }
+        };
+    }
+
+    public SortedSet<Task> getPrioritizedTasks() {
+        return prioritized.keySet(null, null);
+    }
+
+    // Задачи с началом в [from, to) этой версии
+    public SortedSet<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return prioritized.keySet(probe(from), probe(to));
+    }
+
+    static Task probe(LocalDateTime moment) {
+        if (moment == null) {
+            return null;
+        }
+        Task probe = new Task("", "");
+        probe.setId(Integer.MIN_VALUE);
+        probe.setStartTime(moment);
+        return probe;
+    }
+}
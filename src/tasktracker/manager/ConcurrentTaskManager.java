@@ -0,0 +1,423 @@
+package tasktracker.manager;
+
+import tasktracker.models.Epic;
+import tasktracker.models.Status;
+import tasktracker.models.Subtask;
+import tasktracker.models.Task;
+import tasktracker.models.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Потокобезопасный менеджер для обслуживания запросов из многих потоков.
+// Чтение идёт параллельно под блокировкой чтения. Изменения структуры (создание, удаление, обновление задач,
+// пакеты) берут блокировку записи: они меняют общий индекс ID и список по приоритету.
+// Смена статуса - самая частая запись - структуру не трогает: она идёт под блокировкой чтения и блокировкой
+// полосы эпика (или задачи), поэтому статусы в разных эпиках меняются без взаимной блокировки,
+// а сводка эпика всегда обновляется одним потоком.
+// Окно по приоритету остаётся живым представлением, но каждое обращение к нему берёт блокировку чтения,
+// а обход идёт по копии, снятой под этой блокировкой.
+// Представления get*View - неизменяемые копии: живое представление без блокировки здесь небезопасно.
+// Без копирования читать через forEach*: visitor выполняется под блокировкой чтения.
+// Индекс статусов меняется и под блокировкой чтения (смена статуса), поэтому у него свой монитор:
+// запросы по статусу видят состояние на момент снятия списка ID
+public class ConcurrentTaskManager extends InMemoryTaskManager {
+
+    private static final int STRIPES = 64;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock[] stripes = new Lock[STRIPES];
+
+    public ConcurrentTaskManager() {
+        this(new AtomicIdAllocator());
+    }
+
+    public ConcurrentTaskManager(IdAllocator idAllocator) {
+        super(new SynchronizedHistoryManager(Managers.getDefaultHistory()), idAllocator,
+                new SynchronizedStatusIndex());
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public void createTask(Task task) {
+        write(() -> super.createTask(task));
+    }
+
+    @Override
+    public void createEpic(Epic epic) {
+        write(() -> super.createEpic(epic));
+    }
+
+    @Override
+    public void createSubtask(Subtask subtask, int epicId) {
+        write(() -> super.createSubtask(subtask, epicId));
+    }
+
+    @Override
+    public ArrayList<Task> getTasks() {
+        return read(super::getTasks);
+    }
+
+    @Override
+    public ArrayList<Epic> getEpics() {
+        return read(super::getEpics);
+    }
+
+    @Override
+    public ArrayList<Subtask> getSubtasks() {
+        return read(super::getSubtasks);
+    }
+
+    @Override
+    public ArrayList<Subtask> getEpicSubtasks(int epicId) {
+        return read(() -> super.getEpicSubtasks(epicId));
+    }
+
+    @Override
+    public Collection<Task> getTasksView() {
+        return Collections.unmodifiableList(getTasks());
+    }
+
+    @Override
+    public Collection<Epic> getEpicsView() {
+        return Collections.unmodifiableList(getEpics());
+    }
+
+    @Override
+    public Collection<Subtask> getSubtasksView() {
+        return Collections.unmodifiableList(getSubtasks());
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasksView(int epicId) {
+        return read(() -> List.copyOf(super.getEpicSubtasksView(epicId)));
+    }
+
+    @Override
+    public SortedSet<Task> getPrioritizedTasksView() {
+        return read(() -> Collections.unmodifiableSortedSet(new TreeSet<>(super.getPrioritizedTasksView())));
+    }
+
+    @Override
+    public void forEachTask(Consumer<? super Task> visitor) {
+        visit(() -> super.getTasksView().forEach(visitor));
+    }
+
+    @Override
+    public void forEachEpic(Consumer<? super Epic> visitor) {
+        visit(() -> super.getEpicsView().forEach(visitor));
+    }
+
+    @Override
+    public void forEachSubtask(Consumer<? super Subtask> visitor) {
+        visit(() -> super.getSubtasksView().forEach(visitor));
+    }
+
+    @Override
+    public void forEachPrioritized(Consumer<? super Task> visitor) {
+        visit(() -> super.getPrioritizedTasksView().forEach(visitor));
+    }
+
+    @Override
+    public List<Task> findByStatus(Status status) {
+        return read(() -> super.findByStatus(status));
+    }
+
+    @Override
+    public List<Task> findByStatus(TaskType type, Status status) {
+        return read(() -> super.findByStatus(type, status));
+    }
+
+    @Override
+    public int countByStatus(Status status) {
+        return read(() -> super.countByStatus(status));
+    }
+
+    @Override
+    public int countByStatus(TaskType type, Status status) {
+        return read(() -> super.countByStatus(type, status));
+    }
+
+    @Override
+    public int countByType(TaskType type) {
+        return read(() -> super.countByType(type));
+    }
+
+    // Сводку эпика меняет только владелец полосы эпика
+    @Override
+    public int countEpicSubtasks(int epicId, Status status) {
+        return read(() -> {
+            Lock stripe = stripe(epicId);
+            stripe.lock();
+            try {
+                return super.countEpicSubtasks(epicId, status);
+            } finally {
+                stripe.unlock();
+            }
+        });
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        write(super::deleteAllTasks);
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        write(super::deleteAllEpics);
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        write(super::deleteAllSubtasks);
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        return read(() -> super.getTaskById(id));
+    }
+
+    @Override
+    public Task getById(int id) {
+        return read(() -> super.getById(id));
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        return read(() -> super.getEpicById(id));
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        return read(() -> super.getSubtaskById(id));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        write(() -> super.updateTask(task));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        write(() -> super.updateEpic(epic));
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        write(() -> super.updateSubtask(subtask));
+    }
+
+    @Override
+    public void updateTaskStatus(int taskId, Status status) {
+        lock.readLock().lock();
+        try {
+            Lock stripe = stripe(taskId);
+            stripe.lock();
+            try {
+                super.updateTaskStatus(taskId, status);
+            } finally {
+                stripe.unlock();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Эпик подзадачи меняется только под блокировкой записи, поэтому под блокировкой чтения он стабилен
+    @Override
+    public void updateSubtaskStatus(int subtaskId, Status status) {
+        lock.readLock().lock();
+        try {
+            Subtask subtask = subtasks.get(subtaskId);
+            if (subtask == null) {
+                return;
+            }
+            Lock stripe = stripe(subtask.getEpicId());
+            stripe.lock();
+            try {
+                super.updateSubtaskStatus(subtaskId, status);
+            } finally {
+                stripe.unlock();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteTaskById(int taskId) {
+        write(() -> super.deleteTaskById(taskId));
+    }
+
+    @Override
+    public void deleteEpicById(int epicId) {
+        write(() -> super.deleteEpicById(epicId));
+    }
+
+    @Override
+    public void deleteSubtaskById(int subtaskId) {
+        write(() -> super.deleteSubtaskById(subtaskId));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return read(super::getHistory);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return read(super::getPrioritizedTasks);
+    }
+
+    @Override
+    public SortedSet<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return new LockedSortedSet(read(() -> super.getPrioritizedTasks(from, to)));
+    }
+
+    @Override
+    public List<Task> getNextTasks(LocalDateTime from, int limit) {
+        return read(() -> super.getNextTasks(from, limit));
+    }
+
+    @Override
+    public LocalDateTime findEarliestFreeSlot(Duration duration, LocalDateTime from, LocalDateTime to) {
+        return read(() -> super.findEarliestFreeSlot(duration, from, to));
+    }
+
+    @Override
+    public List<Task> autoSchedule(List<? extends Task> unscheduled, LocalDateTime from, LocalDateTime to) {
+        return write(() -> super.autoSchedule(unscheduled, from, to));
+    }
+
+    @Override
+    public List<BatchOperationResult> applyBatch(List<BatchOperation> operations) {
+        return write(() -> super.applyBatch(operations));
+    }
+
+    @Override
+    public void setRollupVerification(boolean enabled) {
+        write(() -> super.setRollupVerification(enabled));
+    }
+
+    @Override
+    public void enableTimeSlotIndex(int slotMinutes) {
+        write(() -> super.enableTimeSlotIndex(slotMinutes));
+    }
+
+    @Override
+    public List<LocalDateTime> findSlotConflicts(Task task) {
+        return read(() -> super.findSlotConflicts(task));
+    }
+
+    // Живое представление под блокировкой чтения. Итератор обходит копию, поэтому не видит изменений,
+    // сделанных после его создания, и не бросает ConcurrentModificationException
+    private class LockedSortedSet extends AbstractSet<Task> implements SortedSet<Task> {
+        private final SortedSet<Task> view;
+
+        LockedSortedSet(SortedSet<Task> view) {
+            this.view = view;
+        }
+
+        @Override
+        public Iterator<Task> iterator() {
+            return Collections.unmodifiableList(read(() -> new ArrayList<>(view))).iterator();
+        }
+
+        @Override
+        public int size() {
+            return read(view::size);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return read(() -> view.contains(o));
+        }
+
+        @Override
+        public Comparator<? super Task> comparator() {
+            return view.comparator();
+        }
+
+        @Override
+        public SortedSet<Task> subSet(Task fromElement, Task toElement) {
+            return new LockedSortedSet(read(() -> view.subSet(fromElement, toElement)));
+        }
+
+        @Override
+        public SortedSet<Task> headSet(Task toElement) {
+            return new LockedSortedSet(read(() -> view.headSet(toElement)));
+        }
+
+        @Override
+        public SortedSet<Task> tailSet(Task fromElement) {
+            return new LockedSortedSet(read(() -> view.tailSet(fromElement)));
+        }
+
+        @Override
+        public Task first() {
+            return read(view::first);
+        }
+
+        @Override
+        public Task last() {
+            return read(view::last);
+        }
+    }
+
+    private Lock stripe(int id) {
+        return stripes[Math.floorMod(id, STRIPES)];
+    }
+
+    private <R> R read(Supplier<R> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Обход под блокировкой чтения
+    private void visit(Runnable action) {
+        lock.readLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <R> R write(Supplier<R> action) {
+        lock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
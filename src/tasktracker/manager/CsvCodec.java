@@ -0,0 +1,421 @@
+package tasktracker.manager;
+
+import tasktracker.models.*;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Кодек строк CSV без промежуточных объектов: строка пишется прямо в Appendable,
+// а разбор идёт по границам полей в исходной CharSequence через переиспользуемый курсор.
+// Формат байт в байт совпадает с CSVFormatter, поэтому старые файлы data.csv остаются совместимыми.
+public class CsvCodec {
+
+    public static final int FIELD_COUNT = 9;
+
+    private static final int ID = 0;
+    private static final int TYPE = 1;
+    private static final int NAME = 2;
+    private static final int STATUS = 3;
+    private static final int DESCRIPTION = 4;
+    private static final int EPIC = 5;
+    private static final int START_TIME = 6;
+    private static final int DURATION = 7;
+    private static final int END_TIME = 8;
+
+    private static final TaskType[] TASK_TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    public static void appendRow(Task task, Appendable out) throws IOException {
+        TaskType type = TaskType.TASK;
+        if (task instanceof Epic) {
+            type = TaskType.EPIC;
+        } else if (task instanceof Subtask) {
+            type = TaskType.SUBTASK;
+        }
+
+        appendLong(out, task.getId());
+        out.append(',').append(type.name()).append(',');
+        appendEscaped(out, task.getTitle());
+        out.append(',').append(String.valueOf(task.getStatus())).append(',');
+        appendEscaped(out, task.getDescription());
+        out.append(',');
+        if (type == TaskType.SUBTASK) {
+            appendLong(out, ((Subtask) task).getEpicId());
+        }
+        out.append(',');
+        appendDateTime(out, task.getStartTime());
+        out.append(',');
+        Duration duration = task.getDuration();
+        if (duration != null) {
+            appendLong(out, duration.toMinutes());
+        }
+        out.append(',');
+        appendDateTime(out, task.getEndTime());
+    }
+
+    //Экранируем поля с запятыми и кавычками, не создавая новых строк
+    private static void appendEscaped(Appendable out, String field) throws IOException {
+        if (field == null) return;
+
+        boolean needsQuotes = false;
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == ',' || c == '"') {
+                needsQuotes = true;
+                break;
+            }
+        }
+        if (!needsQuotes) {
+            out.append(field);
+            return;
+        }
+
+        out.append('"');
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    private static void appendLong(Appendable out, long value) throws IOException {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                out.append(Long.toString(value));
+                return;
+            }
+            out.append('-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        while (divisor > 0) {
+            out.append((char) ('0' + value / divisor % 10));
+            divisor /= 10;
+        }
+    }
+
+    private static void appendPadded(Appendable out, int value, int width) throws IOException {
+        int divisor = 1;
+        for (int i = 1; i < width; i++) {
+            divisor *= 10;
+        }
+        while (divisor > 0) {
+            out.append((char) ('0' + value / divisor % 10));
+            divisor /= 10;
+        }
+    }
+
+    // Повторяет формат LocalDateTime.toString(): секунды и доли секунды пишутся только если не равны нулю
+    private static void appendDateTime(Appendable out, LocalDateTime dateTime) throws IOException {
+        if (dateTime == null) return;
+
+        int year = dateTime.getYear();
+        if (year < 1000 || year > 9999) {
+            out.append(dateTime.toString());
+            return;
+        }
+        appendPadded(out, year, 4);
+        out.append('-');
+        appendPadded(out, dateTime.getMonthValue(), 2);
+        out.append('-');
+        appendPadded(out, dateTime.getDayOfMonth(), 2);
+        out.append('T');
+        appendPadded(out, dateTime.getHour(), 2);
+        out.append(':');
+        appendPadded(out, dateTime.getMinute(), 2);
+
+        int second = dateTime.getSecond();
+        int nano = dateTime.getNano();
+        if (second > 0 || nano > 0) {
+            out.append(':');
+            appendPadded(out, second, 2);
+            if (nano > 0) {
+                out.append('.');
+                if (nano % 1_000_000 == 0) {
+                    appendPadded(out, nano / 1_000_000, 3);
+                } else if (nano % 1000 == 0) {
+                    appendPadded(out, nano / 1000, 6);
+                } else {
+                    appendPadded(out, nano, 9);
+                }
+            }
+        }
+    }
+
+    // Курсор по полям одной строки. Хранит только границы полей, поэтому один экземпляр
+    // можно переиспользовать для всех строк файла. Не потокобезопасен.
+    public static class RowCursor {
+        private final int[] starts = new int[FIELD_COUNT];
+        private final int[] ends = new int[FIELD_COUNT];
+        private final boolean[] quoted = new boolean[FIELD_COUNT];
+        private final StringBuilder unescaped = new StringBuilder();
+        private CharSequence line;
+        private int fieldCount;
+
+        public RowCursor reset(CharSequence line) {
+            return reset(line, 0);
+        }
+
+        // Разбираем границы полей начиная с позиции from
+        public RowCursor reset(CharSequence line, int from) {
+            this.line = line;
+            fieldCount = 0;
+
+            int position = from;
+            int length = line.length();
+            while (fieldCount < FIELD_COUNT) {
+                int start = position;
+                boolean inQuotes = position < length && line.charAt(position) == '"';
+                if (inQuotes) {
+                    position++;
+                    while (position < length) {
+                        if (line.charAt(position) == '"') {
+                            if (position + 1 < length && line.charAt(position + 1) == '"') {
+                                position += 2;
+                                continue;
+                            }
+                            position++;
+                            break;
+                        }
+                        position++;
+                    }
+                }
+                while (position < length && line.charAt(position) != ',') {
+                    position++;
+                }
+                starts[fieldCount] = start;
+                ends[fieldCount] = position;
+                quoted[fieldCount] = inQuotes;
+                fieldCount++;
+
+                if (position >= length) break;
+                position++; // пропускаем запятую
+            }
+            return this;
+        }
+
+        public int getFieldCount() {
+            return fieldCount;
+        }
+
+        public boolean isEmpty(int field) {
+            return field >= fieldCount || starts[field] == ends[field];
+        }
+
+        public long getLong(int field) {
+            if (isEmpty(field)) {
+                throw new NumberFormatException("Пустое числовое поле");
+            }
+            int position = starts[field];
+            int end = ends[field];
+            boolean negative = line.charAt(position) == '-';
+            if (negative) {
+                position++;
+                if (position == end) {
+                    throw new NumberFormatException("Некорректное число");
+                }
+            }
+            long result = 0;
+            for (; position < end; position++) {
+                int digit = line.charAt(position) - '0';
+                if (digit < 0 || digit > 9 || result > (Long.MAX_VALUE - digit) / 10) {
+                    throw new NumberFormatException("Некорректное число: " + line.subSequence(starts[field], end));
+                }
+                result = result * 10 + digit;
+            }
+            return negative ? -result : result;
+        }
+
+        public int getInt(int field) {
+            long value = getLong(field);
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                throw new NumberFormatException("Число вне диапазона int: " + value);
+            }
+            return (int) value;
+        }
+
+        public String getString(int field) {
+            if (isEmpty(field)) return "";
+
+            int start = starts[field];
+            int end = ends[field];
+            if (!quoted[field]) {
+                return line.subSequence(start, end).toString();
+            }
+
+            // Убираем обрамляющие кавычки и сдвоенные кавычки внутри поля
+            unescaped.setLength(0);
+            int last = line.charAt(end - 1) == '"' && end - 1 > start ? end - 1 : end;
+            for (int position = start + 1; position < last; position++) {
+                char c = line.charAt(position);
+                unescaped.append(c);
+                if (c == '"' && position + 1 < last && line.charAt(position + 1) == '"') {
+                    position++;
+                }
+            }
+            return unescaped.toString();
+        }
+
+        public TaskType getTaskType(int field) {
+            for (TaskType type : TASK_TYPES) {
+                if (fieldEquals(field, type.name())) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Неизвестный тип задачи: " + fieldText(field));
+        }
+
+        public Status getStatus(int field) {
+            for (Status status : STATUSES) {
+                if (fieldEquals(field, status.name())) {
+                    return status;
+                }
+            }
+            throw new IllegalArgumentException("Неизвестный статус: " + fieldText(field));
+        }
+
+        // Некорректное время, как и в CSVFormatter, считается отсутствующим
+        public LocalDateTime getDateTime(int field) {
+            if (isEmpty(field)) return null;
+
+            int position = starts[field];
+            int length = ends[field] - position;
+            if (length < 16 || line.charAt(position + 4) != '-' || line.charAt(position + 7) != '-'
+                    || line.charAt(position + 10) != 'T' || line.charAt(position + 13) != ':') {
+                return parseDateTimeFallback(field);
+            }
+            try {
+                int year = digits(position, 4);
+                int month = digits(position + 5, 2);
+                int day = digits(position + 8, 2);
+                int hour = digits(position + 11, 2);
+                int minute = digits(position + 14, 2);
+                int second = 0;
+                int nano = 0;
+                if (length > 16) {
+                    if (length < 19 || line.charAt(position + 16) != ':') {
+                        return parseDateTimeFallback(field);
+                    }
+                    second = digits(position + 17, 2);
+                    if (length > 19) {
+                        int fractionLength = length - 20;
+                        if (line.charAt(position + 19) != '.' || fractionLength < 1 || fractionLength > 9) {
+                            return parseDateTimeFallback(field);
+                        }
+                        nano = digits(position + 20, fractionLength);
+                        for (int i = fractionLength; i < 9; i++) {
+                            nano *= 10;
+                        }
+                    }
+                }
+                return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+            } catch (NumberFormatException | DateTimeException exception) {
+                return null;
+            }
+        }
+
+        public Duration getMinutes(int field) {
+            if (isEmpty(field)) return null;
+            try {
+                return Duration.ofMinutes(getLong(field));
+            } catch (NumberFormatException exception) {
+                return null;
+            }
+        }
+
+        // Собираем задачу из текущей строки
+        public Task toTask() {
+            if (fieldCount < 5) {
+                throw new IllegalArgumentException(String.format("Некорректный формат CSV строки: '%s'", line));
+            }
+
+            try {
+                int id = getInt(ID);
+                TaskType type = getTaskType(TYPE);
+                String name = getString(NAME);
+                Status status = getStatus(STATUS);
+                String description = getString(DESCRIPTION);
+
+                Task task;
+                switch (type) {
+                    case TASK:
+                        task = new Task(name, description);
+                        break;
+                    case EPIC:
+                        Epic epic = new Epic(name, description);
+                        LocalDateTime endTime = getDateTime(END_TIME);
+                        if (endTime != null) {
+                            epic.setEndTime(endTime);
+                        }
+                        task = epic;
+                        break;
+                    case SUBTASK:
+                        if (isEmpty(EPIC)) {
+                            throw new IllegalArgumentException(String.format("Для подзадачи отсутствует epicId: '%s'",
+                                    line));
+                        }
+                        Subtask subtask = new Subtask(name, description);
+                        subtask.setEpicId(getInt(EPIC));
+                        task = subtask;
+                        break;
+                    default:
+                        throw new IllegalArgumentException(String.format("Неизвестный тип задачи: '%s'", type));
+                }
+
+                task.setId(id);
+                task.setStatus(status);
+                task.setStartTime(getDateTime(START_TIME));
+                task.setDuration(getMinutes(DURATION));
+                return task;
+
+            } catch (IllegalArgumentException exception) {
+                throw new IllegalArgumentException(String.format("Некорректные данные в строке: '%s'", line), exception);
+            }
+        }
+
+        private int digits(int position, int count) {
+            int result = 0;
+            for (int i = 0; i < count; i++) {
+                int digit = line.charAt(position + i) - '0';
+                if (digit < 0 || digit > 9) {
+                    throw new NumberFormatException("Ожидалась цифра");
+                }
+                result = result * 10 + digit;
+            }
+            return result;
+        }
+
+        private LocalDateTime parseDateTimeFallback(int field) {
+            try {
+                return LocalDateTime.parse(fieldText(field));
+            } catch (DateTimeException exception) {
+                return null;
+            }
+        }
+
+        private boolean fieldEquals(int field, String value) {
+            if (field >= fieldCount || ends[field] - starts[field] != value.length()) {
+                return false;
+            }
+            int start = starts[field];
+            for (int i = 0; i < value.length(); i++) {
+                if (line.charAt(start + i) != value.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String fieldText(int field) {
+            return field < fieldCount ? line.subSequence(starts[field], ends[field]).toString() : "";
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package tasktracker.manager;
+
+// Политика сброса журнала на диск
+public enum DurabilityPolicy {
+    SYNC,  // каждая запись пишется и синхронизируется с диском (fsync) в потоке вызова
+    BATCH, // записи копятся и пишутся фоновым потоком пачкой, fsync на каждую пачку
+    ASYNC  // записи пишутся фоновым потоком пачкой без fsync
+}
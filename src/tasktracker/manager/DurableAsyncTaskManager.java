@@ -0,0 +1,44 @@
+package tasktracker.manager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+// Асинхронный менеджер над файловым хранилищем: команды идут через EventLoopTaskManager,
+// подряд идущие изменения записываются одной группой, и будущее изменения завершается только после
+// записи группы на диск. Гарантия определяется DurabilityPolicy менеджера: SYNC и BATCH - после fsync
+// журнала, ASYNC - после записи в файл без fsync, без журнала - после перезаписи снимка
+public class DurableAsyncTaskManager extends AbstractAsyncTaskManager implements AutoCloseable {
+
+    private final FileBackedTaskManager manager;
+    private final EventLoopTaskManager loop;
+
+    public DurableAsyncTaskManager(FileBackedTaskManager manager) {
+        this(manager, EventLoopTaskManager.DEFAULT_QUEUE_CAPACITY, EventLoopTaskManager.DEFAULT_MAX_BATCH);
+    }
+
+    public DurableAsyncTaskManager(FileBackedTaskManager manager, int queueCapacity, int maxBatch) {
+        this.manager = manager;
+        this.loop = new EventLoopTaskManager(manager, queueCapacity, maxBatch);
+    }
+
+    public long getGroupsCommitted() {
+        return loop.getGroupsCommitted();
+    }
+
+    @Override
+    protected <R> CompletableFuture<R> query(Function<TaskManager, R> action) {
+        return loop.submit(action::apply);
+    }
+
+    @Override
+    protected <R> CompletableFuture<R> mutation(Function<TaskManager, R> action) {
+        return loop.submitMutation(action::apply);
+    }
+
+    // Дожидаемся принятых команд, затем закрываем журнал
+    @Override
+    public void close() {
+        loop.close();
+        manager.close();
+    }
+}
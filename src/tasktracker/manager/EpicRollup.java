@@ -0,0 +1,118 @@
+package tasktracker.manager;
+
+import tasktracker.models.Epic;
+import tasktracker.models.Status;
+import tasktracker.models.Subtask;
+import tasktracker.util.IntObjectHashMap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.TreeMap;
+
+// Сводка по подзадачам эпика, которая обновляется при каждом изменении подзадачи, а не пересчитывается заново:
+// счётчики статусов, сумма длительностей и мультимножества начал и окончаний для min/max.
+// Вклад каждой подзадачи запоминается, поэтому её можно вычесть, даже если объект уже изменён снаружи
+public class EpicRollup {
+
+    private static class Contribution {
+        final Status status;
+        final LocalDateTime start;
+        final LocalDateTime end;
+        final Duration duration;
+
+        Contribution(Subtask subtask) {
+            this.status = subtask.getStatus();
+            // В расчёте времени участвуют только подзадачи с началом и длительностью
+            boolean timed = subtask.getStartTime() != null && subtask.getDuration() != null;
+            this.start = timed ? subtask.getStartTime() : null;
+            this.end = timed ? subtask.getEndTime() : null;
+            this.duration = timed ? subtask.getDuration() : null;
+        }
+    }
+
+    private final IntObjectHashMap<Contribution> contributions = new IntObjectHashMap<>();
+    private final int[] statusCounts = new int[Status.values().length];
+    private final TreeMap<LocalDateTime, Integer> starts = new TreeMap<>();
+    private final TreeMap<LocalDateTime, Integer> ends = new TreeMap<>();
+    private Duration totalDuration = Duration.ZERO;
+
+    public void add(Subtask subtask) {
+        remove(subtask.getId());
+        Contribution contribution = new Contribution(subtask);
+        contributions.put(subtask.getId(), contribution);
+        if (contribution.status != null) {
+            statusCounts[contribution.status.ordinal()]++;
+        }
+        if (contribution.start != null) {
+            starts.merge(contribution.start, 1, Integer::sum);
+            ends.merge(contribution.end, 1, Integer::sum);
+            totalDuration = totalDuration.plus(contribution.duration);
+        }
+    }
+
+    public void remove(int subtaskId) {
+        Contribution contribution = contributions.remove(subtaskId);
+        if (contribution == null) return;
+
+        if (contribution.status != null) {
+            statusCounts[contribution.status.ordinal()]--;
+        }
+        if (contribution.start != null) {
+            decrement(starts, contribution.start);
+            decrement(ends, contribution.end);
+            totalDuration = totalDuration.minus(contribution.duration);
+        }
+    }
+
+    public void clear() {
+        contributions.clear();
+        Arrays.fill(statusCounts, 0);
+        starts.clear();
+        ends.clear();
+        totalDuration = Duration.ZERO;
+    }
+
+    public int size() {
+        return contributions.size();
+    }
+
+    // Число подзадач эпика с заданным статусом
+    public int count(Status status) {
+        return statusCounts[status.ordinal()];
+    }
+
+    public Status getStatus() {
+        int total = contributions.size();
+        if (total == 0 || statusCounts[Status.NEW.ordinal()] == total) {
+            return Status.NEW;
+        }
+        return statusCounts[Status.DONE.ordinal()] == total ? Status.DONE : Status.IN_PROGRESS;
+    }
+
+    public LocalDateTime getStartTime() {
+        return starts.isEmpty() ? null : starts.firstKey();
+    }
+
+    public LocalDateTime getEndTime() {
+        return ends.isEmpty() ? null : ends.lastKey();
+    }
+
+    public Duration getDuration() {
+        return starts.isEmpty() ? Duration.ZERO : totalDuration;
+    }
+
+    public void applyStatus(Epic epic) {
+        epic.setStatus(getStatus());
+    }
+
+    public void applyTime(Epic epic) {
+        epic.setStartTime(getStartTime());
+        epic.setDuration(getDuration());
+        epic.setEndTime(getEndTime());
+    }
+
+    private static void decrement(TreeMap<LocalDateTime, Integer> multiset, LocalDateTime key) {
+        multiset.computeIfPresent(key, (moment, count) -> count == 1 ? null : count - 1);
+    }
+}
@@ -0,0 +1,540 @@
+package tasktracker.manager;
+
+import tasktracker.models.Epic;
+import tasktracker.models.Status;
+import tasktracker.models.Subtask;
+import tasktracker.models.Task;
+import tasktracker.models.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Режим с одним потоком-исполнителем: все команды к менеджеру проходят через ограниченную очередь
+// и выполняются по одной в порядке поступления, поэтому блокировки не нужны, а порядок записей
+// в FileBackedTaskManager детерминирован.
+// Исполнитель забирает из очереди всё накопившееся (drainTo) и выполняет подряд идущие изменения одним
+// пакетом менеджера: эпики пересчитываются и файл записывается один раз на группу. Будущие результаты
+// изменений завершаются после записи группы. Команда чтения сначала закрывает открытую группу,
+// так что чтение всегда видит применённые изменения. Как и в applyBatch, предупреждения менеджера
+// внутри группы не печатаются.
+// Асинхронный API (submit, submitMutation) удобно вызывать из виртуальных потоков; синхронные методы
+// TaskManager ждут результата. Будущие завершаются в потоке исполнителя: тяжёлые зависимые этапы
+// лучше вешать через then*Async.
+// Представления get*View - неизменяемые копии, снятые в потоке исполнителя. Без копирования читать через
+// forEach*: visitor выполняется в потоке исполнителя как одна команда чтения и задерживает очередь
+public class EventLoopTaskManager implements TaskManager, AutoCloseable {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    public static final int DEFAULT_MAX_BATCH = 256;
+
+    private static final class Command<R> {
+        final Function<InMemoryTaskManager, R> action;
+        final boolean mutation;
+        final CompletableFuture<R> future = new CompletableFuture<>();
+        R result;
+
+        Command(Function<InMemoryTaskManager, R> action, boolean mutation) {
+            this.action = action;
+            this.mutation = mutation;
+        }
+
+        void run(InMemoryTaskManager manager) {
+            try {
+                result = action.apply(manager);
+                if (!mutation) {
+                    future.complete(result);
+                }
+            } catch (Throwable exception) {
+                future.completeExceptionally(exception);
+            }
+        }
+    }
+
+    private static final Command<Void> STOP = new Command<>(manager -> null, false);
+
+    private final InMemoryTaskManager delegate;
+    private final BlockingQueue<Command<?>> queue;
+    private final int maxBatch;
+    private final Thread loop;
+    // Приём команд и закрытие взаимоисключающие: после STOP в очередь ничего не попадает,
+    // поэтому исполнитель, дочитав очередь до конца, завершает все принятые команды
+    private final ReadWriteLock admission = new ReentrantReadWriteLock();
+    private volatile boolean closed;
+    private long groupsCommitted;
+
+    public EventLoopTaskManager(InMemoryTaskManager delegate) {
+        this(delegate, DEFAULT_QUEUE_CAPACITY, DEFAULT_MAX_BATCH);
+    }
+
+    public EventLoopTaskManager(InMemoryTaskManager delegate, int queueCapacity, int maxBatch) {
+        if (queueCapacity <= 0 || maxBatch <= 0) {
+            throw new IllegalArgumentException("Ёмкость очереди и размер группы должны быть положительными");
+        }
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatch = maxBatch;
+        this.loop = new Thread(this::runLoop, "task-manager-loop");
+        this.loop.setDaemon(true);
+        this.loop.start();
+    }
+
+    // Команда чтения над менеджером: выполняется в потоке исполнителя
+    public <R> CompletableFuture<R> submit(Function<InMemoryTaskManager, R> query) {
+        return enqueue(new Command<>(query, false));
+    }
+
+    // Команда изменения: будущее завершается после записи группы, в которую она попала
+    public <R> CompletableFuture<R> submitMutation(Function<InMemoryTaskManager, R> mutation) {
+        return enqueue(new Command<>(mutation, true));
+    }
+
+    // Число записанных групп изменений: для оценки, сколько команд объединяется в одну запись
+    public long getGroupsCommitted() {
+        return call(manager -> groupsCommitted, false);
+    }
+
+    // Новые команды отклоняются, уже принятые выполняются до конца.
+    // Из потока исполнителя закрыть нельзя: он ждал бы сам себя
+    @Override
+    public void close() {
+        if (Thread.currentThread() == loop) {
+            throw new IllegalStateException("Нельзя закрыть менеджер из его потока-исполнителя");
+        }
+        admission.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            admission.writeLock().unlock();
+        }
+        try {
+            queue.put(STOP);
+            loop.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void createTask(Task task) {
+        mutate(manager -> manager.createTask(task));
+    }
+
+    @Override
+    public void createEpic(Epic epic) {
+        mutate(manager -> manager.createEpic(epic));
+    }
+
+    @Override
+    public void createSubtask(Subtask subtask, int epicId) {
+        mutate(manager -> manager.createSubtask(subtask, epicId));
+    }
+
+    @Override
+    public ArrayList<Task> getTasks() {
+        return call(InMemoryTaskManager::getTasks, false);
+    }
+
+    @Override
+    public ArrayList<Epic> getEpics() {
+        return call(InMemoryTaskManager::getEpics, false);
+    }
+
+    @Override
+    public ArrayList<Subtask> getSubtasks() {
+        return call(InMemoryTaskManager::getSubtasks, false);
+    }
+
+    @Override
+    public ArrayList<Subtask> getEpicSubtasks(int epicId) {
+        return call(manager -> manager.getEpicSubtasks(epicId), false);
+    }
+
+    @Override
+    public Collection<Task> getTasksView() {
+        return Collections.unmodifiableList(getTasks());
+    }
+
+    @Override
+    public Collection<Epic> getEpicsView() {
+        return Collections.unmodifiableList(getEpics());
+    }
+
+    @Override
+    public Collection<Subtask> getSubtasksView() {
+        return Collections.unmodifiableList(getSubtasks());
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasksView(int epicId) {
+        return call(manager -> List.copyOf(manager.getEpicSubtasksView(epicId)), false);
+    }
+
+    @Override
+    public SortedSet<Task> getPrioritizedTasksView() {
+        return call(manager -> Collections.unmodifiableSortedSet(new TreeSet<>(manager.getPrioritizedTasksView())),
+                false);
+    }
+
+    @Override
+    public void forEachTask(Consumer<? super Task> visitor) {
+        visit(manager -> manager.getTasksView().forEach(visitor));
+    }
+
+    @Override
+    public void forEachEpic(Consumer<? super Epic> visitor) {
+        visit(manager -> manager.getEpicsView().forEach(visitor));
+    }
+
+    @Override
+    public void forEachSubtask(Consumer<? super Subtask> visitor) {
+        visit(manager -> manager.getSubtasksView().forEach(visitor));
+    }
+
+    @Override
+    public void forEachPrioritized(Consumer<? super Task> visitor) {
+        visit(manager -> manager.getPrioritizedTasksView().forEach(visitor));
+    }
+
+    @Override
+    public List<Task> findByStatus(Status status) {
+        return call(manager -> manager.findByStatus(status), false);
+    }
+
+    @Override
+    public List<Task> findByStatus(TaskType type, Status status) {
+        return call(manager -> manager.findByStatus(type, status), false);
+    }
+
+    @Override
+    public int countByStatus(Status status) {
+        return call(manager -> manager.countByStatus(status), false);
+    }
+
+    @Override
+    public int countByStatus(TaskType type, Status status) {
+        return call(manager -> manager.countByStatus(type, status), false);
+    }
+
+    @Override
+    public int countByType(TaskType type) {
+        return call(manager -> manager.countByType(type), false);
+    }
+
+    @Override
+    public int countEpicSubtasks(int epicId, Status status) {
+        return call(manager -> manager.countEpicSubtasks(epicId, status), false);
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        mutate(InMemoryTaskManager::deleteAllTasks);
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        mutate(InMemoryTaskManager::deleteAllEpics);
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        mutate(InMemoryTaskManager::deleteAllSubtasks);
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        return call(manager -> manager.getTaskById(id), false);
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        return call(manager -> manager.getEpicById(id), false);
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        return call(manager -> manager.getSubtaskById(id), false);
+    }
+
+    @Override
+    public Task getById(int id) {
+        return call(manager -> manager.getById(id), false);
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        mutate(manager -> manager.updateTask(task));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        mutate(manager -> manager.updateEpic(epic));
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        mutate(manager -> manager.updateSubtask(subtask));
+    }
+
+    @Override
+    public void updateTaskStatus(int taskId, Status status) {
+        mutate(manager -> manager.updateTaskStatus(taskId, status));
+    }
+
+    @Override
+    public void updateSubtaskStatus(int subtaskId, Status status) {
+        mutate(manager -> manager.updateSubtaskStatus(subtaskId, status));
+    }
+
+    @Override
+    public void deleteTaskById(int taskId) {
+        mutate(manager -> manager.deleteTaskById(taskId));
+    }
+
+    @Override
+    public void deleteEpicById(int epicId) {
+        mutate(manager -> manager.deleteEpicById(epicId));
+    }
+
+    @Override
+    public void deleteSubtaskById(int subtaskId) {
+        mutate(manager -> manager.deleteSubtaskById(subtaskId));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return call(InMemoryTaskManager::getHistory, false);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return call(InMemoryTaskManager::getPrioritizedTasks, false);
+    }
+
+    // Живое окно: каждое обращение выполняется в потоке исполнителя, обход идёт по копии
+    @Override
+    public SortedSet<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return new LoopWindow(call(manager -> manager.getPrioritizedTasks(from, to), false));
+    }
+
+    @Override
+    public List<Task> getNextTasks(int limit) {
+        return getNextTasks(LocalDateTime.now(), limit);
+    }
+
+    @Override
+    public List<Task> getNextTasks(LocalDateTime from, int limit) {
+        return call(manager -> manager.getNextTasks(from, limit), false);
+    }
+
+    @Override
+    public LocalDateTime findEarliestFreeSlot(Duration duration) {
+        return findEarliestFreeSlot(duration, LocalDateTime.now(), null);
+    }
+
+    @Override
+    public LocalDateTime findEarliestFreeSlot(Duration duration, LocalDateTime from, LocalDateTime to) {
+        return call(manager -> manager.findEarliestFreeSlot(duration, from, to), false);
+    }
+
+    @Override
+    public List<Task> autoSchedule(List<? extends Task> unscheduled, LocalDateTime from, LocalDateTime to) {
+        return call(manager -> manager.autoSchedule(unscheduled, from, to), true);
+    }
+
+    @Override
+    public List<BatchOperationResult> applyBatch(List<BatchOperation> operations) {
+        return call(manager -> manager.applyBatch(operations), true);
+    }
+
+    private void visit(Consumer<InMemoryTaskManager> action) {
+        call(manager -> {
+            action.accept(manager);
+            return null;
+        }, false);
+    }
+
+    private void mutate(Consumer<InMemoryTaskManager> action) {
+        call(manager -> {
+            action.accept(manager);
+            return null;
+        }, true);
+    }
+
+    // Синхронный вызов: ждём результат. Из потока исполнителя (команда внутри команды) выполняем сразу,
+    // иначе исполнитель ждал бы сам себя
+    private <R> R call(Function<InMemoryTaskManager, R> action, boolean mutation) {
+        if (Thread.currentThread() == loop) {
+            return action.apply(delegate);
+        }
+        try {
+            return enqueue(new Command<>(action, mutation)).join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (exception.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw exception;
+        }
+    }
+
+    // Проверка closed и put под одной блокировкой приёма: close не может вклиниться между ними.
+    // Ожидание места в полной очереди безопасно - исполнитель работает, пока не получит STOP
+    private <R> CompletableFuture<R> enqueue(Command<R> command) {
+        admission.readLock().lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Менеджер закрыт");
+            }
+            queue.put(command);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            command.future.completeExceptionally(exception);
+        } finally {
+            admission.readLock().unlock();
+        }
+        return command.future;
+    }
+
+    private void runLoop() {
+        List<Command<?>> drained = new ArrayList<>(maxBatch);
+        List<Command<?>> pending = new ArrayList<>();
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                drained.add(queue.take());
+            } catch (InterruptedException exception) {
+                continue;
+            }
+            queue.drainTo(drained, maxBatch - 1);
+
+            for (Command<?> command : drained) {
+                if (command == STOP) {
+                    stopping = true;
+                    continue;
+                }
+                if (stopping) {
+                    command.future.completeExceptionally(new IllegalStateException("Менеджер закрыт"));
+                    continue;
+                }
+                if (command.mutation) {
+                    if (pending.isEmpty()) {
+                        delegate.beginBatch();
+                    }
+                    pending.add(command);
+                    command.run(delegate);
+                } else {
+                    commit(pending);
+                    command.run(delegate);
+                }
+            }
+            commit(pending);
+            drained.clear();
+        }
+        // Команды, оставшиеся после STOP в последней пачке, отклонены выше; очередь дочитываем до конца
+        Command<?> command;
+        while ((command = queue.poll()) != null) {
+            command.future.completeExceptionally(new IllegalStateException("Менеджер закрыт"));
+        }
+    }
+
+    // Закрываем пакет менеджера (пересчёт эпиков и запись) и завершаем будущие изменений группы
+    private void commit(List<Command<?>> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        RuntimeException failure = null;
+        try {
+            delegate.endBatch();
+            groupsCommitted++;
+        } catch (RuntimeException exception) {
+            failure = exception;
+        }
+        for (Command<?> command : pending) {
+            complete(command, failure);
+        }
+        pending.clear();
+    }
+
+    private static <R> void complete(Command<R> command, RuntimeException failure) {
+        if (failure != null) {
+            command.future.completeExceptionally(failure);
+        } else {
+            command.future.complete(command.result);
+        }
+    }
+
+    private class LoopWindow extends AbstractSet<Task> implements SortedSet<Task> {
+        private final SortedSet<Task> view;
+
+        LoopWindow(SortedSet<Task> view) {
+            this.view = view;
+        }
+
+        @Override
+        public Iterator<Task> iterator() {
+            return Collections.unmodifiableList(call(manager -> new ArrayList<>(view), false)).iterator();
+        }
+
+        @Override
+        public int size() {
+            return call(manager -> view.size(), false);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return call(manager -> view.contains(o), false);
+        }
+
+        @Override
+        public Comparator<? super Task> comparator() {
+            return view.comparator();
+        }
+
+        @Override
+        public SortedSet<Task> subSet(Task fromElement, Task toElement) {
+            return new LoopWindow(call(manager -> view.subSet(fromElement, toElement), false));
+        }
+
+        @Override
+        public SortedSet<Task> headSet(Task toElement) {
+            return new LoopWindow(call(manager -> view.headSet(toElement), false));
+        }
+
+        @Override
+        public SortedSet<Task> tailSet(Task fromElement) {
+            return new LoopWindow(call(manager -> view.tailSet(fromElement), false));
+        }
+
+        @Override
+        public Task first() {
+            return call(manager -> view.first(), false);
+        }
+
+        @Override
+        public Task last() {
+            return call(manager -> view.last(), false);
+        }
+    }
+}
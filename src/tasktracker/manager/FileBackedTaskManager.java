@@ -1,20 +1,92 @@
 package tasktracker.manager;
 
 import tasktracker.models.*;
+import tasktracker.util.IntHashSet;
+import tasktracker.util.IntLongHashMap;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-
-public class FileBackedTaskManager extends InMemoryTaskManager {
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCloseable {
 
     private final File file;
+    private final SnapshotFormat snapshotFormat;
+    private final TaskJournal journal;
+
+    // Компакция: при росте журнала снимок пишется в фоне, а журнал начинается заново
+    private long maxJournalBytes;
+    private long maxJournalRecords;
+    private ExecutorService compactor;
+    private Future<?> compaction;
+
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+    private LoadStatistics lastLoadStatistics;
+    private ImportReport lastImportReport;
+
+    // Кэш готовых CSV-строк: при сохранении заново кодируются только изменённые задачи
+    private final Map<Integer, String> rowCache = new HashMap<>();
+    private final StringBuilder rowBuilder = new StringBuilder(128);
+    private long rowsEncoded;
+    private long rowsReused;
+
+    // Режим ленивых описаний: строки описаний читаются из снимка по смещению при первом обращении
+    private LazyDescriptionStore descriptions;
+    // Задачи, изменённые после записи снимка: их строки кодируются заново, остальные копируются из снимка
+    private final IntHashSet staleRows = new IntHashSet();
+
+    // Задачи, изменённые внутри пакета: записываются на диск одним действием в endBatch
+    private final Set<Integer> batchChanges = new LinkedHashSet<>();
 
     public FileBackedTaskManager(File file) {
+        this(file, false);
+    }
+
+    // В режиме журнала изменения дописываются в <file>.log, а полный снимок пишется только в save()
+    public FileBackedTaskManager(File file, boolean journaling) {
+        this(file, journaling ? DurabilityPolicy.SYNC : null);
+    }
+
+    public FileBackedTaskManager(File file, DurabilityPolicy policy) {
+        this(file, policy, TaskJournal.DEFAULT_BATCH_SIZE, TaskJournal.DEFAULT_FLUSH_INTERVAL_MILLIS);
+    }
+
+    // policy == null - журнал не ведётся, каждое изменение перезаписывает файл целиком
+    public FileBackedTaskManager(File file, DurabilityPolicy policy, int batchSize, long flushIntervalMillis) {
+        this(file, policy, batchSize, flushIntervalMillis, new AtomicIdAllocator());
+    }
+
+    // Общий IdAllocator нужен, когда несколько менеджеров пишут в разные файлы без пересечения ID
+    public FileBackedTaskManager(File file, DurabilityPolicy policy, int batchSize, long flushIntervalMillis,
+                                 IdAllocator idAllocator) {
+        super(Managers.getDefaultHistory(), idAllocator);
         this.file = file;
 
         //Если нет директории хранения, создаем ее
@@ -31,24 +103,65 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
                 throw new ManagerSaveException("Не удалось создать файл: " + file.getAbsolutePath(), exception);
             }
         }
+
+        snapshotFormat = SnapshotFormat.detect(file);
+        journal = policy != null
+                ? new TaskJournal(getJournalFile(file), policy, batchSize, flushIntervalMillis)
+                : null;
+    }
+
+    public static File getJournalFile(File file) {
+        return new File(file.getPath() + ".log");
+    }
+
+    // Журнал, вынесенный из работы на время записи снимка
+    public static File getArchivedJournalFile(File file) {
+        return new File(file.getPath() + ".log.old");
+    }
+
+    // Включаем компакцию журнала по его размеру в байтах или по числу записей (0 - порог не используется)
+    public void enableCompaction(long maxJournalBytes, long maxJournalRecords) {
+        if (journal == null) {
+            throw new IllegalStateException("Компакция доступна только в режиме журнала");
+        }
+        this.maxJournalBytes = maxJournalBytes;
+        this.maxJournalRecords = maxJournalRecords;
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "snapshot-writer-" + file.getName());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public boolean isJournaling() {
+        return journal != null;
+    }
+
+    public SnapshotFormat getSnapshotFormat() {
+        return snapshotFormat;
     }
 
     @Override
     public void createTask(Task task) {
         super.createTask(task);
-        save();
+        persist(journal -> journal.appendPut(tasks.get(task.getId())));
     }
 
     @Override
     public void createEpic(Epic epic) {
         super.createEpic(epic);
-        save();
+        persist(journal -> journal.appendPut(epics.get(epic.getId())));
     }
 
     @Override
     public void createSubtask(Subtask subtask, int epicId) {
         super.createSubtask(subtask, epicId);
-        save();
+        persist(journal -> {
+            journal.appendPut(subtasks.get(subtask.getId()));
+            journal.appendPut(epics.get(epicId));
+        });
     }
 
     @Override
@@ -74,67 +187,87 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
     @Override
     public void deleteAllTasks() {
         super.deleteAllTasks();
-        save();
+        persist(journal -> journal.appendClear(TaskType.TASK));
     }
 
     @Override
     public void deleteAllEpics() {
         super.deleteAllEpics();
-        save();
+        persist(journal -> journal.appendClear(TaskType.EPIC));
     }
 
     @Override
     public void deleteAllSubtasks() {
         super.deleteAllSubtasks();
-        save();
+        persist(journal -> journal.appendClear(TaskType.SUBTASK));
     }
 
     @Override
     public void updateTask(Task task) {
         super.updateTask(task);
-        save();
+        persist(journal -> journal.appendPut(tasks.get(task.getId())));
     }
 
     @Override
     public void updateEpic(Epic epic) {
         super.updateEpic(epic);
-        save();
+        persist(journal -> journal.appendPut(epics.get(epic.getId())));
     }
 
     @Override
     public void updateSubtask(Subtask subtask) {
+        Subtask oldSubtask = subtasks.get(subtask.getId());
+        int oldEpicId = oldSubtask != null ? oldSubtask.getEpicId() : 0;
         super.updateSubtask(subtask);
-        save();
+        persist(journal -> {
+            journal.appendPut(subtasks.get(subtask.getId()));
+            journal.appendPut(epics.get(subtask.getEpicId()));
+            if (oldEpicId != subtask.getEpicId()) {
+                journal.appendPut(epics.get(oldEpicId));
+            }
+        });
     }
 
     @Override
     public void updateTaskStatus(int taskId, Status status) {
         super.updateTaskStatus(taskId, status);
-        save();
+        persist(journal -> journal.appendPut(tasks.get(taskId)));
     }
 
     @Override
     public void updateSubtaskStatus(int subtaskId, Status status) {
         super.updateSubtaskStatus(subtaskId, status);
-        save();
+        persist(journal -> {
+            Subtask subtask = subtasks.get(subtaskId);
+            if (subtask != null) {
+                journal.appendPut(subtask);
+                journal.appendPut(epics.get(subtask.getEpicId()));
+            }
+        });
     }
 
     @Override
     public void deleteTaskById(int taskId) {
         super.deleteTaskById(taskId);
-        save();
+        persist(journal -> journal.appendDelete(taskId));
     }
 
     @Override
     public void deleteEpicById(int epicId) {
         super.deleteEpicById(epicId);
-        save();
+        persist(journal -> journal.appendDelete(epicId));
     }
 
     @Override
     public void deleteSubtaskById(int subtaskId) {
+        Subtask subtask = subtasks.get(subtaskId);
         super.deleteSubtaskById(subtaskId);
-        save();
+        persist(journal -> {
+            journal.appendDelete(subtaskId);
+            if (subtask != null) {
+                journal.appendPut(epics.get(subtask.getEpicId()));
+            }
+        });
     }
 
     @Override
@@ -154,92 +287,634 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
 
 
     public static FileBackedTaskManager loadFromFile(File file) {
+        return loadFromFile(file, false);
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, boolean journaling) {
+        return loadFromFile(file, journaling ? DurabilityPolicy.SYNC : null);
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, DurabilityPolicy policy) {
+        FileBackedTaskManager taskManager = new FileBackedTaskManager(file, policy);
+        taskManager.load();
+        return taskManager;
+    }
+
+    // Параллельная загрузка большого CSV: записи вставляются пачкой, конфликты собираются в отчёт
+    public static FileBackedTaskManager importFromFile(File file, int parallelism) {
         FileBackedTaskManager taskManager = new FileBackedTaskManager(file);
+        if (taskManager.snapshotFormat != SnapshotFormat.CSV) {
+            throw new IllegalArgumentException("Параллельный импорт поддерживает только CSV: " + file.getAbsolutePath());
+        }
+        taskManager.lastImportReport = new ParallelCsvImporter(parallelism).importInto(taskManager, file);
+        taskManager.idAllocator.advancePast(taskManager.replayJournals());
+        return taskManager;
+    }
+
+    // Загрузка без описаний в памяти: задача хранит только ссылку на свою строку в CSV-снимке
+    public static FileBackedTaskManager loadLazily(File file, int descriptionCacheSize) {
+        return loadLazily(file, null, descriptionCacheSize);
+    }
+
+    public static FileBackedTaskManager loadLazily(File file, DurabilityPolicy policy, int descriptionCacheSize) {
+        FileBackedTaskManager taskManager = new FileBackedTaskManager(file, policy);
+        if (taskManager.snapshotFormat != SnapshotFormat.CSV) {
+            taskManager.close();
+            throw new IllegalArgumentException("Ленивые описания поддерживаются только для CSV: " + file.getAbsolutePath());
+        }
+        taskManager.descriptions = new LazyDescriptionStore(file, descriptionCacheSize);
         taskManager.load();
         return taskManager;
     }
 
-    private void load() {
-        int maxId = 0;
+    public LazyDescriptionStore getDescriptionStore() {
+        return descriptions;
+    }
 
-        try {
-            if (!Files.exists(file.toPath())) return;
+    public ImportReport getLastImportReport() {
+        return lastImportReport;
+    }
 
-            String content = Files.readString(file.toPath(), StandardCharsets.UTF_8);
-            String[] lines = content.split(System.lineSeparator());
+    private void load() {
+        int maxId = loadSnapshot();
+        maxId = Math.max(maxId, replayJournals());
+        idAllocator.advancePast(maxId);
+    }
 
-            //Сначала загружаем эпики
-            //На первой позиции заголовок, поэтому начинаем с i=1
-            for (int i = 1; i < lines.length; i++) {
-                String line = lines[i].trim();
-                if (line.isEmpty()) continue;
+    private int replayJournals() {
+        int maxId = replayJournal(getArchivedJournalFile(file));
+        return Math.max(maxId, replayJournal(getJournalFile(file)));
+    }
 
-                String[] parts = line.split(",");
-                TaskType type = TaskType.valueOf(parts[1]);
+    // Читаем снимок потоком за один проход: каждая запись разбирается один раз,
+    // а подзадачи привязываются к эпикам после чтения всего файла
+    private int loadSnapshot() {
+        long started = System.nanoTime();
+        long rows = 0;
+        int[] maxId = {0};
+        List<Subtask> pendingSubtasks = new ArrayList<>();
+        Consumer<Task> restore = task -> {
+            maxId[0] = Math.max(maxId[0], task.getId());
+            if (task instanceof Epic) {
+                super.createEpic((Epic) task);
+            } else if (task instanceof Subtask) {
+                pendingSubtasks.add((Subtask) task);
+            } else {
+                super.createTask(task);
+            }
+        };
 
-                if (type == TaskType.EPIC) {
-                    Epic epic = (Epic) CSVFormatter.fromString(line);
-                    super.createEpic(epic);
-                    maxId = Math.max(maxId, epic.getId());
+        try (InputStream input = new FileInputStream(file)) {
+            if (snapshotFormat == SnapshotFormat.BINARY) {
+                if (file.length() > 0) {
+                    rows = BinarySnapshotFormat.read(input, restore);
+                }
+            } else if (descriptions != null) {
+                rows = readCsvWithOffsets(input, restore);
+            } else {
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(input, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+                CsvCodec.RowCursor cursor = new CsvCodec.RowCursor();
+                //На первой позиции заголовок, его пропускаем
+                String line = reader.readLine();
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) continue;
+                    restore.accept(cursor.reset(line.trim()).toTask());
+                    rows++;
                 }
             }
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Ошибка загрузки из файла", exception);
+        }
 
-            //Загружаем таски и субтаски в уже существующие эпики
-            for (int i = 1; i < lines.length; i++) {
-                String line = lines[i].trim();
-                if (line.isEmpty()) continue;
+        //Загружаем субтаски в уже существующие эпики
+        for (Subtask subtask : pendingSubtasks) {
+            super.createSubtask(subtask, subtask.getEpicId());
+            if (descriptions != null) {
+                subtask.setDescriptionSource(descriptions);
+            }
+        }
 
-                String[] parts = line.split(",");
-                TaskType type = TaskType.valueOf(parts[1]);
-                int id = Integer.parseInt(parts[0]);
+        // Загруженные строки совпадают со снимком
+        staleRows.clear();
+        lastLoadStatistics = new LoadStatistics(rows, file.length(), System.nanoTime() - started);
+        return maxId[0];
+    }
 
-                if (id > maxId) {
-                    maxId = id;
+    // Читаем CSV блоками, запоминая смещение и длину каждой строки: описание остаётся в файле.
+    // Конец строки ищется сканированием блока, в буфер строки байты переносятся целыми кусками
+    private long readCsvWithOffsets(InputStream input, Consumer<Task> restore) throws IOException {
+        CsvCodec.RowCursor cursor = new CsvCodec.RowCursor();
+        byte[] chunk = new byte[READ_BUFFER_SIZE];
+        byte[] line = new byte[256];
+        int length = 0;
+        long chunkStart = 0;
+        long lineStart = 0;
+        long rows = 0;
+        boolean header = true;
+
+        while (true) {
+            int read = input.read(chunk);
+            int from = 0;
+            for (int i = 0; i < Math.max(read, 0); i++) {
+                if (chunk[i] != '\n') continue;
+
+                line = appendBytes(line, length, chunk, from, i - from);
+                length += i - from;
+                if (header) {
+                    //На первой позиции заголовок, его пропускаем
+                    header = false;
+                } else {
+                    rows += restoreRow(cursor, line, length, lineStart, restore);
                 }
-
-                switch (type) {
-                    case TASK:
-                        Task task = CSVFormatter.fromString(line);
-                        super.createTask(task);
-                        break;
-                    case SUBTASK:
-                        Subtask subtask = (Subtask) CSVFormatter.fromString(line);
-                        super.createSubtask(subtask, subtask.getEpicId());
-                        break;
-                    case EPIC:
-                        break;// Уже загружено
+                from = i + 1;
+                lineStart = chunkStart + from;
+                length = 0;
+            }
+            if (read < 0) {
+                if (!header) {
+                    rows += restoreRow(cursor, line, length, lineStart, restore);
                 }
+                return rows;
+            }
+            line = appendBytes(line, length, chunk, from, read - from);
+            length += read - from;
+            chunkStart += read;
+        }
+    }
+
+    private static byte[] appendBytes(byte[] line, int length, byte[] source, int from, int count) {
+        if (length + count > line.length) {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, length + count));
+        }
+        System.arraycopy(source, from, line, length, count);
+        return line;
+    }
+
+    private int restoreRow(CsvCodec.RowCursor cursor, byte[] line, int length, long lineStart,
+                           Consumer<Task> restore) {
+        int end = length > 0 && line[length - 1] == '\r' ? length - 1 : length;
+        if (end == 0) {
+            return 0;
+        }
+        String row = new String(line, 0, end, StandardCharsets.UTF_8);
+        if (row.isBlank()) {
+            return 0;
+        }
+        Task task = cursor.reset(row).toTask();
+        descriptions.register(task.getId(), lineStart, end);
+        // Подзадачи при вставке печатаются целиком, их описание отвязываем после вставки
+        if (!(task instanceof Subtask)) {
+            task.setDescriptionSource(descriptions);
+        }
+        restore.accept(task);
+        return 1;
+    }
+
+    public LoadStatistics getLastLoadStatistics() {
+        return lastLoadStatistics;
+    }
+
+    //Проигрываем журнал поверх загруженного снимка, возвращаем максимальный встреченный ID
+    private int replayJournal(File journalFile) {
+        int[] maxId = {0};
+        TaskJournal.replay(journalFile, record -> {
+            switch (record.getOperation()) {
+                case PUT:
+                    replayPut(record.getTask());
+                    maxId[0] = Math.max(maxId[0], record.getTask().getId());
+                    break;
+                case DEL:
+                    replayDelete(record.getId());
+                    break;
+                case CLEAR:
+                    replayClear(record.getType());
+                    break;
+            }
+        });
+        return maxId[0];
+    }
+
+    private void replayPut(Task task) {
+        if (task instanceof Epic) {
+            Epic existing = epics.get(task.getId());
+            if (existing == null) {
+                super.createEpic((Epic) task);
+                return;
+            }
+            // Список подзадач эпика в строку не пишется, поэтому обновляем поля существующего эпика
+            existing.setTitle(task.getTitle());
+            existing.setDescription(task.getDescription());
+            existing.setStatus(task.getStatus());
+            existing.setStartTime(task.getStartTime());
+            existing.setDuration(task.getDuration());
+            statusIndex.put(existing);
+            markDirty(existing.getId());
+        } else if (task instanceof Subtask) {
+            Subtask subtask = (Subtask) task;
+            if (subtasks.containsKey(subtask.getId())) {
+                super.updateSubtask(subtask);
+            } else {
+                super.createSubtask(subtask, subtask.getEpicId());
             }
+        } else if (tasks.containsKey(task.getId())) {
+            super.updateTask(task);
+        } else {
+            super.createTask(task);
+        }
+    }
+
+    private void replayDelete(int id) {
+        if (tasks.containsKey(id)) {
+            super.deleteTaskById(id);
+        } else if (epics.containsKey(id)) {
+            super.deleteEpicById(id);
+        } else if (subtasks.containsKey(id)) {
+            super.deleteSubtaskById(id);
+        }
+    }
+
+    private void replayClear(TaskType type) {
+        switch (type) {
+            case TASK:
+                super.deleteAllTasks();
+                break;
+            case EPIC:
+                super.deleteAllEpics();
+                break;
+            case SUBTASK:
+                super.deleteAllSubtasks();
+                break;
+        }
+    }
+
+    //В режиме журнала пишем одну запись на изменение, иначе перезаписываем файл целиком
+    private void persist(Consumer<TaskJournal> change) {
+        if (isInBatch()) return;
+
+        if (journal == null) {
+            save();
+        } else {
+            change.accept(journal);
+            compactIfNeeded();
+        }
+    }
 
-            nextId = ++maxId;
+    private void compactIfNeeded() {
+        if (compactor == null || (compaction != null && !compaction.isDone())) return;
+
+        boolean tooManyRecords = maxJournalRecords > 0 && journal.getRecordCount() >= maxJournalRecords;
+        boolean tooManyBytes = maxJournalBytes > 0 && journal.getByteCount() >= maxJournalBytes;
+        if (tooManyRecords || tooManyBytes) {
+            compact();
+        }
+    }
+
+    // Снимок состояния собирается в памяти, журнал уходит в архив, а запись снимка на диск
+    // выполняется в фоне - изменения в это время продолжают писаться в новый журнал
+    public void compact() {
+        // Фоновая замена снимка сдвинула бы смещения ленивых описаний, поэтому пишем его сразу
+        if (journal == null || descriptions != null) {
+            save();
+            return;
+        }
+        awaitCompaction();
+
+        byte[] snapshot = snapshotBytes();
+        File archive = getArchivedJournalFile(file);
+        journal.rotate(archive);
+
+        Runnable writeSnapshot = () -> {
+            File tmp = new File(file.getPath() + ".tmp");
+            try {
+                Files.write(tmp.toPath(), snapshot);
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                Files.deleteIfExists(archive.toPath());
+            } catch (IOException exception) {
+                // Архив журнала остаётся на месте и будет проигран при загрузке
+                throw new ManagerSaveException("Ошибка записи снимка", exception);
+            }
+        };
+        if (compactor != null) {
+            compaction = compactor.submit(writeSnapshot);
+        } else {
+            writeSnapshot.run();
+        }
+    }
+
+    // Дожидаемся завершения фоновой записи снимка; её ошибка передаётся вызывающему
+    public void awaitCompaction() {
+        if (compaction == null) return;
+
+        try {
+            compaction.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new ManagerSaveException("Ожидание записи снимка прервано", exception);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof ManagerSaveException) {
+                throw (ManagerSaveException) exception.getCause();
+            }
+            throw new ManagerSaveException("Ошибка фоновой записи снимка", exception.getCause());
+        } finally {
+            compaction = null;
+        }
+    }
+
+    private byte[] snapshotBytes() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try {
+            writeSnapshot(buffer);
         } catch (IOException exception) {
-            throw new ManagerSaveException("Ошибка загрузки из файла", exception);
+            throw new ManagerSaveException("Ошибка подготовки снимка", exception);
         }
+        return buffer.toByteArray();
     }
 
-    public void save() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+    private void writeSnapshot(OutputStream out) throws IOException {
+        if (snapshotFormat == SnapshotFormat.BINARY) {
+            BinarySnapshotFormat.write(out, tasks.values(), epics.values(), subtasks.values());
+            return;
+        }
 
-            writer.write(CSVFormatter.getHeader());
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSVFormatter.getHeader());
+        writer.newLine();
+
+        for (Task task : tasks.values()) {
+            writer.write(cachedRow(task));
+            writer.newLine();
+        }
+
+        for (Epic epic : epics.values()) {
+            writer.write(cachedRow(epic));
+            writer.newLine();
+        }
+
+        for (Subtask subtask : subtasks.values()) {
+            writer.write(cachedRow(subtask));
             writer.newLine();
+        }
+        writer.flush();
+    }
+
+    private String cachedRow(Task task) throws IOException {
+        String row = rowCache.get(task.getId());
+        if (row != null) {
+            rowsReused++;
+            return row;
+        }
+        rowBuilder.setLength(0);
+        CsvCodec.appendRow(task, rowBuilder);
+        row = rowBuilder.toString();
+        rowCache.put(task.getId(), row);
+        rowsEncoded++;
+        return row;
+    }
 
-            for (Task task : getTasks()) {
-                writer.write(CSVFormatter.toString(task));
-                writer.newLine();
+    // Изменённая или удалённая задача будет заново закодирована при следующем сохранении
+    @Override
+    protected void markDirty(int id) {
+        rowCache.remove(id);
+        if (descriptions != null) {
+            staleRows.add(id);
+        }
+        if (isInBatch()) {
+            batchChanges.add(id);
+        }
+    }
+
+    // Пакет записывается одним действием: без журнала - одним снимком, с журналом - записями
+    // о конечном состоянии каждой изменённой задачи и одним сбросом на диск
+    @Override
+    protected void endBatch() {
+        super.endBatch();
+        if (isInBatch() || batchChanges.isEmpty()) return;
+
+        if (journal == null) {
+            batchChanges.clear();
+            save();
+            return;
+        }
+
+        journal.beginGroup();
+        try {
+            // Эпики пишутся раньше подзадач: при проигрывании подзадача ищет свой эпик
+            List<Task> epicPuts = new ArrayList<>();
+            List<Task> puts = new ArrayList<>();
+            for (int id : batchChanges) {
+                if (epics.containsKey(id)) {
+                    epicPuts.add(epics.get(id));
+                } else if (tasks.containsKey(id)) {
+                    puts.add(tasks.get(id));
+                } else if (subtasks.containsKey(id)) {
+                    puts.add(subtasks.get(id));
+                } else {
+                    journal.appendDelete(id);
+                }
             }
+            epicPuts.forEach(journal::appendPut);
+            puts.forEach(journal::appendPut);
+        } finally {
+            batchChanges.clear();
+            // Один fsync на весь пакет; выполняется и при ошибке, чтобы группа не осталась открытой
+            journal.flush();
+        }
+        compactIfNeeded();
+    }
+
+    public long getRowsEncoded() {
+        return rowsEncoded;
+    }
 
-            for (Epic epic : getEpics()) {
-                writer.write(CSVFormatter.toString(epic));
-                writer.newLine();
+    public long getRowsReused() {
+        return rowsReused;
+    }
+
+    public void save() {
+        awaitCompaction();
+
+        if (descriptions != null) {
+            saveWithOffsets();
+        } else {
+            try (OutputStream out = new FileOutputStream(file)) {
+                writeSnapshot(out);
+            } catch (IOException ioException) {
+                throw new ManagerSaveException("Ошибка сохранения файла", ioException);
             }
+        }
 
-            for (Subtask subtask : getSubtasks()) {
-                writer.write(CSVFormatter.toString(subtask));
-                writer.newLine();
+        //Снимок содержит все изменения, поэтому журнал можно очистить
+        if (journal != null) {
+            journal.truncate();
+        } else {
+            File staleJournal = getJournalFile(file);
+            if (staleJournal.exists()) {
+                staleJournal.delete();
             }
+        }
+        File archive = getArchivedJournalFile(file);
+        if (archive.exists()) {
+            archive.delete();
+        }
+    }
+
+    // Снимок пишется во временный файл: пока он не заменит старый, ленивые описания читаются из прежнего.
+    // Строки неизменённых задач копируются из старого снимка байтами (соседние - одним куском), без чтения
+    // описаний; заново кодируются только изменённые. После замены все задачи снова ссылаются на свои строки
+    private void saveWithOffsets() {
+        File tmp = new File(file.getPath() + ".tmp");
+        IntLongHashMap locations = new IntLongHashMap(tasks.size() + epics.size() + subtasks.size());
+        byte[] separator = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+        try (FileChannel previous = file.exists() ? FileChannel.open(file.toPath(), StandardOpenOption.READ) : null;
+             OutputStream out = new BufferedOutputStream(new FileOutputStream(tmp), READ_BUFFER_SIZE)) {
+            RowCopier copier = new RowCopier(previous, out, separator);
+            byte[] header = CSVFormatter.getHeader().getBytes(StandardCharsets.UTF_8);
+            out.write(header);
+            out.write(separator);
+            long offset = header.length + separator.length;
+
+            List<Task> all = new ArrayList<>(tasks.size() + epics.size() + subtasks.size());
+            all.addAll(tasks.values());
+            all.addAll(epics.values());
+            all.addAll(subtasks.values());
+            for (Task task : all) {
+                int id = task.getId();
+                long location = staleRows.contains(id) || previous == null ? -1 : descriptions.locationOf(id);
+                int length;
+                if (location >= 0) {
+                    length = LazyDescriptionStore.lengthOf(location);
+                    copier.copy(LazyDescriptionStore.offsetOf(location), length);
+                    rowsReused++;
+                } else {
+                    String row = rowCache.get(id);
+                    if (row != null) {
+                        rowsReused++;
+                    } else {
+                        rowBuilder.setLength(0);
+                        CsvCodec.appendRow(task, rowBuilder);
+                        row = rowBuilder.toString();
+                        rowsEncoded++;
+                    }
+                    byte[] bytes = row.getBytes(StandardCharsets.UTF_8);
+                    length = bytes.length;
+                    copier.write(bytes);
+                }
+                locations.put(id, LazyDescriptionStore.location(offset, length));
+                offset += length + separator.length;
+            }
+            copier.finish();
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Ошибка сохранения файла", exception);
+        }
+
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Не удалось заменить файл: " + file.getAbsolutePath(), exception);
+        }
+
+        staleRows.clear();
+        descriptions.rebind(locations);
+        tasks.values().forEach(task -> task.setDescriptionSource(descriptions));
+        epics.values().forEach(epic -> epic.setDescriptionSource(descriptions));
+        subtasks.values().forEach(subtask -> subtask.setDescriptionSource(descriptions));
+    }
+
+    // Копирование строк старого снимка: подряд идущие строки (между ними ровно один разделитель)
+    // склеиваются в один диапазон и читаются блоками
+    private static final class RowCopier {
+        private final FileChannel source;
+        private final OutputStream out;
+        private final byte[] separator;
+        private final ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private long runStart = -1;
+        private long runEnd;
+
+        RowCopier(FileChannel source, OutputStream out, byte[] separator) {
+            this.source = source;
+            this.out = out;
+            this.separator = separator;
+        }
 
-        } catch (IOException ioException) {
-            throw new ManagerSaveException("Ошибка сохранения файла", ioException);
+        void copy(long offset, int length) throws IOException {
+            if (runStart >= 0 && offset == runEnd + separator.length) {
+                runEnd = offset + length;
+                return;
+            }
+            finish();
+            runStart = offset;
+            runEnd = offset + length;
+        }
+
+        void write(byte[] row) throws IOException {
+            finish();
+            out.write(row);
+            out.write(separator);
+        }
+
+        // Переносит накопленный диапазон в новый снимок
+        void finish() throws IOException {
+            if (runStart < 0) return;
+
+            long position = runStart;
+            while (position < runEnd) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), runEnd - position));
+                int read = source.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Неожиданный конец снимка");
+                }
+                out.write(buffer.array(), 0, read);
+                position += read;
+            }
+            out.write(separator);
+            runStart = -1;
+        }
+    }
+
+    // Длина текста в байтах UTF-8 без кодирования
+    static int utf8Length(CharSequence text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800 || Character.isSurrogate(c)) {
+                // Суррогатная пара занимает 4 байта - по 2 на каждую половину
+                length += 2;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    // Барьер: все изменения, сделанные до вызова, записаны на диск
+    public void flush() {
+        if (journal != null) {
+            journal.flush();
+        }
+    }
+
+    @Override
+    public void close() {
+        // Ошибка фоновой записи снимка не должна оставить журнал открытым
+        try {
+            awaitCompaction();
+        } finally {
+            if (compactor != null) {
+                compactor.shutdown();
+            }
+            if (journal != null) {
+                journal.close();
+            }
+            if (descriptions != null) {
+                descriptions.close();
+            }
         }
     }
 }
@@ -0,0 +1,129 @@
+package tasktracker.manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.IntUnaryOperator;
+
+// Источник диапазонов ID в файле аренды: в файле записан следующий свободный ID.
+// Процессы разделяются блокировкой файла, потоки одной JVM - монитором этого файла,
+// потому что блокировка файла действует на процесс целиком.
+// Значение всегда записывается поверх прежнего одной записью одинаковой длины, а новый файл появляется
+// сразу с начальным значением, поэтому после сбоя файл не бывает пустым; пустой файл считается повреждённым
+public class FileIdBlockSource implements IdBlockSource {
+
+    // Десять цифр вмещают любой int, длина записи не меняется
+    private static final int WIDTH = 10;
+
+    // Мониторы по каноническому пути: источники одного файла делят монитор, разные файлы не мешают друг другу.
+    // Файлов аренды единицы, поэтому записи не удаляются
+    private static final ConcurrentMap<String, Object> MONITORS = new ConcurrentHashMap<>();
+
+    private final File file;
+    private final Object monitor;
+
+    public FileIdBlockSource(File file) {
+        this.file = file;
+        try {
+            this.monitor = MONITORS.computeIfAbsent(file.getCanonicalPath(), path -> new Object());
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Не удалось определить путь файла аренды: " + file.getAbsolutePath(),
+                    exception);
+        }
+    }
+
+    @Override
+    public int leaseBlock(int size) {
+        return update(first -> first + size);
+    }
+
+    @Override
+    public void advancePast(int id) {
+        update(first -> Math.max(first, id + 1));
+    }
+
+    // Возвращает прежнее значение счётчика и записывает новое
+    private int update(IntUnaryOperator advance) {
+        synchronized (monitor) {
+            try {
+                createIfAbsent();
+            } catch (IOException exception) {
+                throw new ManagerSaveException("Не удалось создать файл аренды ID: " + file.getAbsolutePath(), exception);
+            }
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                FileLock lock = channel.lock();
+                try {
+                    return apply(channel, advance);
+                } finally {
+                    lock.release();
+                }
+            } catch (IOException exception) {
+                throw new ManagerSaveException("Не удалось арендовать ID в файле: " + file.getAbsolutePath(), exception);
+            }
+        }
+    }
+
+    private int apply(FileChannel channel, IntUnaryOperator advance) throws IOException {
+        int first = read(channel);
+        int updated = advance.applyAsInt(first);
+        if (updated < first) {
+            throw new IllegalStateException("Закончились ID в файле аренды: " + file.getAbsolutePath());
+        }
+        // Сначала новое значение поверх старого, потом обрезка: между ними файл остаётся читаемым
+        byte[] bytes = encode(updated);
+        channel.write(ByteBuffer.wrap(bytes), 0);
+        channel.truncate(bytes.length);
+        channel.force(true);
+        return first;
+    }
+
+    // Файл собирается рядом под временным именем и появляется жёсткой ссылкой: ссылка не заменяет
+    // существующий файл, поэтому процесс, создавший файл параллельно, ничего не потеряет
+    private void createIfAbsent() throws IOException {
+        if (file.exists()) return;
+        Path target = file.getAbsoluteFile().toPath();
+        Path temp = Files.createTempFile(target.getParent(), file.getName(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(encode(1)));
+                channel.force(true);
+            }
+            try {
+                Files.createLink(target, temp);
+            } catch (FileAlreadyExistsException exception) {
+                // Файл уже создал другой процесс
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static byte[] encode(int value) {
+        String text = Integer.toString(value);
+        return ("0".repeat(WIDTH - text.length()) + text + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private int read(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(channel.size(), 32));
+        channel.read(buffer, 0);
+        String text = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8).trim();
+        if (text.isEmpty()) {
+            throw new IOException("Пустой файл аренды ID: " + file.getAbsolutePath());
+        }
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException exception) {
+            throw new ManagerSaveException("Повреждён файл аренды ID: " + file.getAbsolutePath(), exception);
+        }
+    }
+}
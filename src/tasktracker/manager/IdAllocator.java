@@ -0,0 +1,10 @@
+package tasktracker.manager;
+
+// Источник ID для новых задач. Реализации должны быть потокобезопасными
+public interface IdAllocator {
+
+    int nextId();
+
+    // После загрузки или импорта: следующие ID должны быть больше id
+    void advancePast(int id);
+}
@@ -0,0 +1,11 @@
+package tasktracker.manager;
+
+// Общий для нескольких процессов источник непересекающихся диапазонов ID
+public interface IdBlockSource {
+
+    // Первый ID выданного диапазона [first, first + size)
+    int leaseBlock(int size);
+
+    // Диапазоны, выданные после вызова, начинаются после id
+    void advancePast(int id);
+}
@@ -0,0 +1,72 @@
+package tasktracker.manager;
+
+import tasktracker.models.Task;
+import tasktracker.models.TaskType;
+import tasktracker.util.IntIntHashMap;
+
+// Единый индекс ID всех задач менеджера: ID -> (тип, слот) в одном int.
+// Сами объекты лежат в хранилищах по типам (TypedTaskStore), которые ищут ID через этот индекс,
+// поэтому проверка существования, типизированный поиск и поиск без типа стоят одной пробы
+public class IdRegistry {
+
+    private static final int TYPE_BITS = 2;
+    private static final int TYPE_MASK = (1 << TYPE_BITS) - 1;
+    private static final int MISSING = -1;
+
+    private final IntIntHashMap index = new IntIntHashMap();
+    private final TypedTaskStore<?>[] stores = new TypedTaskStore<?>[TaskType.values().length];
+
+    public <T extends Task> TypedTaskStore<T> createStore(TaskType type) {
+        if (stores[type.ordinal()] != null) {
+            throw new IllegalStateException("Хранилище для типа " + type + " уже создано");
+        }
+        TypedTaskStore<T> store = new TypedTaskStore<>(this, type);
+        stores[type.ordinal()] = store;
+        return store;
+    }
+
+    public boolean contains(int id) {
+        return index.containsKey(id);
+    }
+
+    // Тип задачи с этим ID или null
+    public TaskType typeOf(int id) {
+        int packed = index.get(id, MISSING);
+        return packed == MISSING ? null : TaskType.values()[packed & TYPE_MASK];
+    }
+
+    // Задача любого типа по ID или null
+    public Task get(int id) {
+        int packed = index.get(id, MISSING);
+        if (packed == MISSING) {
+            return null;
+        }
+        return stores[packed & TYPE_MASK].itemAt(packed >>> TYPE_BITS);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    // Слот ID в хранилище типа type или -1, если ID нет или он принадлежит другому типу
+    int slotOf(int id, TaskType type) {
+        int packed = index.get(id, MISSING);
+        if (packed == MISSING || (packed & TYPE_MASK) != type.ordinal()) {
+            return -1;
+        }
+        return packed >>> TYPE_BITS;
+    }
+
+    void bind(int id, TaskType type, int slot) {
+        int packed = index.get(id, MISSING);
+        if (packed != MISSING && (packed & TYPE_MASK) != type.ordinal()) {
+            throw new IllegalStateException(String.format("ID %d уже занят задачей типа %s", id,
+                    TaskType.values()[packed & TYPE_MASK]));
+        }
+        index.put(id, slot << TYPE_BITS | type.ordinal());
+    }
+
+    void unbind(int id) {
+        index.remove(id);
+    }
+}
@@ -0,0 +1,66 @@
+package tasktracker.manager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Отчёт массового импорта: сколько записей прочитано и вставлено, какие конфликты найдены
+public class ImportReport {
+    // Храним текст только первых конфликтов, чтобы отчёт по битому файлу не занял всю память
+    private static final int MAX_STORED_CONFLICTS = 1000;
+
+    private long rowsParsed;
+    private long inserted;
+    private long conflictCount;
+    private long nanos;
+    private final List<String> conflicts = new ArrayList<>();
+
+    void addRowsParsed(long rows) {
+        rowsParsed += rows;
+    }
+
+    void addInserted() {
+        inserted++;
+    }
+
+    void addConflict(String message) {
+        conflictCount++;
+        if (conflicts.size() < MAX_STORED_CONFLICTS) {
+            conflicts.add(message);
+        }
+    }
+
+    void setNanos(long nanos) {
+        this.nanos = nanos;
+    }
+
+    public long getRowsParsed() {
+        return rowsParsed;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public long getConflictCount() {
+        return conflictCount;
+    }
+
+    public List<String> getConflicts() {
+        return Collections.unmodifiableList(conflicts);
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public boolean hasConflicts() {
+        return conflictCount > 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ImportReport{rowsParsed=%d, inserted=%d, conflicts=%d, millis=%d}",
+                rowsParsed, inserted, conflictCount, nanos / 1_000_000);
+    }
+}
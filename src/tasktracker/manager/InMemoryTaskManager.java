@@ -4,18 +4,27 @@ import tasktracker.models.Epic;
 import tasktracker.models.Status;
 import tasktracker.models.Subtask;
 import tasktracker.models.Task;
+import tasktracker.models.TaskType;
+import tasktracker.util.IntHashSet;
+import tasktracker.util.IntList;
+import tasktracker.util.IntObjectHashMap;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class InMemoryTaskManager implements TaskManager {
-    protected HashMap<Integer, Task> tasks = new HashMap<>();
-    protected HashMap<Integer, Epic> epics = new HashMap<>();
-    protected HashMap<Integer, Subtask> subtasks = new HashMap<>();
-    protected static int nextId = 1;
+    private static final IntList NO_SUBTASKS = new IntList();
+
+    // Общий индекс ID и хранилища по типам поверх него: существование ID и поиск - одна проба
+    protected final IdRegistry registry = new IdRegistry();
+    protected final TypedTaskStore<Task> tasks = registry.createStore(TaskType.TASK);
+    protected final TypedTaskStore<Epic> epics = registry.createStore(TaskType.EPIC);
+    protected final TypedTaskStore<Subtask> subtasks = registry.createStore(TaskType.SUBTASK);
+    protected final IdAllocator idAllocator;
     protected final HistoryManager historyManager;
+    // Индекс ID по типу и статусу для запросов и счётчиков без обхода хранилищ
+    protected final StatusIndex statusIndex;
 
     // Заводим список задач по приоритету
     // Сперва сортируем по времени, потом по Id
@@ -26,8 +35,33 @@ public class InMemoryTaskManager implements TaskManager {
                     .thenComparing(Task::getId)
     );
 
+    // Индекс интервалов для проверки пересечений, обновляется вместе с prioritizedTasks
+    private final IntervalIndex intervalIndex = new IntervalIndex();
+    // Необязательная сетка слотов, включается через enableTimeSlotIndex
+    private TimeSlotIndex timeSlotIndex;
+
+    // Сводки эпиков по подзадачам, обновляются на каждом изменении подзадачи
+    private final IntObjectHashMap<EpicRollup> rollups = new IntObjectHashMap<>();
+    // Режим проверки: каждая сводка сверяется с полным пересчётом по подзадачам
+    private boolean verifyRollups;
+
+    // Пакетный режим: сообщения не печатаются, эпики пересчитываются один раз в конце пакета
+    private int batchDepth;
+    private final IntHashSet pendingEpics = new IntHashSet();
+    private String lastWarning;
+
     public InMemoryTaskManager(HistoryManager historyManager) {
+        this(historyManager, new AtomicIdAllocator());
+    }
+
+    public InMemoryTaskManager(HistoryManager historyManager, IdAllocator idAllocator) {
+        this(historyManager, idAllocator, new StatusIndex());
+    }
+
+    protected InMemoryTaskManager(HistoryManager historyManager, IdAllocator idAllocator, StatusIndex statusIndex) {
         this.historyManager = historyManager;
+        this.idAllocator = idAllocator;
+        this.statusIndex = statusIndex;
     }
 
     public InMemoryTaskManager() {
@@ -35,11 +69,11 @@ public class InMemoryTaskManager implements TaskManager {
     }
 
     private int generateId() {
-        return nextId++;
+        return idAllocator.nextId();
     }
 
     private boolean isExistsId(int id) {
-        return (tasks.containsKey(id) || epics.containsKey(id) || subtasks.containsKey(id));
+        return registry.contains(id);
     }
 
     @Override
@@ -47,17 +81,19 @@ public class InMemoryTaskManager implements TaskManager {
         if (task.getId() == 0) {
             task.setId(generateId());
         } else if (isExistsId(task.getId())) {
-            System.out.println("Номер ID этой задачи уже занят!");
+            warn("Номер ID этой задачи уже занят!");
             return;
         }
 
         // Проверяем пересечение перед добавлением
         if (isTaskOverlappingWithAny(task)) {
-            System.out.printf("Задача '%s' пересекается по времени с уже существующими задачами!", task.getTitle());
+            warn(String.format("Задача '%s' пересекается по времени с уже существующими задачами!", task.getTitle()));
             return;
         }
         tasks.put(task.getId(), task);
+        statusIndex.put(task);
         addToPrioritizedTasks(task);
+        markDirty(task.getId());
     }
 
     @Override
@@ -65,59 +101,82 @@ public class InMemoryTaskManager implements TaskManager {
         if (epic.getId() == 0) {
             epic.setId(generateId());
         } else if (isExistsId(epic.getId())) {
-            System.out.println("Номер ID этого эпика уже занят!");
+            warn("Номер ID этого эпика уже занят!");
             return;
         }
         epics.put(epic.getId(), epic);
+        statusIndex.put(epic);
+        markDirty(epic.getId());
+    }
+
+    // Вызывается при каждом изменении задачи: создании, обновлении, удалении и пересчёте эпика.
+    // Наследники могут сбрасывать здесь закэшированное представление задачи
+    protected void markDirty(int id) {
     }
 
     private void updateEpicTime(int epicId) {
         Epic epic = epics.get(epicId);
-        if (epic == null || epic.getSubtaskIds().isEmpty()) {
-            if (epic != null) {
-                epic.setStartTime(null);
-                epic.setDuration(Duration.ZERO);
-                epic.setEndTime(null);
-            }
+        markDirty(epicId);
+        if (epic == null) return;
+        if (batchDepth > 0) {
+            pendingEpics.add(epicId);
             return;
         }
+        applyEpicTime(epic);
+    }
 
-        LocalDateTime earliestStart = null; //Самое раннее начало
-        LocalDateTime latestEnd = null; // Самый последний конец
-        Duration totalDuration = Duration.ZERO; // Общая продолжительность
-        boolean hasTimeData = false; // Наличие данных времени
+    private void applyEpicTime(Epic epic) {
+        rollup(epic.getId()).applyTime(epic);
+        if (verifyRollups) {
+            verifyRollup(epic);
+        }
+    }
 
-        for (int subtaskId : epic.getSubtaskIds()) {
-            Subtask subtask = subtasks.get(subtaskId);
-            if (subtask != null && subtask.getStartTime() != null && subtask.getDuration() != null) {
-                hasTimeData = true;
+    private EpicRollup rollup(int epicId) {
+        return rollups.computeIfAbsent(epicId, id -> new EpicRollup());
+    }
+
+    public void setRollupVerification(boolean enabled) {
+        verifyRollups = enabled;
+    }
 
-                // Находим самое раннее начало
+    // Полный пересчёт по подзадачам эпика и сравнение со сводкой
+    private void verifyRollup(Epic epic) {
+        LocalDateTime earliestStart = null;
+        LocalDateTime latestEnd = null;
+        Duration totalDuration = Duration.ZERO;
+        int total = 0;
+        int newCount = 0;
+        int doneCount = 0;
+
+        for (Subtask subtask : subtasks.values()) {
+            if (subtask.getEpicId() != epic.getId()) continue;
+            total++;
+            if (subtask.getStatus() == Status.NEW) newCount++;
+            if (subtask.getStatus() == Status.DONE) doneCount++;
+            if (subtask.getStartTime() != null && subtask.getDuration() != null) {
                 if (earliestStart == null || subtask.getStartTime().isBefore(earliestStart)) {
                     earliestStart = subtask.getStartTime();
                 }
-
-                // Находим самое последнее окончание
-                LocalDateTime subtaskEnd = subtask.getEndTime();
-                if (subtaskEnd != null && (latestEnd == null || subtaskEnd.isAfter(latestEnd))) {
-                    latestEnd = subtaskEnd;
+                if (latestEnd == null || subtask.getEndTime().isAfter(latestEnd)) {
+                    latestEnd = subtask.getEndTime();
                 }
-
-                // Суммируем продолжительность
                 totalDuration = totalDuration.plus(subtask.getDuration());
             }
         }
-
-        if (hasTimeData) {
-            //Устанавливаем расчетные значения
-            epic.setStartTime(earliestStart);
-            epic.setDuration(totalDuration);
-            epic.setEndTime(latestEnd);
-        } else {
-            // Если нет подзадач с временными данными - обнуляем временные данные эпика
-            epic.setStartTime(null);
-            epic.setDuration(Duration.ZERO);
-            epic.setEndTime(null);
+        Status status = total == 0 || newCount == total ? Status.NEW
+                : doneCount == total ? Status.DONE : Status.IN_PROGRESS;
+
+        EpicRollup rollup = rollup(epic.getId());
+        if (rollup.size() != total || rollup.getStatus() != status
+                || !Objects.equals(rollup.getStartTime(), earliestStart)
+                || !Objects.equals(rollup.getEndTime(), latestEnd)
+                || !rollup.getDuration().equals(totalDuration)) {
+            throw new IllegalStateException(String.format(
+                    "Сводка эпика %d расходится с пересчётом: подзадач %d/%d, статус %s/%s, начало %s/%s, "
+                            + "конец %s/%s, длительность %s/%s", epic.getId(), rollup.size(), total,
+                    rollup.getStatus(), status, rollup.getStartTime(), earliestStart, rollup.getEndTime(),
+                    latestEnd, rollup.getDuration(), totalDuration));
         }
     }
 
@@ -127,11 +186,11 @@ public class InMemoryTaskManager implements TaskManager {
             return;
         }
         if (!epics.containsKey(epicId)) {
-            System.out.println(String.format("Не существует эпика с ID: %d", epicId));
+            warn(String.format("Не существует эпика с ID: %d", epicId));
             return;
         }
         if (isExistsId(subtask.getId())) {
-            System.out.println("Номер ID этой подзадачи уже занят!");
+            warn("Номер ID этой подзадачи уже занят!");
             return;
         }
         subtask.setEpicId(epicId);
@@ -141,17 +200,24 @@ public class InMemoryTaskManager implements TaskManager {
 
         // Проверяем пересечение перед добавлением
         if (isTaskOverlappingWithAny(subtask)) {
-            System.out.printf("Подзадача '%s' пересекается по времени с существующими задачами!", subtask.getTitle());
+            warn(String.format("Подзадача '%s' пересекается по времени с существующими задачами!",
+                    subtask.getTitle()));
             return;
         }
 
         epics.get(epicId).addSubtaskId(subtask.getId());
         subtasks.put(subtask.getId(), subtask);
+        statusIndex.put(subtask);
+        markDirty(subtask.getId());
+        rollup(epicId).add(subtask);
 
-        // Обновляем время эпика после добаления подзадачи и добавляем в prioritizatdasks
+        // Обновляем статус и время эпика после добаления подзадачи и добавляем в prioritizatdasks
+        updateEpicStatus(epicId);
         updateEpicTime(epicId);
         addToPrioritizedTasks(subtask);
-        System.out.println(String.format("Создана подзадача: %s", subtask));
+        if (batchDepth == 0) {
+            System.out.println(String.format("Создана подзадача: %s", subtask));
+        }
     }
 
     @Override
@@ -172,40 +238,166 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public ArrayList<Subtask> getEpicSubtasks(int epicId) {
         if (!epics.containsKey(epicId)) {
-            System.out.println(String.format("Не существует эпика с ID: %d", epicId));
+            warn(String.format("Не существует эпика с ID: %d", epicId));
             return new ArrayList<>();
         }
-        return epics.get(epicId).getSubtaskIds().stream()
-                .map(subtasks::get)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toCollection(ArrayList::new));
+        IntList subtaskIds = epics.get(epicId).getSubtaskIds();
+        ArrayList<Subtask> result = new ArrayList<>(subtaskIds.size());
+        for (int i = 0; i < subtaskIds.size(); i++) {
+            Subtask subtask = subtasks.get(subtaskIds.getInt(i));
+            if (subtask != null) {
+                result.add(subtask);
+            }
+        }
+        return result;
+    }
+
+    // Живые представления хранилищ: итераторы проверяют счётчик изменений и бросают
+    // ConcurrentModificationException, если менеджер изменился во время обхода
+    @Override
+    public Collection<Task> getTasksView() {
+        return Collections.unmodifiableCollection(tasks.values());
+    }
+
+    @Override
+    public Collection<Epic> getEpicsView() {
+        return Collections.unmodifiableCollection(epics.values());
+    }
+
+    @Override
+    public Collection<Subtask> getSubtasksView() {
+        return Collections.unmodifiableCollection(subtasks.values());
+    }
+
+    // Живой список подзадач эпика: эпик ищется по ID при каждом обращении, поэтому представление
+    // переживает updateEpic, а после удаления эпика становится пустым
+    @Override
+    public List<Subtask> getEpicSubtasksView(int epicId) {
+        return new AbstractList<>() {
+            private IntList subtaskIds() {
+                Epic epic = epics.get(epicId);
+                return epic == null ? NO_SUBTASKS : epic.getSubtaskIds();
+            }
+
+            @Override
+            public Subtask get(int index) {
+                return subtasks.get(subtaskIds().getInt(index));
+            }
+
+            @Override
+            public int size() {
+                return subtaskIds().size();
+            }
+
+            @Override
+            public Iterator<Subtask> iterator() {
+                Iterator<Integer> ids = subtaskIds().iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return ids.hasNext();
+                    }
+
+                    @Override
+                    public Subtask next() {
+                        return subtasks.get(ids.next());
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public SortedSet<Task> getPrioritizedTasksView() {
+        return Collections.unmodifiableSortedSet(prioritizedTasks);
+    }
+
+    @Override
+    public List<Task> findByStatus(Status status) {
+        return resolve(statusIndex.ids(status));
+    }
+
+    @Override
+    public List<Task> findByStatus(TaskType type, Status status) {
+        return resolve(statusIndex.ids(type, status));
+    }
+
+    @Override
+    public int countByStatus(Status status) {
+        return statusIndex.count(status);
+    }
+
+    @Override
+    public int countByStatus(TaskType type, Status status) {
+        return statusIndex.count(type, status);
+    }
+
+    @Override
+    public int countByType(TaskType type) {
+        return statusIndex.count(type);
+    }
+
+    // Счётчики статусов подзадач уже ведёт сводка эпика
+    @Override
+    public int countEpicSubtasks(int epicId, Status status) {
+        if (status == null) {
+            throw new IllegalArgumentException("Статус не может быть null");
+        }
+        EpicRollup rollup = rollups.get(epicId);
+        return rollup == null ? 0 : rollup.count(status);
+    }
+
+    private List<Task> resolve(int[] ids) {
+        List<Task> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(registry.get(id));
+        }
+        return result;
     }
 
     @Override
     public void deleteAllTasks() {
-        tasks.values().forEach(this::removeFromPrioritizedTasks);
+        tasks.values().forEach(task -> {
+            removeFromPrioritizedTasks(task);
+            markDirty(task.getId());
+        });
         tasks.clear();
+        statusIndex.clear(TaskType.TASK);
     }
 
     @Override
     public void deleteAllEpics() {
-        subtasks.values().forEach(this::removeFromPrioritizedTasks);
+        subtasks.values().forEach(subtask -> {
+            removeFromPrioritizedTasks(subtask);
+            markDirty(subtask.getId());
+        });
+        epics.forEachKey(this::markDirty);
         epics.clear();
+        rollups.clear();
         subtasks.clear();
+        statusIndex.clear(TaskType.EPIC);
+        statusIndex.clear(TaskType.SUBTASK);
     }
 
     @Override
     public void deleteAllSubtasks() {
-        subtasks.values().forEach(this::removeFromPrioritizedTasks);
+        subtasks.values().forEach(subtask -> {
+            removeFromPrioritizedTasks(subtask);
+            markDirty(subtask.getId());
+        });
         epics.values().forEach(epic -> {
+            markDirty(epic.getId());
             epic.getSubtaskIds().clear();
+            rollup(epic.getId()).clear();
             epic.setStatus(Status.NEW);
+            statusIndex.put(epic);
             //Сбрасываем время эпиков
             epic.setStartTime(null);
             epic.setDuration(Duration.ZERO);
             epic.setEndTime(null);
         });
         subtasks.clear();
+        statusIndex.clear(TaskType.SUBTASK);
     }
 
     @Override
@@ -217,6 +409,15 @@ public class InMemoryTaskManager implements TaskManager {
         return task;
     }
 
+    @Override
+    public Task getById(int id) {
+        Task task = registry.get(id);
+        if (task != null) {
+            historyManager.add(task);
+        }
+        return task;
+    }
+
     @Override
     public Epic getEpicById(int id) {
         Epic epic = epics.get(id);
@@ -241,13 +442,16 @@ public class InMemoryTaskManager implements TaskManager {
             Task oldTask = tasks.get(task.getId());
             // Проверяем на пересечение перед обновлением
             if (isTaskOverlappingWithAny(task)) {
-                System.out.printf("Задача '%s' пересекается по времени с уже существующими задачами!", task.getTitle());
+                warn(String.format("Задача '%s' пересекается по времени с уже существующими задачами!",
+                        task.getTitle()));
                 return;
             }
             removeFromPrioritizedTasks(oldTask);
 
             tasks.put(task.getId(), task);
+            statusIndex.put(task);
             addToPrioritizedTasks(task);
+            markDirty(task.getId());
         }
     }
 
@@ -255,6 +459,8 @@ public class InMemoryTaskManager implements TaskManager {
     public void updateEpic(Epic epic) {
         if (epics.containsKey(epic.getId())) {
             epics.put(epic.getId(), epic);
+            statusIndex.put(epic);
+            markDirty(epic.getId());
         }
     }
 
@@ -265,8 +471,8 @@ public class InMemoryTaskManager implements TaskManager {
 
             //Проверяем пересечение по времени перед обновлением
             if (isTaskOverlappingWithAny(subtask)) {
-                System.out.printf("Подзадача '%s' пересекается по времени с существующими задачами!",
-                        subtask.getTitle());
+                warn(String.format("Подзадача '%s' пересекается по времени с существующими задачами!",
+                        subtask.getTitle()));
                 return;
             }
             // Удаляем старую версию из prioritizedTasks
@@ -274,16 +480,31 @@ public class InMemoryTaskManager implements TaskManager {
 
             int oldEpicId = subtasks.get(subtask.getId()).getEpicId();
             subtasks.put(subtask.getId(), subtask);
+            statusIndex.put(subtask);
             addToPrioritizedTasks(subtask);
+            markDirty(subtask.getId());
 
-            // Обновляем время эпика после изменения подзадачи
-            updateEpicTime(subtask.getEpicId());
-
-            // Если эпик изменился, обновляем оба эпика
+            // Если эпик изменился, переносим подзадачу из старого эпика в новый
             if (oldEpicId != subtask.getEpicId()) {
+                Epic oldEpic = epics.get(oldEpicId);
+                if (oldEpic != null) {
+                    oldEpic.getSubtaskIds().removeInt(subtask.getId());
+                }
+                EpicRollup oldRollup = rollups.get(oldEpicId);
+                if (oldRollup != null) {
+                    oldRollup.remove(subtask.getId());
+                }
+                updateEpicStatus(oldEpicId);
                 updateEpicTime(oldEpicId);
                 epics.get(subtask.getEpicId()).addSubtaskId(subtask.getId());
             }
+
+            // Обновляем статус и время эпика после изменения подзадачи
+            if (epics.containsKey(subtask.getEpicId())) {
+                rollup(subtask.getEpicId()).add(subtask);
+            }
+            updateEpicStatus(subtask.getEpicId());
+            updateEpicTime(subtask.getEpicId());
         }
     }
 
@@ -292,6 +513,8 @@ public class InMemoryTaskManager implements TaskManager {
         Task task = tasks.get(taskId);
         if (task != null) {
             task.setStatus(status);
+            statusIndex.put(task);
+            markDirty(taskId);
         }
     }
 
@@ -300,6 +523,9 @@ public class InMemoryTaskManager implements TaskManager {
         Subtask subtask = subtasks.get(subtaskId);
         if (subtask != null) {
             subtask.setStatus(status);
+            statusIndex.put(subtask);
+            markDirty(subtaskId);
+            rollup(subtask.getEpicId()).add(subtask);
             updateEpicStatus(subtask.getEpicId());
             updateEpicTime(subtask.getEpicId());
         }
@@ -307,18 +533,21 @@ public class InMemoryTaskManager implements TaskManager {
 
     private void updateEpicStatus(int epicId) {
         Epic epic = epics.get(epicId);
-        ArrayList<Subtask> epicSubtasks = getEpicSubtasks(epicId);
-        if (epicSubtasks.isEmpty()) {
-            epic.setStatus(Status.NEW);
+        markDirty(epicId);
+        if (epic == null) return;
+        if (batchDepth > 0) {
+            pendingEpics.add(epicId);
             return;
         }
+        applyEpicStatus(epic);
+    }
 
-        boolean isAllNew = epicSubtasks.stream()
-                .allMatch(subtask -> subtask.getStatus() == Status.NEW);
-        boolean isAllDone = epicSubtasks.stream()
-                .allMatch(subtask -> subtask.getStatus() == Status.DONE);
-
-        epic.setStatus(isAllNew ? Status.NEW : isAllDone ? Status.DONE : Status.IN_PROGRESS);
+    private void applyEpicStatus(Epic epic) {
+        rollup(epic.getId()).applyStatus(epic);
+        statusIndex.put(epic);
+        if (verifyRollups) {
+            verifyRollup(epic);
+        }
     }
 
     @Override
@@ -326,22 +555,29 @@ public class InMemoryTaskManager implements TaskManager {
         Task task = tasks.get(taskId);
         if (task != null) {
             removeFromPrioritizedTasks(task);
+            markDirty(taskId);
+            tasks.remove(taskId);
+            statusIndex.remove(taskId);
         }
-        tasks.remove(taskId);
     }
 
     @Override
     public void deleteEpicById(int epicId) {
         Epic epic = epics.get(epicId);
         if (epic != null) {
-            epic.getSubtaskIds().forEach(subtaskId -> {
+            epic.getSubtaskIds().forEachInt(subtaskId -> {
                 Subtask subtask = subtasks.get(subtaskId);
                 if (subtask != null) {
                     removeFromPrioritizedTasks(subtask);
                 }
                 subtasks.remove(subtaskId);
+                statusIndex.remove(subtaskId);
+                markDirty(subtaskId);
             });
             epics.remove(epicId);
+            statusIndex.remove(epicId);
+            rollups.remove(epicId);
+            markDirty(epicId);
         }
     }
 
@@ -351,8 +587,11 @@ public class InMemoryTaskManager implements TaskManager {
         if (subtask != null) {
             removeFromPrioritizedTasks(subtask);
             int epicId = subtask.getEpicId();
-            epics.get(epicId).getSubtaskIds().remove((Integer) subtaskId);
+            epics.get(epicId).getSubtaskIds().removeInt(subtaskId);
             subtasks.remove(subtaskId);
+            statusIndex.remove(subtaskId);
+            markDirty(subtaskId);
+            rollup(epicId).remove(subtaskId);
 
             //обновляем статус и время эпика
             updateEpicStatus(epicId);
@@ -360,6 +599,205 @@ public class InMemoryTaskManager implements TaskManager {
         }
     }
 
+    // Сначала проверяется весь пакет: если хоть одна операция некорректна, не выполняется ни одна.
+    // Затем операции применяются по порядку, отказ одной (пересечение, занятый ID) не отменяет остальные
+    @Override
+    public List<BatchOperationResult> applyBatch(List<BatchOperation> operations) {
+        List<BatchOperationResult> results = new ArrayList<>(operations.size());
+        List<String> errors = new ArrayList<>(operations.size());
+        boolean valid = true;
+        for (BatchOperation operation : operations) {
+            String error = operation == null ? "Пустая операция" : operation.validate();
+            errors.add(error);
+            valid &= error == null;
+        }
+        if (!valid) {
+            for (int i = 0; i < operations.size(); i++) {
+                String error = errors.get(i);
+                results.add(new BatchOperationResult(operations.get(i), false, 0,
+                        error != null ? error : "Пакет отклонён из-за ошибок в других операциях"));
+            }
+            return results;
+        }
+
+        beginBatch();
+        try {
+            for (BatchOperation operation : operations) {
+                results.add(applyOperation(operation));
+            }
+        } finally {
+            endBatch();
+        }
+        return results;
+    }
+
+    private BatchOperationResult applyOperation(BatchOperation operation) {
+        lastWarning = null;
+        Task task = operation.getTask();
+        int id = operation.getId();
+        boolean success;
+
+        switch (operation.getKind()) {
+            case CREATE_TASK:
+                createTask(task);
+                success = tasks.get(task.getId()) == task;
+                id = task.getId();
+                break;
+            case CREATE_EPIC:
+                createEpic((Epic) task);
+                success = epics.get(task.getId()) == task;
+                id = task.getId();
+                break;
+            case CREATE_SUBTASK:
+                createSubtask((Subtask) task, id);
+                success = subtasks.get(task.getId()) == task;
+                id = task.getId();
+                break;
+            case UPDATE_TASK:
+                success = tasks.containsKey(task.getId());
+                updateTask(task);
+                id = task.getId();
+                break;
+            case UPDATE_EPIC:
+                success = epics.containsKey(task.getId());
+                updateEpic((Epic) task);
+                id = task.getId();
+                break;
+            case UPDATE_SUBTASK:
+                success = subtasks.containsKey(task.getId());
+                updateSubtask((Subtask) task);
+                id = task.getId();
+                break;
+            case UPDATE_TASK_STATUS:
+                success = tasks.containsKey(id);
+                updateTaskStatus(id, operation.getStatus());
+                break;
+            case UPDATE_SUBTASK_STATUS:
+                success = subtasks.containsKey(id);
+                updateSubtaskStatus(id, operation.getStatus());
+                break;
+            case DELETE_TASK:
+                success = tasks.containsKey(id);
+                deleteTaskById(id);
+                break;
+            case DELETE_EPIC:
+                success = epics.containsKey(id);
+                deleteEpicById(id);
+                break;
+            case DELETE_SUBTASK:
+                success = subtasks.containsKey(id);
+                deleteSubtaskById(id);
+                break;
+            default:
+                throw new IllegalArgumentException("Неизвестная операция: " + operation.getKind());
+        }
+
+        // Отказ с предупреждением (пересечение, занятый ID) - неуспех, даже если в хранилище тот же объект:
+        // задачу часто меняют на месте и передают в update, и после отказа хранилище указывает на неё же
+        success &= lastWarning == null;
+        String message = success ? null : lastWarning != null ? lastWarning : "Задача не найдена";
+        return new BatchOperationResult(operation, success, id, message);
+    }
+
+    // Наследники откладывают здесь запись на диск до endBatch
+    protected void beginBatch() {
+        batchDepth++;
+    }
+
+    // Эпики пересчитываются, пока пакет ещё открыт, чтобы наследники учли их в той же записи
+    protected void endBatch() {
+        if (batchDepth == 1) {
+            try {
+                pendingEpics.forEachKey(epicId -> {
+                    Epic epic = epics.get(epicId);
+                    if (epic != null) {
+                        markDirty(epicId);
+                        applyEpicStatus(epic);
+                        applyEpicTime(epic);
+                    }
+                });
+            } finally {
+                pendingEpics.clear();
+            }
+        }
+        batchDepth--;
+    }
+
+    protected boolean isInBatch() {
+        return batchDepth > 0;
+    }
+
+    private void warn(String message) {
+        lastWarning = message;
+        if (batchDepth == 0) {
+            System.out.println(message);
+        }
+    }
+
+    // Массовая вставка без проверки пересечений и пересчёта эпика на каждой записи.
+    // Эпики пересчитываются один раз в конце, а найденные конфликты попадают в отчёт
+    protected void bulkInsert(List<? extends Task> records, ImportReport report) {
+        int maxId = 0;
+        List<Subtask> pendingSubtasks = new ArrayList<>();
+
+        for (Task task : records) {
+            if (isExistsId(task.getId())) {
+                report.addConflict(String.format("Дублирующийся ID %d: '%s' пропущена", task.getId(), task.getTitle()));
+                continue;
+            }
+            maxId = Math.max(maxId, task.getId());
+            markDirty(task.getId());
+            statusIndex.put(task);
+            if (task instanceof Epic) {
+                epics.put(task.getId(), (Epic) task);
+            } else if (task instanceof Subtask) {
+                // Резервируем ID, чтобы дубликаты среди подзадач тоже были найдены
+                subtasks.put(task.getId(), (Subtask) task);
+                pendingSubtasks.add((Subtask) task);
+                continue;
+            } else {
+                tasks.put(task.getId(), task);
+                addToPrioritizedTasks(task);
+            }
+            report.addInserted();
+        }
+
+        IntHashSet touchedEpics = new IntHashSet();
+        for (Subtask subtask : pendingSubtasks) {
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic == null) {
+                subtasks.remove(subtask.getId());
+                statusIndex.remove(subtask.getId());
+                report.addConflict(String.format("Подзадача %d ссылается на несуществующий эпик %d",
+                        subtask.getId(), subtask.getEpicId()));
+                continue;
+            }
+            epic.addSubtaskId(subtask.getId());
+            rollup(epic.getId()).add(subtask);
+            addToPrioritizedTasks(subtask);
+            touchedEpics.add(epic.getId());
+            report.addInserted();
+        }
+        // Статус эпика в файле мог устареть: пересчитываем его по вставленным подзадачам, как и время
+        touchedEpics.forEachKey(this::updateEpicStatus);
+        touchedEpics.forEachKey(this::updateEpicTime);
+
+        // Один проход по отсортированному списку находит все пересечения
+        Task latest = null;
+        for (Task task : prioritizedTasks) {
+            if (task.getDuration() == null) continue;
+            if (latest != null && task.getStartTime().isBefore(latest.getEndTime())) {
+                report.addConflict(String.format("Задача %d пересекается по времени с задачей %d",
+                        task.getId(), latest.getId()));
+            }
+            if (latest == null || task.getEndTime().isAfter(latest.getEndTime())) {
+                latest = task;
+            }
+        }
+
+        idAllocator.advancePast(maxId);
+    }
+
     @Override
     public List<Task> getHistory() {
         return historyManager.getHistory();
@@ -370,11 +808,175 @@ public class InMemoryTaskManager implements TaskManager {
         return new ArrayList<>(prioritizedTasks);
     }
 
+    // Представление поддерева TreeSet: стоимость обхода пропорциональна числу задач в окне,
+    // изменения менеджера сразу видны через представление
+    @Override
+    public SortedSet<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Границы интервала не могут быть null");
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Конец интервала раньше начала: " + from + " - " + to);
+        }
+        return Collections.unmodifiableNavigableSet(
+                prioritizedTasks.subSet(timelineProbe(from), true, timelineProbe(to), false));
+    }
+
+    @Override
+    public List<Task> getNextTasks(int limit) {
+        return getNextTasks(LocalDateTime.now(), limit);
+    }
+
+    @Override
+    public List<Task> getNextTasks(LocalDateTime from, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Лимит не может быть отрицательным: " + limit);
+        }
+        List<Task> next = new ArrayList<>(Math.min(limit, 64));
+        for (Task task : prioritizedTasks.tailSet(timelineProbe(from), true)) {
+            if (next.size() == limit) break;
+            next.add(task);
+        }
+        return next;
+    }
+
+    @Override
+    public LocalDateTime findEarliestFreeSlot(Duration duration) {
+        return findEarliestFreeSlot(duration, LocalDateTime.now(), null);
+    }
+
+    // Начинаем с конца задач, которые стартовали раньше from, и идём по задачам после from,
+    // пока не найдётся промежуток нужной длины: O(log n + k), где k - число просмотренных задач
+    @Override
+    public LocalDateTime findEarliestFreeSlot(Duration duration, LocalDateTime from, LocalDateTime to) {
+        validateSlotRequest(duration, from, to);
+
+        LocalDateTime cursor = latest(from, intervalIndex.maxEndBefore(from));
+        for (Task task : prioritizedTasks.tailSet(timelineProbe(from), true)) {
+            if (!cursor.plus(duration).isAfter(task.getStartTime())) {
+                break;
+            }
+            if (to != null && cursor.plus(duration).isAfter(to)) {
+                return null;
+            }
+            cursor = latest(cursor, timelineEnd(task));
+        }
+        return to == null || !cursor.plus(duration).isAfter(to) ? cursor : null;
+    }
+
+    // Свободные окна собираются за один проход по расписанию, затем задачи раскладываются по ним
+    // в порядке списка: каждая занимает начало первого подходящего окна
+    @Override
+    public List<Task> autoSchedule(List<? extends Task> unscheduled, LocalDateTime from, LocalDateTime to) {
+        for (Task task : unscheduled) {
+            if (task instanceof Epic) {
+                throw new IllegalArgumentException("Время эпика рассчитывается по подзадачам: " + task.getTitle());
+            }
+            validateSlotRequest(task.getDuration(), from, to);
+        }
+
+        List<LocalDateTime[]> gaps = new ArrayList<>();
+        LocalDateTime cursor = latest(from, intervalIndex.maxEndBefore(from));
+        for (Task task : prioritizedTasks.tailSet(timelineProbe(from), true)) {
+            if (to != null && !task.getStartTime().isBefore(to)) break;
+            if (task.getStartTime().isAfter(cursor)) {
+                gaps.add(new LocalDateTime[]{cursor, task.getStartTime()});
+            }
+            cursor = latest(cursor, timelineEnd(task));
+        }
+        if (to == null || cursor.isBefore(to)) {
+            gaps.add(new LocalDateTime[]{cursor, to});
+        }
+
+        List<Task> scheduled = new ArrayList<>();
+        // Все размещения - один пакет: наследники пишут их на диск одним действием, эпики пересчитываются один раз
+        beginBatch();
+        try {
+            for (Task task : unscheduled) {
+                for (LocalDateTime[] gap : gaps) {
+                    LocalDateTime end = gap[0].plus(task.getDuration());
+                    if (gap[1] != null && end.isAfter(gap[1])) continue;
+
+                    task.setStartTime(gap[0]);
+                    if (task instanceof Subtask) {
+                        createSubtask((Subtask) task, ((Subtask) task).getEpicId());
+                    } else {
+                        createTask(task);
+                    }
+                    if (tasks.get(task.getId()) == task || subtasks.get(task.getId()) == task) {
+                        gap[0] = end;
+                        scheduled.add(task);
+                    } else {
+                        // Задача не создана (например, занят ID) - окно остаётся свободным
+                        task.setStartTime(null);
+                    }
+                    break;
+                }
+            }
+        } finally {
+            endBatch();
+        }
+        return scheduled;
+    }
+
+    private static void validateSlotRequest(Duration duration, LocalDateTime from, LocalDateTime to) {
+        if (duration == null || duration.isZero() || duration.isNegative()) {
+            throw new IllegalArgumentException("Длительность должна быть положительной: " + duration);
+        }
+        if (from == null) {
+            throw new IllegalArgumentException("Начало интервала не может быть null");
+        }
+        if (to != null && to.isBefore(from)) {
+            throw new IllegalArgumentException("Конец интервала раньше начала: " + from + " - " + to);
+        }
+    }
+
+    // Задача без длительности в расписании занимает только момент начала
+    private static LocalDateTime timelineEnd(Task task) {
+        return task.getDuration() != null ? task.getEndTime() : task.getStartTime();
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        return b != null && b.isAfter(a) ? b : a;
+    }
+
+    // Пробная задача для поиска в prioritizedTasks: стоит раньше всех задач с тем же началом
+    private static Task timelineProbe(LocalDateTime startTime) {
+        Task probe = new Task(null, null);
+        probe.setId(Integer.MIN_VALUE);
+        probe.setStartTime(startTime);
+        return probe;
+    }
+
+    // Включаем сетку слотов заданной длины: для задач на границах слотов пересечение
+    // проверяется по битовым маскам, остальные по-прежнему проверяются индексом интервалов
+    public void enableTimeSlotIndex(int slotMinutes) {
+        TimeSlotIndex index = new TimeSlotIndex(slotMinutes);
+        prioritizedTasks.forEach(index::add);
+        timeSlotIndex = index;
+    }
+
+    public TimeSlotIndex getTimeSlotIndex() {
+        return timeSlotIndex;
+    }
+
+    // Слоты, в которых задача пересекается с уже существующими
+    public List<LocalDateTime> findSlotConflicts(Task task) {
+        if (timeSlotIndex == null) {
+            throw new IllegalStateException("Сетка слотов не включена");
+        }
+        return timeSlotIndex.findConflicts(task);
+    }
+
     //Вспомогательный метод добавления в prioritizedTasks
     private void addToPrioritizedTasks(Task task) {
         if (task != null && task.getStartTime() != null) {
             try {
                 prioritizedTasks.add(task);
+                intervalIndex.add(task);
+                if (timeSlotIndex != null) {
+                    timeSlotIndex.add(task);
+                }
             } catch (Exception exception) {
                 System.out.println("Ошибка при добавлении в prioritizedTasks: "
                         + exception.getMessage());
@@ -387,6 +989,10 @@ public class InMemoryTaskManager implements TaskManager {
         if (task != null) {
             try {
                 prioritizedTasks.remove(task);
+                intervalIndex.remove(task.getId());
+                if (timeSlotIndex != null) {
+                    timeSlotIndex.remove(task.getId());
+                }
             } catch (Exception exception) {
                 System.out.println("Ошибка при удалении из prioritizedTasks: "
                         + exception.getMessage());
@@ -394,32 +1000,17 @@ public class InMemoryTaskManager implements TaskManager {
         }
     }
 
-    // Метод для проверки пересечения двух задач
-    private boolean isTasksOverlap(Task task1, Task task2) {
-        if (task1 == null || task2 == null || task1.getStartTime() == null || task2.getStartTime() == null ||
-                task1.getDuration() == null || task2.getDuration() == null) {
-            return false;
-        }
-
-        LocalDateTime start1 = task1.getStartTime();
-        LocalDateTime end1 = task1.getEndTime();
-        LocalDateTime start2 = task2.getStartTime();
-        LocalDateTime end2 = task2.getEndTime();
-
-        // Проверяем методом наложения отрезков
-        return start1.isBefore(end2) && start2.isBefore(end1);
-    }
-
     // Проверка пересечения задачи с любой другой задачей в менеджере
     private boolean isTaskOverlappingWithAny(Task task) {
         if (task == null || task.getStartTime() == null || task.getDuration() == null) {
             return false;
         }
 
-        //Используем Stream API для проверки всех задач
-        return prioritizedTasks.stream()
-                .filter(existingTask -> existingTask != null && existingTask.getId() != task.getId() &&
-                        existingTask.getStartTime() != null && existingTask.getDuration() != null)
-                .anyMatch(existingTask -> isTasksOverlap(task, existingTask));
+        if (timeSlotIndex != null && timeSlotIndex.covers(task)) {
+            return timeSlotIndex.hasConflict(task);
+        }
+
+        //Индекс просматривает только задачи, которые могут пересекаться с отрезком
+        return intervalIndex.findOverlap(task.getStartTime(), task.getEndTime(), task.getId()) != null;
     }
 }
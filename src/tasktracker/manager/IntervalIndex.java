@@ -0,0 +1,200 @@
+package tasktracker.manager;
+
+import tasktracker.models.Task;
+import tasktracker.util.IntObjectHashMap;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+// Индекс интервалов задач: декартово дерево по (startTime, id), в каждом узле хранится
+// максимальное время окончания в поддереве. Поиск пересечения обходит только те ветки,
+// где такое пересечение возможно, вместо просмотра всего списка задач.
+// Интервалы полуоткрытые [start, end), как и в проверке пересечения задач
+public class IntervalIndex {
+
+    private static class Node {
+        final LocalDateTime start;
+        final LocalDateTime end;
+        final int id;
+        final int priority;
+        LocalDateTime maxEnd;
+        Node left;
+        Node right;
+
+        Node(LocalDateTime start, LocalDateTime end, int id, int priority) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+    }
+
+    private final Random random = new Random();
+    // Узел по ID: задачу могли изменить после вставки, удалять нужно по сохранённому ключу
+    private final IntObjectHashMap<Node> nodes = new IntObjectHashMap<>();
+    private Node root;
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public boolean contains(int id) {
+        return nodes.containsKey(id);
+    }
+
+    // Задачи без времени начала или длительности ни с чем не пересекаются и в индекс не попадают
+    public void add(Task task) {
+        if (task == null || task.getStartTime() == null || task.getDuration() == null) {
+            return;
+        }
+        remove(task.getId());
+        Node node = new Node(task.getStartTime(), task.getEndTime(), task.getId(), random.nextInt());
+        root = insert(root, node);
+        nodes.put(node.id, node);
+    }
+
+    public void remove(int id) {
+        Node node = nodes.remove(id);
+        if (node != null) {
+            root = delete(root, node);
+        }
+    }
+
+    public void clear() {
+        nodes.clear();
+        root = null;
+    }
+
+    // ID любой задачи, пересекающейся с [start, end), кроме excludeId, или null
+    public Integer findOverlap(LocalDateTime start, LocalDateTime end, int excludeId) {
+        Node found = search(root, start, end, excludeId);
+        return found != null ? found.id : null;
+    }
+
+    // Наибольшее время окончания среди задач, начинающихся раньше moment, или null
+    public LocalDateTime maxEndBefore(LocalDateTime moment) {
+        LocalDateTime result = null;
+        Node node = root;
+        while (node != null) {
+            if (node.start.isBefore(moment)) {
+                // Узел и всё его левое поддерево начинаются раньше moment
+                result = later(result, node.end);
+                if (node.left != null) {
+                    result = later(result, node.left.maxEnd);
+                }
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return result;
+    }
+
+    private static Node search(Node node, LocalDateTime start, LocalDateTime end, int excludeId) {
+        if (node == null || !node.maxEnd.isAfter(start)) {
+            return null;
+        }
+        Node found = search(node.left, start, end, excludeId);
+        if (found != null) {
+            return found;
+        }
+        // Правое поддерево начинается не раньше узла: если узел начинается после конца отрезка, дальше искать нечего
+        if (!node.start.isBefore(end)) {
+            return null;
+        }
+        if (node.id != excludeId && node.end.isAfter(start)) {
+            return node;
+        }
+        return search(node.right, start, end, excludeId);
+    }
+
+    private static int compare(Node a, Node b) {
+        int byStart = a.start.compareTo(b.start);
+        return byStart != 0 ? byStart : Integer.compare(a.id, b.id);
+    }
+
+    private static Node insert(Node node, Node inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        if (compare(inserted, node) < 0) {
+            node.left = insert(node.left, inserted);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, inserted);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private static Node delete(Node node, Node deleted) {
+        if (node == null) {
+            return null;
+        }
+        if (node == deleted) {
+            return merge(node.left, node.right);
+        }
+        if (compare(deleted, node) < 0) {
+            node.left = delete(node.left, deleted);
+        } else {
+            node.right = delete(node.right, deleted);
+        }
+        update(node);
+        return node;
+    }
+
+    // Все ключи left меньше ключей right
+    private static Node merge(Node left, Node right) {
+        if (left == null) return right;
+        if (right == null) return left;
+
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static void update(Node node) {
+        LocalDateTime maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = later(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = later(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        if (a == null) return b;
+        return b.isAfter(a) ? b : a;
+    }
+}
@@ -0,0 +1,148 @@
+package tasktracker.manager;
+
+import tasktracker.models.DescriptionSource;
+import tasktracker.util.IntLongHashMap;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Описания задач остаются в CSV-снимке: для каждой задачи храним только смещение и длину её строки,
+// а прочитанные описания держим в ограниченном LRU-кэше
+public class LazyDescriptionStore implements DescriptionSource, Closeable {
+
+    private static final int DESCRIPTION_FIELD = 4;
+    private static final int LENGTH_BITS = 24;
+    private static final long LENGTH_MASK = (1L << LENGTH_BITS) - 1;
+    private static final long MISSING = -1;
+
+    private final File file;
+    private final int cacheSize;
+    private final LinkedHashMap<Integer, String> cache;
+    private final CsvCodec.RowCursor cursor = new CsvCodec.RowCursor();
+
+    // Смещение строки в старших битах, длина строки в младших LENGTH_BITS
+    private IntLongHashMap locations = new IntLongHashMap();
+    private FileChannel channel;
+    private long reads;
+    private long cacheHits;
+
+    public LazyDescriptionStore(File file, int cacheSize) {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("Размер кэша описаний не может быть отрицательным");
+        }
+        this.file = file;
+        this.cacheSize = cacheSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+                return size() > LazyDescriptionStore.this.cacheSize;
+            }
+        };
+    }
+
+    public static long location(long offset, int length) {
+        if (length > LENGTH_MASK) {
+            throw new IllegalArgumentException("Слишком длинная строка снимка: " + length + " байт");
+        }
+        return offset << LENGTH_BITS | length;
+    }
+
+    public static long offsetOf(long location) {
+        return location >>> LENGTH_BITS;
+    }
+
+    public static int lengthOf(long location) {
+        return (int) (location & LENGTH_MASK);
+    }
+
+    // Положение строки задачи в текущем снимке или -1
+    public synchronized long locationOf(int taskId) {
+        return locations.get(taskId, MISSING);
+    }
+
+    public synchronized void register(int taskId, long offset, int length) {
+        locations.put(taskId, location(offset, length));
+    }
+
+    // Файл снимка перезаписан: старые смещения и кэш больше не действительны
+    public synchronized void rebind(IntLongHashMap newLocations) {
+        closeChannel();
+        locations = newLocations;
+        cache.clear();
+    }
+
+    @Override
+    public synchronized String loadDescription(int taskId) {
+        String description = cache.get(taskId);
+        if (description != null) {
+            cacheHits++;
+            return description;
+        }
+
+        long location = locations.get(taskId, MISSING);
+        if (location == MISSING) {
+            return null;
+        }
+        long offset = offsetOf(location);
+        int length = lengthOf(location);
+
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try {
+            if (channel == null) {
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            }
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new IOException("Неожиданный конец файла");
+                }
+            }
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Ошибка чтения описания задачи " + taskId + " из " + file.getAbsolutePath(),
+                    exception);
+        }
+        reads++;
+
+        String row = new String(buffer.array(), 0, length, StandardCharsets.UTF_8);
+        description = cursor.reset(row).getString(DESCRIPTION_FIELD);
+        if (cacheSize > 0) {
+            cache.put(taskId, description);
+        }
+        return description;
+    }
+
+    public synchronized long getReads() {
+        return reads;
+    }
+
+    public synchronized long getCacheHits() {
+        return cacheHits;
+    }
+
+    public synchronized int getCachedCount() {
+        return cache.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        closeChannel();
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+
+        try {
+            channel.close();
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Ошибка закрытия файла: " + file.getAbsolutePath(), exception);
+        } finally {
+            channel = null;
+        }
+    }
+}
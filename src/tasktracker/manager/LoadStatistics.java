@@ -0,0 +1,40 @@
+package tasktracker.manager;
+
+// Сводка последней загрузки из файла: сколько строк и байт прочитано и за какое время
+public class LoadStatistics {
+    private final long rows;
+    private final long bytes;
+    private final long nanos;
+
+    public LoadStatistics(long rows, long bytes, long nanos) {
+        this.rows = rows;
+        this.bytes = bytes;
+        this.nanos = nanos;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public double getRowsPerSecond() {
+        return nanos == 0 ? 0 : rows * 1_000_000_000.0 / nanos;
+    }
+
+    public double getMegabytesPerSecond() {
+        return nanos == 0 ? 0 : bytes * 1_000_000_000.0 / nanos / (1024 * 1024);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LoadStatistics{rows=%d, bytes=%d, millis=%d, rows/s=%.0f, MB/s=%.2f}",
+                rows, bytes, nanos / 1_000_000, getRowsPerSecond(), getMegabytesPerSecond());
+    }
+}
@@ -0,0 +1,145 @@
+package tasktracker.manager;
+
+import tasktracker.models.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Параллельный импорт большого CSV: файл режется на куски по границам строк,
+// куски разбираются в пуле fork-join, а затем все записи вставляются в менеджер одним проходом
+public class ParallelCsvImporter {
+    private static final long MAX_CHUNK_BYTES = 32L * 1024 * 1024;
+
+    private final int parallelism;
+
+    public ParallelCsvImporter(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Степень параллелизма должна быть положительной");
+        }
+        this.parallelism = parallelism;
+    }
+
+    // Результат разбора одного куска файла
+    private static class ParsedChunk {
+        final List<Task> records = new ArrayList<>();
+        final List<String> errors = new ArrayList<>();
+        long rows;
+    }
+
+    public ImportReport importInto(InMemoryTaskManager manager, File file) {
+        long started = System.nanoTime();
+        ImportReport report = new ImportReport();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long[] bounds = splitIntoChunks(channel);
+            List<ParsedChunk> chunks = new ArrayList<>();
+
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                List<ForkJoinTask<ParsedChunk>> futures = new ArrayList<>();
+                for (int i = 0; i + 1 < bounds.length; i++) {
+                    long from = bounds[i];
+                    long to = bounds[i + 1];
+                    futures.add(pool.submit(() -> parseChunk(channel, from, to)));
+                }
+                for (ForkJoinTask<ParsedChunk> future : futures) {
+                    chunks.add(future.join());
+                }
+            } finally {
+                pool.shutdown();
+            }
+
+            List<Task> records = new ArrayList<>();
+            for (ParsedChunk chunk : chunks) {
+                report.addRowsParsed(chunk.rows);
+                chunk.errors.forEach(report::addConflict);
+                records.addAll(chunk.records);
+            }
+            manager.bulkInsert(records, report);
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Ошибка импорта из файла: " + file.getAbsolutePath(), exception);
+        }
+
+        report.setNanos(System.nanoTime() - started);
+        return report;
+    }
+
+    // Границы кусков: первый начинается после заголовка, каждая следующая граница сдвигается к началу строки
+    private long[] splitIntoChunks(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long dataStart = nextLineStart(channel, 0, size);
+        int chunkCount = (int) Math.max(parallelism * 4L, (size - dataStart) / MAX_CHUNK_BYTES + 1);
+
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(dataStart);
+        for (int i = 1; i < chunkCount; i++) {
+            long candidate = dataStart + (size - dataStart) * i / chunkCount;
+            long bound = nextLineStart(channel, Math.max(candidate, bounds.get(bounds.size() - 1)), size);
+            if (bound > bounds.get(bounds.size() - 1) && bound < size) {
+                bounds.add(bound);
+            }
+        }
+        bounds.add(size);
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    // Позиция сразу после ближайшего перевода строки начиная с position
+    private long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    // Перевод строки в UTF-8 не встречается внутри многобайтовых символов, поэтому кусок декодируется независимо
+    private ParsedChunk parseChunk(FileChannel channel, long from, long to) {
+        ParsedChunk chunk = new ParsedChunk();
+        byte[] bytes = new byte[(int) (to - from)];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, from + buffer.position()) < 0) break;
+            }
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Ошибка чтения куска файла", exception);
+        }
+
+        String text = new String(bytes, 0, buffer.position(), StandardCharsets.UTF_8);
+        CsvCodec.RowCursor cursor = new CsvCodec.RowCursor();
+        int lineStart = 0;
+        while (lineStart < text.length()) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = text.length();
+            }
+            String line = text.substring(lineStart, lineEnd).trim();
+            lineStart = lineEnd + 1;
+            if (line.isEmpty()) continue;
+
+            chunk.rows++;
+            try {
+                chunk.records.add(cursor.reset(line).toTask());
+            } catch (IllegalArgumentException exception) {
+                chunk.errors.add("Некорректная строка: " + line);
+            }
+        }
+        return chunk;
+    }
+}
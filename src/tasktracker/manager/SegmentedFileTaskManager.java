@@ -0,0 +1,362 @@
+package tasktracker.manager;
+
+import tasktracker.models.*;
+import tasktracker.util.IntList;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+// Хранилище, разбитое на сегменты: отдельный файл для обычных задач и по файлу на каждый эпик
+// с его подзадачами. Изменение перезаписывает только затронутые сегменты, а список сегментов
+// хранится в небольшом манифесте, который меняется только при появлении или удалении эпика.
+public class SegmentedFileTaskManager extends InMemoryTaskManager {
+
+    public static final String MANIFEST = "manifest.csv";
+    private static final String TASKS_SEGMENT = "tasks.csv";
+    private static final String MANIFEST_HEADER = "segment,epic";
+    private static final int TASKS_SEGMENT_ID = 0;
+
+    private final File directory;
+
+    // В каком сегменте лежит задача: ID эпика или TASKS_SEGMENT_ID для обычных задач
+    private final Map<Integer, Integer> segmentOf = new HashMap<>();
+    private final Set<Integer> dirtySegments = new LinkedHashSet<>();
+    private final Set<Integer> touchedIds = new LinkedHashSet<>();
+    private final Set<Integer> segments = new LinkedHashSet<>();
+    private boolean manifestDirty;
+    private long segmentsWritten;
+
+    public SegmentedFileTaskManager(File directory) {
+        this(directory, new AtomicIdAllocator());
+    }
+
+    // Несколько хранилищ с общим BlockIdAllocator не пересекаются по ID
+    public SegmentedFileTaskManager(File directory, IdAllocator idAllocator) {
+        super(Managers.getDefaultHistory(), idAllocator);
+        this.directory = directory;
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new ManagerSaveException("Не удалось создать каталог: " + directory.getAbsolutePath(), null);
+        }
+        segments.add(TASKS_SEGMENT_ID);
+    }
+
+    // Сегменты читаются и разбираются параллельно, затем записи вставляются в менеджер одним проходом
+    public static SegmentedFileTaskManager loadFromDirectory(File directory, int parallelism) {
+        return loadFromDirectory(directory, parallelism, new AtomicIdAllocator());
+    }
+
+    public static SegmentedFileTaskManager loadFromDirectory(File directory, int parallelism, IdAllocator idAllocator) {
+        SegmentedFileTaskManager taskManager = new SegmentedFileTaskManager(directory, idAllocator);
+        File manifest = new File(directory, MANIFEST);
+        if (!manifest.exists()) {
+            return taskManager;
+        }
+
+        List<String> segmentNames = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(manifest.toPath(), StandardCharsets.UTF_8)) {
+            String line = reader.readLine(); // заголовок
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                segmentNames.add(line.substring(0, line.indexOf(',')));
+            }
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Ошибка чтения манифеста: " + manifest.getAbsolutePath(), exception);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        List<List<Task>> parsed;
+        try {
+            parsed = pool.submit(() -> segmentNames.parallelStream()
+                    .map(name -> readSegment(new File(directory, name)))
+                    .collect(Collectors.toList())).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        List<Task> records = new ArrayList<>();
+        parsed.forEach(records::addAll);
+        ImportReport report = new ImportReport();
+        taskManager.bulkInsert(records, report);
+        report.getConflicts().forEach(conflict -> System.out.println("Конфликт при загрузке сегментов: " + conflict));
+
+        // Состояние только что прочитано с диска, перезаписывать нечего
+        taskManager.touchedIds.forEach(id -> {
+            Integer segment = taskManager.currentSegment(id);
+            if (segment != null) {
+                taskManager.segmentOf.put(id, segment);
+                taskManager.segments.add(segment);
+            }
+        });
+        taskManager.touchedIds.clear();
+        taskManager.dirtySegments.clear();
+        taskManager.manifestDirty = false;
+        return taskManager;
+    }
+
+    private static List<Task> readSegment(File segment) {
+        List<Task> records = new ArrayList<>();
+        if (!segment.exists()) {
+            return records;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(segment.toPath(), StandardCharsets.UTF_8)) {
+            CsvCodec.RowCursor cursor = new CsvCodec.RowCursor();
+            String line = reader.readLine(); // заголовок
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                records.add(cursor.reset(line.trim()).toTask());
+            }
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Ошибка чтения сегмента: " + segment.getAbsolutePath(), exception);
+        }
+        return records;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public Set<Integer> getSegmentIds() {
+        return Collections.unmodifiableSet(segments);
+    }
+
+    public long getSegmentsWritten() {
+        return segmentsWritten;
+    }
+
+    public static String segmentName(int segmentId) {
+        return segmentId == TASKS_SEGMENT_ID ? TASKS_SEGMENT : "epic-" + segmentId + ".csv";
+    }
+
+    @Override
+    public void createTask(Task task) {
+        super.createTask(task);
+        writeDirtySegments();
+    }
+
+    @Override
+    public void createEpic(Epic epic) {
+        super.createEpic(epic);
+        writeDirtySegments();
+    }
+
+    @Override
+    public void createSubtask(Subtask subtask, int epicId) {
+        super.createSubtask(subtask, epicId);
+        writeDirtySegments();
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        super.deleteAllTasks();
+        writeDirtySegments();
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        super.deleteAllEpics();
+        writeDirtySegments();
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        super.deleteAllSubtasks();
+        writeDirtySegments();
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        super.updateTask(task);
+        writeDirtySegments();
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        super.updateEpic(epic);
+        writeDirtySegments();
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        super.updateSubtask(subtask);
+        writeDirtySegments();
+    }
+
+    @Override
+    public void updateTaskStatus(int taskId, Status status) {
+        super.updateTaskStatus(taskId, status);
+        writeDirtySegments();
+    }
+
+    @Override
+    public void updateSubtaskStatus(int subtaskId, Status status) {
+        super.updateSubtaskStatus(subtaskId, status);
+        writeDirtySegments();
+    }
+
+    @Override
+    public void deleteTaskById(int taskId) {
+        super.deleteTaskById(taskId);
+        writeDirtySegments();
+    }
+
+    @Override
+    public void deleteEpicById(int epicId) {
+        super.deleteEpicById(epicId);
+        writeDirtySegments();
+    }
+
+    @Override
+    public void deleteSubtaskById(int subtaskId) {
+        super.deleteSubtaskById(subtaskId);
+        writeDirtySegments();
+    }
+
+    // Помечаем грязным сегмент, в котором задача лежит сейчас, и сегмент, где она лежала раньше.
+    // Удаление может сообщить об изменении до того, как задача убрана из таблицы,
+    // поэтому окончательно принадлежность сверяется в writeDirtySegments
+    @Override
+    protected void markDirty(int id) {
+        touchedIds.add(id);
+        Integer previous = segmentOf.get(id);
+        if (previous != null) {
+            dirtySegments.add(previous);
+        }
+        Integer current = currentSegment(id);
+        if (current != null) {
+            segmentOf.put(id, current);
+            dirtySegments.add(current);
+        }
+    }
+
+    private Integer currentSegment(int id) {
+        if (tasks.containsKey(id)) {
+            return TASKS_SEGMENT_ID;
+        }
+        if (epics.containsKey(id)) {
+            return id;
+        }
+        Subtask subtask = subtasks.get(id);
+        return subtask != null ? subtask.getEpicId() : null;
+    }
+
+    // Внутри пакета сегменты копятся и записываются один раз в endBatch
+    @Override
+    protected void endBatch() {
+        super.endBatch();
+        writeDirtySegments();
+    }
+
+    private void writeDirtySegments() {
+        if (isInBatch()) return;
+
+        for (int id : touchedIds) {
+            Integer current = currentSegment(id);
+            if (current == null) {
+                segmentOf.remove(id);
+            } else {
+                segmentOf.put(id, current);
+                dirtySegments.add(current);
+            }
+        }
+        touchedIds.clear();
+
+        for (int segmentId : dirtySegments) {
+            File segment = new File(directory, segmentName(segmentId));
+            if (segmentId != TASKS_SEGMENT_ID && !epics.containsKey(segmentId)) {
+                // Эпик удалён - его сегмент больше не нужен
+                if (segments.remove(segmentId)) {
+                    manifestDirty = true;
+                }
+                segment.delete();
+                continue;
+            }
+            if (segments.add(segmentId)) {
+                manifestDirty = true;
+            }
+            writeSegment(segment, segmentRows(segmentId));
+        }
+        dirtySegments.clear();
+
+        if (manifestDirty) {
+            List<String> lines = new ArrayList<>();
+            lines.add(MANIFEST_HEADER);
+            for (int segmentId : segments) {
+                lines.add(segmentName(segmentId) + "," + (segmentId == TASKS_SEGMENT_ID ? "" : segmentId));
+            }
+            writeFile(new File(directory, MANIFEST), lines);
+            manifestDirty = false;
+        }
+    }
+
+    private List<Task> segmentRows(int segmentId) {
+        List<Task> rows = new ArrayList<>();
+        if (segmentId == TASKS_SEGMENT_ID) {
+            rows.addAll(tasks.values());
+            return rows;
+        }
+
+        Epic epic = epics.get(segmentId);
+        if (epic == null) {
+            return rows;
+        }
+        rows.add(epic);
+        IntList subtaskIds = epic.getSubtaskIds();
+        for (int i = 0; i < subtaskIds.size(); i++) {
+            Subtask subtask = subtasks.get(subtaskIds.getInt(i));
+            // Подзадача могла переехать в другой эпик
+            if (subtask != null && subtask.getEpicId() == segmentId) {
+                rows.add(subtask);
+            }
+        }
+        return rows;
+    }
+
+    private void writeSegment(File segment, List<Task> rows) {
+        File tmp = new File(segment.getPath() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(CSVFormatter.getHeader());
+            writer.newLine();
+            for (Task task : rows) {
+                CsvCodec.appendRow(task, writer);
+                writer.newLine();
+            }
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Ошибка записи сегмента: " + segment.getAbsolutePath(), exception);
+        }
+        moveIntoPlace(tmp, segment);
+        segmentsWritten++;
+    }
+
+    private void writeFile(File file, List<String> lines) {
+        File tmp = new File(file.getPath() + ".tmp");
+        try {
+            Files.write(tmp.toPath(), lines, StandardCharsets.UTF_8);
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Ошибка записи файла: " + file.getAbsolutePath(), exception);
+        }
+        moveIntoPlace(tmp, file);
+    }
+
+    private void moveIntoPlace(File tmp, File target) {
+        try {
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Не удалось заменить файл: " + target.getAbsolutePath(), exception);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package tasktracker.manager;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+// Формат файла снимка. Для существующего файла определяется по сигнатуре, для нового - по расширению
+public enum SnapshotFormat {
+    CSV,
+    BINARY;
+
+    public static final String BINARY_EXTENSION = ".bin";
+
+    public static SnapshotFormat detect(File file) {
+        if (file.exists() && file.length() >= Integer.BYTES) {
+            try (DataInputStream input = new DataInputStream(new FileInputStream(file))) {
+                return input.readInt() == BinarySnapshotFormat.MAGIC ? BINARY : CSV;
+            } catch (IOException exception) {
+                throw new ManagerSaveException("Не удалось прочитать файл: " + file.getAbsolutePath(), exception);
+            }
+        }
+        return file.getName().endsWith(BINARY_EXTENSION) ? BINARY : CSV;
+    }
+}
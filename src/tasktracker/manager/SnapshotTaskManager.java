@@ -0,0 +1,478 @@
+package tasktracker.manager;
+
+import tasktracker.models.Epic;
+import tasktracker.models.Status;
+import tasktracker.models.Subtask;
+import tasktracker.models.Task;
+import tasktracker.models.TaskType;
+import tasktracker.util.IntHashSet;
+import tasktracker.util.PersistentSortedMap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.function.Supplier;
+
+// Менеджер с версиями доски (MVCC). Записи выполняются по одной под монитором писателя над обычным
+// InMemoryTaskManager, а после каждой зафиксированной записи публикуется новый неизменяемый BoardSnapshot:
+// изменённые задачи копируются и заменяются в постоянных деревьях, остальное новая версия делит с предыдущей.
+// Читатели берут текущую версию одним volatile-чтением, не блокируют писателя и видят согласованное
+// состояние задач, эпиков и подзадач на момент одной записи.
+// Объекты, которые возвращают геттеры, принадлежат снимку: их нельзя менять, для изменения нужно
+// передать менеджеру отредактированную копию через update*.
+// Представления get*View и forEach* работают с версией, взятой в момент вызова: без копирования и блокировок,
+// последующие записи их не меняют
+public class SnapshotTaskManager extends InMemoryTaskManager {
+
+    private final Object writeLock = new Object();
+    private final IntHashSet dirty = new IntHashSet();
+    private volatile BoardSnapshot current = BoardSnapshot.EMPTY;
+    // Пакет и авторасстановка вызывают create* изнутри: публикуем один раз при выходе из внешней записи
+    private int writeDepth;
+
+    public SnapshotTaskManager() {
+        this(new AtomicIdAllocator());
+    }
+
+    public SnapshotTaskManager(IdAllocator idAllocator) {
+        super(new SynchronizedHistoryManager(Managers.getDefaultHistory()), idAllocator);
+    }
+
+    // Текущая версия доски: одно volatile-чтение, без блокировок
+    public BoardSnapshot snapshot() {
+        return current;
+    }
+
+    @Override
+    protected void markDirty(int id) {
+        dirty.add(id);
+    }
+
+    @Override
+    public void createTask(Task task) {
+        write(() -> super.createTask(task));
+    }
+
+    @Override
+    public void createEpic(Epic epic) {
+        write(() -> super.createEpic(epic));
+    }
+
+    @Override
+    public void createSubtask(Subtask subtask, int epicId) {
+        write(() -> super.createSubtask(subtask, epicId));
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        write(super::deleteAllTasks);
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        write(super::deleteAllEpics);
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        write(super::deleteAllSubtasks);
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        write(() -> super.updateTask(task));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        write(() -> super.updateEpic(epic));
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        write(() -> super.updateSubtask(subtask));
+    }
+
+    @Override
+    public void updateTaskStatus(int taskId, Status status) {
+        write(() -> super.updateTaskStatus(taskId, status));
+    }
+
+    @Override
+    public void updateSubtaskStatus(int subtaskId, Status status) {
+        write(() -> super.updateSubtaskStatus(subtaskId, status));
+    }
+
+    @Override
+    public void deleteTaskById(int taskId) {
+        write(() -> super.deleteTaskById(taskId));
+    }
+
+    @Override
+    public void deleteEpicById(int epicId) {
+        write(() -> super.deleteEpicById(epicId));
+    }
+
+    @Override
+    public void deleteSubtaskById(int subtaskId) {
+        write(() -> super.deleteSubtaskById(subtaskId));
+    }
+
+    @Override
+    public List<Task> autoSchedule(List<? extends Task> unscheduled, LocalDateTime from, LocalDateTime to) {
+        return write(() -> super.autoSchedule(unscheduled, from, to));
+    }
+
+    @Override
+    public List<BatchOperationResult> applyBatch(List<BatchOperation> operations) {
+        return write(() -> super.applyBatch(operations));
+    }
+
+    @Override
+    public void setRollupVerification(boolean enabled) {
+        write(() -> super.setRollupVerification(enabled));
+    }
+
+    @Override
+    public void enableTimeSlotIndex(int slotMinutes) {
+        write(() -> super.enableTimeSlotIndex(slotMinutes));
+    }
+
+    @Override
+    public ArrayList<Task> getTasks() {
+        return new ArrayList<>(current.getTasks());
+    }
+
+    @Override
+    public ArrayList<Epic> getEpics() {
+        return new ArrayList<>(current.getEpics());
+    }
+
+    @Override
+    public ArrayList<Subtask> getSubtasks() {
+        return new ArrayList<>(current.getSubtasks());
+    }
+
+    @Override
+    public ArrayList<Subtask> getEpicSubtasks(int epicId) {
+        BoardSnapshot snapshot = current;
+        if (snapshot.getEpic(epicId) == null) {
+            System.out.printf("Не существует эпика с ID: %d%n", epicId);
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(snapshot.getEpicSubtasks(epicId));
+    }
+
+    @Override
+    public Collection<Task> getTasksView() {
+        return current.getTasks();
+    }
+
+    @Override
+    public Collection<Epic> getEpicsView() {
+        return current.getEpics();
+    }
+
+    @Override
+    public Collection<Subtask> getSubtasksView() {
+        return current.getSubtasks();
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasksView(int epicId) {
+        return current.getEpicSubtasks(epicId);
+    }
+
+    @Override
+    public SortedSet<Task> getPrioritizedTasksView() {
+        return current.getPrioritizedTasks();
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        return viewed(current.getTask(id));
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        return viewed(current.getEpic(id));
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        return viewed(current.getSubtask(id));
+    }
+
+    @Override
+    public Task getById(int id) {
+        return viewed(current.get(id));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return new ArrayList<>(current.getPrioritizedTasks());
+    }
+
+    // Живое окно: каждое обращение читает текущую версию. Обход и подмножества окна
+    // работают с версией, взятой в момент вызова
+    @Override
+    public SortedSet<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Границы интервала не могут быть null");
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Конец интервала раньше начала: " + from + " - " + to);
+        }
+        return new LiveWindow(from, to);
+    }
+
+    @Override
+    public List<Task> getNextTasks(LocalDateTime from, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Лимит не может быть отрицательным: " + limit);
+        }
+        List<Task> next = new ArrayList<>(Math.min(limit, 64));
+        for (Task task : current.getPrioritizedTasks(from, null)) {
+            if (next.size() == limit) break;
+            next.add(task);
+        }
+        return next;
+    }
+
+    // Поиск окна опирается на изменяемый индекс интервалов, поэтому идёт под монитором писателя
+    @Override
+    public LocalDateTime findEarliestFreeSlot(Duration duration, LocalDateTime from, LocalDateTime to) {
+        synchronized (writeLock) {
+            return super.findEarliestFreeSlot(duration, from, to);
+        }
+    }
+
+    @Override
+    public List<LocalDateTime> findSlotConflicts(Task task) {
+        synchronized (writeLock) {
+            return super.findSlotConflicts(task);
+        }
+    }
+
+    // Индекс статусов описывает живое состояние: под монитором писателя оно совпадает с текущей версией,
+    // а задачи берутся из неё
+    @Override
+    public List<Task> findByStatus(Status status) {
+        synchronized (writeLock) {
+            return resolve(statusIndex.ids(status));
+        }
+    }
+
+    @Override
+    public List<Task> findByStatus(TaskType type, Status status) {
+        synchronized (writeLock) {
+            return resolve(statusIndex.ids(type, status));
+        }
+    }
+
+    @Override
+    public int countByStatus(Status status) {
+        synchronized (writeLock) {
+            return super.countByStatus(status);
+        }
+    }
+
+    @Override
+    public int countByStatus(TaskType type, Status status) {
+        synchronized (writeLock) {
+            return super.countByStatus(type, status);
+        }
+    }
+
+    @Override
+    public int countByType(TaskType type) {
+        synchronized (writeLock) {
+            return super.countByType(type);
+        }
+    }
+
+    @Override
+    public int countEpicSubtasks(int epicId, Status status) {
+        synchronized (writeLock) {
+            return super.countEpicSubtasks(epicId, status);
+        }
+    }
+
+    private List<Task> resolve(int[] ids) {
+        BoardSnapshot snapshot = current;
+        List<Task> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(snapshot.get(id));
+        }
+        return result;
+    }
+
+    private <T extends Task> T viewed(T task) {
+        if (task != null) {
+            historyManager.add(task);
+        }
+        return task;
+    }
+
+    private void write(Runnable action) {
+        write(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private <R> R write(Supplier<R> action) {
+        synchronized (writeLock) {
+            writeDepth++;
+            try {
+                return action.get();
+            } finally {
+                writeDepth--;
+                if (writeDepth == 0) {
+                    publish();
+                }
+            }
+        }
+    }
+
+    // Переносим в новую версию задачи, помеченные при записи. Вместе с подзадачей обновляется
+    // копия её эпика (прежнего и текущего), потому что у эпика меняется список подзадач
+    private void publish() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        BoardSnapshot previous = current;
+        IntHashSet changed = new IntHashSet(dirty.size() * 2);
+        dirty.forEachKey(id -> {
+            changed.add(id);
+            addEpicOf(changed, previous.get(id));
+            addEpicOf(changed, registry.get(id));
+        });
+        dirty.clear();
+
+        PersistentSortedMap<Integer, Task> nextTasks = previous.tasks;
+        PersistentSortedMap<Integer, Epic> nextEpics = previous.epics;
+        PersistentSortedMap<Integer, Subtask> nextSubtasks = previous.subtasks;
+        PersistentSortedMap<Task, Task> nextPrioritized = previous.prioritized;
+
+        for (int id : changed.toKeyArray()) {
+            Task old = previous.get(id);
+            if (old != null) {
+                nextTasks = nextTasks.remove(id);
+                nextEpics = nextEpics.remove(id);
+                nextSubtasks = nextSubtasks.remove(id);
+                nextPrioritized = nextPrioritized.remove(old);
+            }
+
+            Task live = registry.get(id);
+            if (live == null) {
+                continue;
+            }
+            Task frozen = freeze(live);
+            if (frozen instanceof Epic epic) {
+                nextEpics = nextEpics.put(id, epic);
+            } else if (frozen instanceof Subtask subtask) {
+                nextSubtasks = nextSubtasks.put(id, subtask);
+            } else {
+                nextTasks = nextTasks.put(id, frozen);
+            }
+            if (!(frozen instanceof Epic) && frozen.getStartTime() != null) {
+                nextPrioritized = nextPrioritized.put(frozen, frozen);
+            }
+        }
+        current = new BoardSnapshot(previous.getVersion() + 1, nextTasks, nextEpics, nextSubtasks, nextPrioritized);
+    }
+
+    private static void addEpicOf(IntHashSet changed, Task task) {
+        if (task instanceof Subtask subtask) {
+            changed.add(subtask.getEpicId());
+        }
+    }
+
+    // Копия задачи для снимка: дальнейшие изменения живого объекта её не затрагивают
+    private static Task freeze(Task original) {
+        Task copy;
+        if (original instanceof Subtask subtask) {
+            Subtask frozen = new Subtask(subtask.getTitle(), subtask.getDescription());
+            frozen.setEpicId(subtask.getEpicId());
+            copy = frozen;
+        } else if (original instanceof Epic epic) {
+            Epic frozen = new Epic(epic.getTitle(), epic.getDescription());
+            frozen.getSubtaskIds().addAll(epic.getSubtaskIds());
+            frozen.setEndTime(epic.getEndTime());
+            copy = frozen;
+        } else {
+            copy = new Task(original.getTitle(), original.getDescription());
+        }
+        copy.setId(original.getId());
+        copy.setStatus(original.getStatus());
+        copy.setStartTime(original.getStartTime());
+        copy.setDuration(original.getDuration());
+        return copy;
+    }
+
+    private class LiveWindow extends AbstractSet<Task> implements SortedSet<Task> {
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+
+        LiveWindow(LocalDateTime from, LocalDateTime to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        private SortedSet<Task> resolve() {
+            return current.getPrioritizedTasks(from, to);
+        }
+
+        @Override
+        public Iterator<Task> iterator() {
+            return resolve().iterator();
+        }
+
+        @Override
+        public int size() {
+            return resolve().size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return resolve().contains(o);
+        }
+
+        @Override
+        public Comparator<? super Task> comparator() {
+            return BoardSnapshot.PRIORITY_ORDER;
+        }
+
+        @Override
+        public SortedSet<Task> subSet(Task fromElement, Task toElement) {
+            return resolve().subSet(fromElement, toElement);
+        }
+
+        @Override
+        public SortedSet<Task> headSet(Task toElement) {
+            return resolve().headSet(toElement);
+        }
+
+        @Override
+        public SortedSet<Task> tailSet(Task fromElement) {
+            return resolve().tailSet(fromElement);
+        }
+
+        @Override
+        public Task first() {
+            return resolve().first();
+        }
+
+        @Override
+        public Task last() {
+            return resolve().last();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package tasktracker.manager;
+
+import tasktracker.models.Epic;
+import tasktracker.models.Status;
+import tasktracker.models.Subtask;
+import tasktracker.models.Task;
+import tasktracker.models.TaskType;
+import tasktracker.util.IntHashSet;
+import tasktracker.util.IntIntHashMap;
+
+import java.util.Arrays;
+
+// Вторичный индекс ID по типу и статусу: по корзине на каждую пару, размер корзины - готовый счётчик.
+// Для каждого ID запоминается корзина, в которую он попал, поэтому перенос при смене статуса не зависит
+// от того, что объект задачи уже изменён. Задачи без статуса лежат в отдельной корзине своего типа
+public class StatusIndex {
+
+    private static final int STATUSES = Status.values().length;
+    // Последняя корзина типа - задачи без статуса
+    private static final int PER_TYPE = STATUSES + 1;
+    private static final int MISSING = -1;
+
+    private final IntIntHashMap buckets = new IntIntHashMap();
+    private final IntHashSet[] ids = new IntHashSet[TaskType.values().length * PER_TYPE];
+
+    public StatusIndex() {
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = new IntHashSet();
+        }
+    }
+
+    // Добавляет задачу или переносит её в корзину текущего статуса
+    public void put(Task task) {
+        int id = task.getId();
+        int bucket = bucket(typeOf(task), task.getStatus());
+        int previous = buckets.get(id, MISSING);
+        if (previous == bucket) {
+            return;
+        }
+        if (previous != MISSING) {
+            ids[previous].remove(id);
+        }
+        ids[bucket].add(id);
+        buckets.put(id, bucket);
+    }
+
+    public void remove(int id) {
+        int previous = buckets.get(id, MISSING);
+        if (previous != MISSING) {
+            ids[previous].remove(id);
+            buckets.remove(id);
+        }
+    }
+
+    // Удаляет все задачи типа: стоимость пропорциональна их числу
+    public void clear(TaskType type) {
+        for (int status = 0; status < PER_TYPE; status++) {
+            IntHashSet bucket = ids[type.ordinal() * PER_TYPE + status];
+            bucket.forEachKey(buckets::remove);
+            bucket.clear();
+        }
+    }
+
+    public int count(TaskType type, Status status) {
+        return ids[bucket(type, requireStatus(status))].size();
+    }
+
+    public int count(Status status) {
+        requireStatus(status);
+        int total = 0;
+        for (TaskType type : TaskType.values()) {
+            total += ids[bucket(type, status)].size();
+        }
+        return total;
+    }
+
+    public int count(TaskType type) {
+        int total = 0;
+        for (int status = 0; status < PER_TYPE; status++) {
+            total += ids[type.ordinal() * PER_TYPE + status].size();
+        }
+        return total;
+    }
+
+    // ID задач типа с заданным статусом по возрастанию
+    public int[] ids(TaskType type, Status status) {
+        int[] result = ids[bucket(type, requireStatus(status))].toKeyArray();
+        Arrays.sort(result);
+        return result;
+    }
+
+    // ID задач всех типов с заданным статусом по возрастанию
+    public int[] ids(Status status) {
+        requireStatus(status);
+        int[] result = new int[count(status)];
+        int filled = 0;
+        for (TaskType type : TaskType.values()) {
+            int[] typed = ids[bucket(type, status)].toKeyArray();
+            System.arraycopy(typed, 0, result, filled, typed.length);
+            filled += typed.length;
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static int bucket(TaskType type, Status status) {
+        return type.ordinal() * PER_TYPE + (status == null ? STATUSES : status.ordinal());
+    }
+
+    private static Status requireStatus(Status status) {
+        if (status == null) {
+            throw new IllegalArgumentException("Статус не может быть null");
+        }
+        return status;
+    }
+
+    private static TaskType typeOf(Task task) {
+        if (task instanceof Epic) {
+            return TaskType.EPIC;
+        }
+        return task instanceof Subtask ? TaskType.SUBTASK : TaskType.TASK;
+    }
+}
@@ -0,0 +1,30 @@
+package tasktracker.manager;
+
+import tasktracker.models.Task;
+
+import java.util.List;
+
+// История просмотров для многопоточного менеджера: геттеры задач пишут в историю под общей блокировкой чтения
+public class SynchronizedHistoryManager implements HistoryManager {
+
+    private final HistoryManager delegate;
+
+    public SynchronizedHistoryManager(HistoryManager delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized void add(Task task) {
+        delegate.add(task);
+    }
+
+    @Override
+    public synchronized void remove(int id) {
+        delegate.remove(id);
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        return delegate.getHistory();
+    }
+}
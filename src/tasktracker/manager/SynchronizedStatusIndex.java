@@ -0,0 +1,50 @@
+package tasktracker.manager;
+
+import tasktracker.models.Status;
+import tasktracker.models.Task;
+import tasktracker.models.TaskType;
+
+// Индекс статусов для многопоточного менеджера: смены статуса в разных эпиках идут параллельно
+// под блокировкой чтения, поэтому сам индекс защищён своим монитором
+public class SynchronizedStatusIndex extends StatusIndex {
+
+    @Override
+    public synchronized void put(Task task) {
+        super.put(task);
+    }
+
+    @Override
+    public synchronized void remove(int id) {
+        super.remove(id);
+    }
+
+    @Override
+    public synchronized void clear(TaskType type) {
+        super.clear(type);
+    }
+
+    @Override
+    public synchronized int count(TaskType type, Status status) {
+        return super.count(type, status);
+    }
+
+    @Override
+    public synchronized int count(Status status) {
+        return super.count(status);
+    }
+
+    @Override
+    public synchronized int count(TaskType type) {
+        return super.count(type);
+    }
+
+    @Override
+    public synchronized int[] ids(TaskType type, Status status) {
+        return super.ids(type, status);
+    }
+
+    @Override
+    public synchronized int[] ids(Status status) {
+        return super.ids(status);
+    }
+}
@@ -0,0 +1,473 @@
+package tasktracker.manager;
+
+import tasktracker.models.Task;
+import tasktracker.models.TaskType;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Журнал изменений: каждая мутация дописывается в конец файла одной строкой,
+// поэтому стоимость записи зависит от размера изменения, а не от размера доски.
+// Форматы записей:
+//   PUT,<строка CSVFormatter>  - задача создана или изменена
+//   DEL,<id>                   - задача удалена
+//   CLEAR,<TaskType>           - удалены все задачи данного типа
+// В режимах BATCH и ASYNC записи ставятся в очередь, а фоновый поток объединяет их
+// в одну запись на диск раз в flushIntervalMillis или при накоплении batchSize записей.
+public class TaskJournal implements Closeable {
+
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 10;
+
+    public enum Operation {
+        PUT,
+        DEL,
+        CLEAR
+    }
+
+    public static class JournalRecord {
+        private final Operation operation;
+        private final Task task;
+        private final int id;
+        private final TaskType type;
+
+        private JournalRecord(Operation operation, Task task, int id, TaskType type) {
+            this.operation = operation;
+            this.task = task;
+            this.id = id;
+            this.type = type;
+        }
+
+        public Operation getOperation() {
+            return operation;
+        }
+
+        public Task getTask() {
+            return task;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public TaskType getType() {
+            return type;
+        }
+    }
+
+    private final File file;
+    private final DurabilityPolicy policy;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+
+    // Защищает writer: запись фонового потока и пересоздание файла
+    private final Object ioLock = new Object();
+    private FileOutputStream output;
+    private BufferedWriter writer;
+    private final StringBuilder recordBuilder = new StringBuilder(128);
+    // Группа записей в режиме SYNC: строки пишутся сразу, а fsync выполняется один раз в flush()
+    private boolean grouped;
+
+    // Размер журнала для решения о компакции, обновляется в потоке вызова
+    private long recordCount;
+    private long byteCount;
+
+    // Защищает очередь и счётчики групповой записи
+    private final Object queueLock = new Object();
+    private List<String> pending = new ArrayList<>();
+    private long appendedCount;
+    private long writtenCount;
+    private boolean flushRequested;
+    private boolean closed;
+    private IOException failure;
+    private final Thread flusher;
+
+    public TaskJournal(File file) {
+        this(file, DurabilityPolicy.SYNC, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL_MILLIS);
+    }
+
+    public TaskJournal(File file, DurabilityPolicy policy, int batchSize, long flushIntervalMillis) {
+        if (batchSize < 1 || flushIntervalMillis < 1) {
+            throw new IllegalArgumentException("Размер пачки и интервал сброса должны быть положительными");
+        }
+        this.file = file;
+        this.policy = policy;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        open(true);
+
+        if (policy == DurabilityPolicy.SYNC) {
+            flusher = null;
+        } else {
+            flusher = new Thread(this::runFlusher, "journal-flusher-" + file.getName());
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public DurabilityPolicy getPolicy() {
+        return policy;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    public void appendPut(Task task) {
+        if (task == null) return;
+
+        // Буфер строки переиспользуется: журнал пишется из одного потока менеджера
+        recordBuilder.setLength(0);
+        recordBuilder.append(Operation.PUT.name()).append(',');
+        try {
+            CsvCodec.appendRow(task, recordBuilder);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        append(recordBuilder.toString());
+    }
+
+    public void appendDelete(int id) {
+        append(Operation.DEL + "," + id);
+    }
+
+    public void appendClear(TaskType type) {
+        append(Operation.CLEAR + "," + type);
+    }
+
+    // Записи до следующего flush() синхронизируются с диском одним fsync (для пакетов менеджера).
+    // В режимах BATCH и ASYNC записи и так объединяет фоновый поток
+    public void beginGroup() {
+        if (flusher == null) {
+            grouped = true;
+        }
+    }
+
+    // Барьер: возвращает управление, когда все ранее добавленные записи записаны на диск
+    public void flush() {
+        if (flusher == null) {
+            if (grouped) {
+                grouped = false;
+                synchronized (ioLock) {
+                    try {
+                        writer.flush();
+                        output.getChannel().force(false);
+                    } catch (IOException exception) {
+                        throw new ManagerSaveException("Ошибка записи в журнал: " + file.getAbsolutePath(), exception);
+                    }
+                }
+            }
+            return;
+        }
+
+        synchronized (queueLock) {
+            long target = appendedCount;
+            flushRequested = true;
+            queueLock.notifyAll();
+            try {
+                while (writtenCount < target && failure == null) {
+                    queueLock.wait();
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new ManagerSaveException("Ожидание записи журнала прервано", exception);
+            }
+            throwIfFailed();
+        }
+    }
+
+    // Журнал больше не нужен после записи полного снимка
+    public void truncate() {
+        flush();
+        synchronized (ioLock) {
+            closeWriter();
+            open(false);
+        }
+    }
+
+    // Переносим накопленные записи в архивный файл и начинаем журнал заново.
+    // Если архив уже есть (прошлая компакция не завершилась), записи дописываются в его конец
+    public void rotate(File archive) {
+        flush();
+        synchronized (ioLock) {
+            closeWriter();
+            try {
+                if (archive.exists()) {
+                    dropTornTail(archive);
+                    try (FileOutputStream archiveOutput = new FileOutputStream(archive, true)) {
+                        Files.copy(file.toPath(), archiveOutput);
+                        archiveOutput.getChannel().force(false);
+                    }
+                } else {
+                    Files.move(file.toPath(), archive.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (IOException exception) {
+                open(true);
+                throw new ManagerSaveException("Не удалось перенести журнал в архив: " + archive.getAbsolutePath(),
+                        exception);
+            }
+            open(false);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flush();
+            synchronized (queueLock) {
+                closed = true;
+                queueLock.notifyAll();
+            }
+            try {
+                flusher.join();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (ioLock) {
+            closeWriter();
+        }
+    }
+
+    // Проигрываем журнал по порядку. Запись завершена, только если за ней есть перевод строки:
+    // последняя строка без него (сбой во время записи) пропускается, даже если она разбирается -
+    // обрезанная запись может выглядеть корректной, но нести чужой ID или потерять поля
+    public static void replay(File file, Consumer<JournalRecord> consumer) {
+        if (!file.exists()) return;
+
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            boolean torn = completeLength(file) < file.length();
+            CsvCodec.RowCursor cursor = new CsvCodec.RowCursor();
+            String line = reader.readLine();
+            while (line != null) {
+                String next = reader.readLine();
+                if (next == null && torn) return;
+                if (!line.isBlank()) {
+                    JournalRecord record;
+                    try {
+                        record = parse(line, cursor);
+                    } catch (IllegalArgumentException exception) {
+                        throw new ManagerSaveException("Повреждена запись журнала: " + line, exception);
+                    }
+                    consumer.accept(record);
+                }
+                line = next;
+            }
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Ошибка чтения журнала: " + file.getAbsolutePath(), exception);
+        }
+    }
+
+    // Длина файла до конца последней завершённой строки
+    private static long completeLength(File file) throws IOException {
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            byte[] block = new byte[4096];
+            long position = input.length();
+            while (position > 0) {
+                int length = (int) Math.min(block.length, position);
+                input.seek(position - length);
+                input.readFully(block, 0, length);
+                for (int i = length - 1; i >= 0; i--) {
+                    if (block[i] == '\n' || block[i] == '\r') {
+                        return position - length + i + 1;
+                    }
+                }
+                position -= length;
+            }
+            return 0;
+        }
+    }
+
+    // Число строк в первых length байтах файла
+    private static long countLines(File file, long length) throws IOException {
+        long lines = 0;
+        try (InputStream input = new FileInputStream(file)) {
+            byte[] block = new byte[1 << 16];
+            long remaining = length;
+            while (remaining > 0) {
+                int read = input.read(block, 0, (int) Math.min(block.length, remaining));
+                if (read < 0) break;
+                for (int i = 0; i < read; i++) {
+                    if (block[i] == '\n') lines++;
+                }
+                remaining -= read;
+            }
+        }
+        return lines;
+    }
+
+    // Отрезает недописанную последнюю строку, чтобы новые записи не склеились с ней
+    private static long dropTornTail(File file) throws IOException {
+        long complete = completeLength(file);
+        if (complete < file.length()) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(complete);
+                channel.force(false);
+            }
+        }
+        return complete;
+    }
+
+    private static JournalRecord parse(String line, CsvCodec.RowCursor cursor) {
+        int comma = line.indexOf(',');
+        if (comma < 0) {
+            throw new IllegalArgumentException(String.format("Некорректная запись журнала: '%s'", line));
+        }
+        Operation operation = Operation.valueOf(line.substring(0, comma));
+        if (operation == Operation.PUT) {
+            return new JournalRecord(operation, cursor.reset(line, comma + 1).toTask(), 0, null);
+        }
+        String payload = line.substring(comma + 1);
+
+        switch (operation) {
+            case DEL:
+                return new JournalRecord(operation, null, Integer.parseInt(payload), null);
+            case CLEAR:
+                return new JournalRecord(operation, null, 0, TaskType.valueOf(payload));
+            default:
+                throw new IllegalArgumentException(String.format("Неизвестная операция журнала: '%s'", operation));
+        }
+    }
+
+    private void append(String record) {
+        recordCount++;
+        // Считаем байты UTF-8, а не символы: порог сжатия задан в байтах файла
+        byteCount += FileBackedTaskManager.utf8Length(record) + System.lineSeparator().length();
+
+        if (flusher == null) {
+            synchronized (ioLock) {
+                try {
+                    writer.write(record);
+                    writer.newLine();
+                    if (!grouped) {
+                        writer.flush();
+                        output.getChannel().force(false);
+                    }
+                } catch (IOException exception) {
+                    throw new ManagerSaveException("Ошибка записи в журнал: " + file.getAbsolutePath(), exception);
+                }
+            }
+            return;
+        }
+
+        synchronized (queueLock) {
+            throwIfFailed();
+            if (closed) {
+                throw new IllegalStateException("Журнал закрыт: " + file.getAbsolutePath());
+            }
+            pending.add(record);
+            appendedCount++;
+            if (pending.size() >= batchSize) {
+                queueLock.notifyAll();
+            }
+        }
+    }
+
+    // Фоновый поток: ждём пачку или истечения интервала и пишем всё накопленное одним сбросом
+    private void runFlusher() {
+        while (true) {
+            List<String> batch;
+            long target;
+            synchronized (queueLock) {
+                try {
+                    while (!closed && pending.isEmpty()) {
+                        queueLock.wait();
+                    }
+                    long deadline = System.currentTimeMillis() + flushIntervalMillis;
+                    long remaining = flushIntervalMillis;
+                    while (!closed && !flushRequested && pending.size() < batchSize && remaining > 0) {
+                        queueLock.wait(remaining);
+                        remaining = deadline - System.currentTimeMillis();
+                    }
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (closed && pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new ArrayList<>();
+                target = appendedCount;
+                flushRequested = false;
+            }
+
+            IOException error = null;
+            synchronized (ioLock) {
+                try {
+                    for (String record : batch) {
+                        writer.write(record);
+                        writer.newLine();
+                    }
+                    writer.flush();
+                    if (policy == DurabilityPolicy.BATCH) {
+                        output.getChannel().force(false);
+                    }
+                } catch (IOException exception) {
+                    error = exception;
+                }
+            }
+
+            synchronized (queueLock) {
+                if (error != null) {
+                    failure = error;
+                } else {
+                    writtenCount = target;
+                }
+                queueLock.notifyAll();
+            }
+        }
+    }
+
+    private void throwIfFailed() {
+        if (failure != null) {
+            throw new ManagerSaveException("Ошибка записи в журнал: " + file.getAbsolutePath(), failure);
+        }
+    }
+
+    private void open(boolean append) {
+        try {
+            long existing = append && file.exists() ? dropTornTail(file) : 0;
+            output = new FileOutputStream(file, append);
+            writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            // После перезапуска оба порога компакции учитывают записи, уже лежащие в журнале
+            recordCount = existing > 0 ? countLines(file, existing) : 0;
+            byteCount = existing;
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Не удалось открыть журнал: " + file.getAbsolutePath(), exception);
+        }
+    }
+
+    private void closeWriter() {
+        try {
+            writer.close();
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Ошибка закрытия журнала: " + file.getAbsolutePath(), exception);
+        }
+    }
+}
@@ -4,9 +4,15 @@ import tasktracker.models.Epic;
 import tasktracker.models.Status;
 import tasktracker.models.Subtask;
 import tasktracker.models.Task;
+import tasktracker.models.TaskType;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.SortedSet;
+import java.util.function.Consumer;
 
 public interface TaskManager {
 
@@ -24,6 +30,55 @@ public interface TaskManager {
 
     ArrayList<Subtask> getEpicSubtasks(int epicId);
 
+    // Представления только для чтения без копирования. Поведение при изменениях зависит от реализации:
+    // InMemoryTaskManager отдаёт живые представления, изменение менеджера во время обхода даёт
+    // ConcurrentModificationException; SnapshotTaskManager - версию доски на момент вызова;
+    // ConcurrentTaskManager и EventLoopTaskManager - копию, обход без копирования у них через forEach*
+    Collection<Task> getTasksView();
+
+    Collection<Epic> getEpicsView();
+
+    Collection<Subtask> getSubtasksView();
+
+    // Для несуществующего эпика - пустой список
+    List<Subtask> getEpicSubtasksView(int epicId);
+
+    SortedSet<Task> getPrioritizedTasksView();
+
+    // Обход без копирования. Реализации для нескольких потоков держат согласованное состояние на время
+    // всего обхода (блокировка чтения, поток-исполнитель), поэтому visitor должен быть коротким
+    // и не должен менять менеджер
+    default void forEachTask(Consumer<? super Task> visitor) {
+        getTasksView().forEach(visitor);
+    }
+
+    default void forEachEpic(Consumer<? super Epic> visitor) {
+        getEpicsView().forEach(visitor);
+    }
+
+    default void forEachSubtask(Consumer<? super Subtask> visitor) {
+        getSubtasksView().forEach(visitor);
+    }
+
+    default void forEachPrioritized(Consumer<? super Task> visitor) {
+        getPrioritizedTasksView().forEach(visitor);
+    }
+
+    // Запросы по индексу статусов: стоимость пропорциональна ответу, а не числу задач. Результат - копия по ID
+    List<Task> findByStatus(Status status);
+
+    List<Task> findByStatus(TaskType type, Status status);
+
+    // Счётчики без обхода задач
+    int countByStatus(Status status);
+
+    int countByStatus(TaskType type, Status status);
+
+    int countByType(TaskType type);
+
+    // Число подзадач эпика с заданным статусом, 0 для несуществующего эпика
+    int countEpicSubtasks(int epicId, Status status);
+
     void deleteAllTasks();
 
     void deleteAllEpics();
@@ -36,6 +91,9 @@ public interface TaskManager {
 
     Subtask getSubtaskById(int id);
 
+    // Задача любого типа по ID
+    Task getById(int id);
+
     void updateTask(Task task);
 
     void updateEpic(Epic epic);
@@ -55,4 +113,25 @@ public interface TaskManager {
     List<Task> getHistory();
 
     List<Task> getPrioritizedTasks();
+
+    // Задачи с началом в [from, to): живое представление только для чтения, без копирования
+    SortedSet<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to);
+
+    // Ближайшие limit задач, начинающихся не раньше текущего момента
+    List<Task> getNextTasks(int limit);
+
+    List<Task> getNextTasks(LocalDateTime from, int limit);
+
+    // Самое раннее начало свободного окна заданной длины, не раньше текущего момента
+    LocalDateTime findEarliestFreeSlot(Duration duration);
+
+    // Окно ищется внутри [from, to), to == null - без ограничения. Если окна нет, возвращается null
+    LocalDateTime findEarliestFreeSlot(Duration duration, LocalDateTime from, LocalDateTime to);
+
+    // Расставляет задачи без времени по свободным окнам в [from, to) и создаёт их.
+    // Возвращает размещённые задачи, не поместившиеся не создаются
+    List<Task> autoSchedule(List<? extends Task> unscheduled, LocalDateTime from, LocalDateTime to);
+
+    // Пакет изменений: эпики пересчитываются один раз, запись на диск выполняется один раз в конце
+    List<BatchOperationResult> applyBatch(List<BatchOperation> operations);
 }
\ No newline at end of file
@@ -0,0 +1,239 @@
+package tasktracker.manager;
+
+import tasktracker.models.Task;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Календарная сетка занятых слотов: на каждый день с задачами хранится битовая маска слотов
+// заданной длины, пустые дни не хранятся. Проверка пересечения сводится к AND масок по словам.
+// Если в слоте несколько задач (например, после импорта с конфликтами), лишние учитываются в overflow.
+// Сетка отвечает точно только для задач, выровненных по слотам; для остальных менеджер использует
+// индекс интервалов. Задача нулевой длины строго внутри слота занимает этот слот: по правилу
+// start1 < end2 && start2 < end1 она пересекается с любой выровненной задачей, накрывающей слот.
+// Задача нулевой длины на границе слота в сетку не ложится и считается невыровненной
+public class TimeSlotIndex {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final int slotMinutes;
+    private final int slotsPerDay;
+    private final int wordsPerDay;
+
+    private final Map<Long, long[]> days = new HashMap<>();
+    private final Map<Long, Integer> overflow = new HashMap<>();
+    // Занятые слоты задачи: первый глобальный слот и число слотов
+    private final Map<Integer, long[]> ranges = new HashMap<>();
+    // Задачи со временем, которые не легли на сетку
+    private final Set<Integer> unaligned = new HashSet<>();
+
+    public TimeSlotIndex(int slotMinutes) {
+        if (slotMinutes <= 0 || MINUTES_PER_DAY % slotMinutes != 0) {
+            throw new IllegalArgumentException("Длина слота должна делить сутки нацело: " + slotMinutes);
+        }
+        this.slotMinutes = slotMinutes;
+        this.slotsPerDay = MINUTES_PER_DAY / slotMinutes;
+        this.wordsPerDay = (slotsPerDay + 63) / 64;
+    }
+
+    public int getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    // Начало на границе слота и положительная длительность, кратная слоту
+    public boolean isAligned(Task task) {
+        LocalDateTime start = task.getStartTime();
+        Duration duration = task.getDuration();
+        if (start == null || duration == null || duration.isZero() || duration.isNegative()) {
+            return false;
+        }
+        return isSlotBoundary(start)
+                && duration.getSeconds() % (slotMinutes * 60L) == 0 && duration.getNano() == 0;
+    }
+
+    // Сетка отвечает за задачу, только если все задачи со временем лежат на сетке
+    public boolean covers(Task task) {
+        return unaligned.isEmpty() && isAligned(task);
+    }
+
+    public int getUnalignedCount() {
+        return unaligned.size();
+    }
+
+    public void add(Task task) {
+        if (task == null || task.getStartTime() == null || task.getDuration() == null) {
+            return;
+        }
+        remove(task.getId());
+        long first = slotOf(task.getStartTime());
+        long count;
+        if (task.getDuration().isZero() && !isSlotBoundary(task.getStartTime())) {
+            count = 1;
+        } else if (isAligned(task)) {
+            count = task.getDuration().toMinutes() / slotMinutes;
+        } else {
+            unaligned.add(task.getId());
+            return;
+        }
+
+        ranges.put(task.getId(), new long[]{first, count});
+        for (long slot = first; slot < first + count; slot++) {
+            long[] words = days.computeIfAbsent(Math.floorDiv(slot, slotsPerDay), day -> new long[wordsPerDay]);
+            int inDay = Math.floorMod(slot, slotsPerDay);
+            long bit = 1L << (inDay & 63);
+            if ((words[inDay >>> 6] & bit) != 0) {
+                overflow.merge(slot, 1, Integer::sum);
+            } else {
+                words[inDay >>> 6] |= bit;
+            }
+        }
+    }
+
+    public void remove(int id) {
+        unaligned.remove(id);
+        long[] range = ranges.remove(id);
+        if (range == null) return;
+
+        for (long slot = range[0]; slot < range[0] + range[1]; slot++) {
+            Integer extra = overflow.get(slot);
+            if (extra != null) {
+                if (extra == 1) {
+                    overflow.remove(slot);
+                } else {
+                    overflow.put(slot, extra - 1);
+                }
+                continue;
+            }
+            long day = Math.floorDiv(slot, slotsPerDay);
+            long[] words = days.get(day);
+            int inDay = Math.floorMod(slot, slotsPerDay);
+            words[inDay >>> 6] &= ~(1L << (inDay & 63));
+            if (isEmpty(words)) {
+                days.remove(day);
+            }
+        }
+    }
+
+    public void clear() {
+        days.clear();
+        overflow.clear();
+        ranges.clear();
+        unaligned.clear();
+    }
+
+    // Есть ли в слотах задачи чужие задачи. Слоты самой задачи (при обновлении) считаются занятыми,
+    // только если в них лежит ещё кто-то
+    public boolean hasConflict(Task task) {
+        return scan(task, null);
+    }
+
+    // Начала слотов, в которых задача пересекается с другими
+    public List<LocalDateTime> findConflicts(Task task) {
+        List<LocalDateTime> conflicts = new ArrayList<>();
+        scan(task, conflicts);
+        return conflicts;
+    }
+
+    private boolean scan(Task task, List<LocalDateTime> conflicts) {
+        if (!isAligned(task)) {
+            throw new IllegalArgumentException("Задача не выровнена по сетке в " + slotMinutes + " мин.: " + task.getId());
+        }
+        long first = slotOf(task.getStartTime());
+        long last = first + task.getDuration().toMinutes() / slotMinutes; // не включая
+        long[] own = ranges.get(task.getId());
+        long ownFirst = own != null ? own[0] : 0;
+        long ownLast = own != null ? own[0] + own[1] : 0;
+        boolean found = false;
+
+        long slot = first;
+        while (slot < last) {
+            long day = Math.floorDiv(slot, slotsPerDay);
+            long dayStart = day * slotsPerDay;
+            long dayEnd = Math.min(last, dayStart + slotsPerDay);
+            long[] words = days.get(day);
+            if (words == null) {
+                slot = dayEnd;
+                continue;
+            }
+
+            // Идём по словам маски дня: в каждом слове берём биты запрошенного отрезка без собственных слотов
+            while (slot < dayEnd) {
+                int inDay = (int) (slot - dayStart);
+                int word = inDay >>> 6;
+                int wordEnd = Math.min((word + 1) << 6, (int) (dayEnd - dayStart));
+                long mask = rangeMask(inDay & 63, wordEnd - (word << 6));
+                long ownMask = ownMask(ownFirst - dayStart, ownLast - dayStart, word);
+                long hits = words[word] & mask & ~ownMask;
+                // В собственных слотах конфликт есть, только если слот занят ещё кем-то
+                long ownHits = words[word] & mask & ownMask;
+                while (ownHits != 0) {
+                    int bit = Long.numberOfTrailingZeros(ownHits);
+                    ownHits &= ownHits - 1;
+                    if (overflow.containsKey(dayStart + (word << 6) + bit)) {
+                        hits |= 1L << bit;
+                    }
+                }
+
+                if (hits != 0) {
+                    if (conflicts == null) {
+                        return true;
+                    }
+                    found = true;
+                    while (hits != 0) {
+                        int bit = Long.numberOfTrailingZeros(hits);
+                        hits &= hits - 1;
+                        conflicts.add(slotStart(dayStart + (word << 6) + bit));
+                    }
+                }
+                slot = dayStart + wordEnd;
+            }
+        }
+        return found;
+    }
+
+    // Биты [from, to) внутри одного 64-битного слова
+    private static long rangeMask(int from, int to) {
+        long upTo = to == 64 ? -1L : (1L << to) - 1;
+        return upTo & (-1L << from);
+    }
+
+    // Биты собственного отрезка задачи [from, to) (в слотах от начала дня) внутри слова word
+    private static long ownMask(long from, long to, int word) {
+        long wordStart = (long) word << 6;
+        long start = Math.max(from, wordStart);
+        long end = Math.min(to, wordStart + 64);
+        if (start >= end) {
+            return 0;
+        }
+        return rangeMask((int) (start - wordStart), (int) (end - wordStart));
+    }
+
+    private boolean isSlotBoundary(LocalDateTime moment) {
+        int minuteOfDay = moment.getHour() * 60 + moment.getMinute();
+        return moment.getSecond() == 0 && moment.getNano() == 0 && minuteOfDay % slotMinutes == 0;
+    }
+
+    private long slotOf(LocalDateTime moment) {
+        int minuteOfDay = moment.getHour() * 60 + moment.getMinute();
+        return moment.toLocalDate().toEpochDay() * slotsPerDay + minuteOfDay / slotMinutes;
+    }
+
+    private LocalDateTime slotStart(long slot) {
+        LocalDate day = LocalDate.ofEpochDay(Math.floorDiv(slot, slotsPerDay));
+        return day.atStartOfDay().plusMinutes(Math.floorMod(slot, slotsPerDay) * (long) slotMinutes);
+    }
+
+    private static boolean isEmpty(long[] words) {
+        for (long word : words) {
+            if (word != 0) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,183 @@
+package tasktracker.manager;
+
+import tasktracker.models.Task;
+import tasktracker.models.TaskType;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+// Задачи одного типа: массив объектов, слот каждой задачи хранится в общем IdRegistry.
+// Удалённый слот остаётся дырой (null), дыры убираются сдвигом, когда их больше половины, поэтому
+// порядок обхода - порядок добавления и после удалений. Интерфейс повторяет используемую часть Map,
+// чтобы менеджеры работали как с картой
+public class TypedTaskStore<T extends Task> {
+
+    private final IdRegistry registry;
+    private final TaskType type;
+    private Object[] items = new Object[16];
+    private int[] ids = new int[16];
+    // Число задач
+    private int size;
+    // Граница занятых слотов: задачи и дыры лежат в [0, end)
+    private int end;
+    private int modCount;
+
+    TypedTaskStore(IdRegistry registry, TaskType type) {
+        this.registry = registry;
+        this.type = type;
+    }
+
+    public TaskType getType() {
+        return type;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public T get(int id) {
+        int slot = registry.slotOf(id, type);
+        return slot >= 0 ? itemAt(slot) : null;
+    }
+
+    public boolean containsKey(int id) {
+        return registry.slotOf(id, type) >= 0;
+    }
+
+    // Заменяет задачу с тем же ID; если ID занят задачей другого типа - IllegalStateException
+    public T put(int id, T item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Задача не может быть null");
+        }
+        int slot = registry.slotOf(id, type);
+        if (slot >= 0) {
+            T previous = itemAt(slot);
+            items[slot] = item;
+            return previous;
+        }
+        if (end == items.length) {
+            if ((end - size) * 2 >= end) {
+                compact();
+            } else {
+                items = Arrays.copyOf(items, end * 2);
+                ids = Arrays.copyOf(ids, end * 2);
+            }
+        }
+        registry.bind(id, type, end);
+        items[end] = item;
+        ids[end] = id;
+        end++;
+        size++;
+        modCount++;
+        return null;
+    }
+
+    public T remove(int id) {
+        int slot = registry.slotOf(id, type);
+        if (slot < 0) {
+            return null;
+        }
+        T previous = itemAt(slot);
+        registry.unbind(id);
+        items[slot] = null;
+        size--;
+        modCount++;
+        while (end > 0 && items[end - 1] == null) {
+            end--;
+        }
+        if (end - size > 16 && (end - size) * 2 > end) {
+            compact();
+        }
+        return previous;
+    }
+
+    public void clear() {
+        for (int i = 0; i < end; i++) {
+            if (items[i] != null) {
+                registry.unbind(ids[i]);
+            }
+        }
+        Arrays.fill(items, 0, end, null);
+        size = 0;
+        end = 0;
+        modCount++;
+    }
+
+    public void forEachKey(IntConsumer action) {
+        int expectedModCount = modCount;
+        for (int i = 0; i < end; i++) {
+            if (items[i] == null) continue;
+            action.accept(ids[i]);
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    // Живое представление задач, как Map.values(); удалять через него нельзя
+    public Collection<T> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<T> iterator() {
+                return new Iterator<>() {
+                    private final int expectedModCount = modCount;
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        while (next < end && items[next] == null) {
+                            next++;
+                        }
+                        return next < end;
+                    }
+
+                    @Override
+                    public T next() {
+                        if (modCount != expectedModCount) {
+                            throw new ConcurrentModificationException();
+                        }
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        return itemAt(next++);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    // Сдвигает задачи к началу с сохранением порядка и обновляет их слоты в реестре
+    private void compact() {
+        int to = 0;
+        for (int from = 0; from < end; from++) {
+            if (items[from] == null) continue;
+            if (from != to) {
+                items[to] = items[from];
+                ids[to] = ids[from];
+                registry.bind(ids[to], type, to);
+            }
+            to++;
+        }
+        Arrays.fill(items, to, end, null);
+        end = to;
+    }
+
+    @SuppressWarnings("unchecked")
+    T itemAt(int slot) {
+        return (T) items[slot];
+    }
+}
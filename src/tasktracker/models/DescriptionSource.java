@@ -0,0 +1,6 @@
+package tasktracker.models;
+
+// Источник описания, которое хранится вне объекта задачи и читается при первом обращении
+public interface DescriptionSource {
+    String loadDescription(int taskId);
+}
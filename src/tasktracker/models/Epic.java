@@ -1,19 +1,20 @@
 package tasktracker.models;
 
+import tasktracker.util.IntList;
+
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 
 public class Epic extends Task {
-    private final ArrayList<Integer> subtaskIds;
+    private final IntList subtaskIds;
     private LocalDateTime endTime;
 
     public Epic(String title, String description) {
         super(title, description);
-        this.subtaskIds = new ArrayList<>();
+        this.subtaskIds = new IntList();
     }
 
-    public ArrayList<Integer> getSubtaskIds() {
+    public IntList getSubtaskIds() {
         return subtaskIds;
     }
 
@@ -22,7 +23,7 @@ public class Epic extends Task {
             System.out.println("Эпик не может быть подзадачей самого себя");
             return;
         }
-        subtaskIds.add(subtaskId);
+        subtaskIds.addInt(subtaskId);
     }
 
     @Override
@@ -8,9 +8,11 @@ public class Task {
     private int id;
     private String title;
     private String description;
-    private Status status;
+    // volatile: ConcurrentTaskManager меняет статус без блокировки записи
+    private volatile Status status;
     private Duration duration;
     private LocalDateTime startTime;
+    private DescriptionSource descriptionSource;
 
     public Task(String title, String description) {
         this.title = title;
@@ -34,9 +36,22 @@ public class Task {
     }
 
     public String getDescription() {
+        if (description == null && descriptionSource != null) {
+            return descriptionSource.loadDescription(id);
+        }
         return description;
     }
 
+    // Описание не держится в памяти, а читается из источника при каждом обращении
+    public void setDescriptionSource(DescriptionSource descriptionSource) {
+        this.descriptionSource = descriptionSource;
+        this.description = null;
+    }
+
+    public boolean isDescriptionLoaded() {
+        return descriptionSource == null;
+    }
+
     public Status getStatus() {
         return status;
     }
@@ -48,7 +63,7 @@ public class Task {
     @Override
     public String toString() {
         return String.format("Task{id=%d, title='%s', description='%s', status=%s, startTime=%s, duration=%s}",
-                id, title, description, status, startTime, duration);
+                id, title, getDescription(), status, startTime, duration);
     }
 
     public void setTitle(String title) {
@@ -57,6 +72,7 @@ public class Task {
 
     public void setDescription(String description) {
         this.description = description;
+        this.descriptionSource = null;
     }
 
     public Duration getDuration() {
@@ -0,0 +1,47 @@
+package tasktracker.util;
+
+// Множество int без упаковки, обход в порядке добавления, в том числе после удалений
+public class IntHashSet extends IntKeyTable {
+
+    public IntHashSet() {
+        this(16);
+    }
+
+    public IntHashSet(int expectedSize) {
+        super(expectedSize);
+    }
+
+    public boolean contains(int value) {
+        return indexOf(value) >= 0;
+    }
+
+    // true, если значения ещё не было
+    public boolean add(int value) {
+        if (indexOf(value) >= 0) {
+            return false;
+        }
+        append(value);
+        return true;
+    }
+
+    public boolean remove(int value) {
+        int position = indexOf(value);
+        if (position < 0) {
+            return false;
+        }
+        removeAt(position);
+        return true;
+    }
+
+    @Override
+    protected void growPayload(int capacity) {
+    }
+
+    @Override
+    protected void movePayload(int from, int to) {
+    }
+
+    @Override
+    protected void clearPayload() {
+    }
+}
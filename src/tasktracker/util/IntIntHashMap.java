@@ -0,0 +1,59 @@
+package tasktracker.util;
+
+import java.util.Arrays;
+
+// Отображение int -> int без упаковки, обход в порядке добавления, в том числе после удалений
+public class IntIntHashMap extends IntKeyTable {
+
+    private int[] values;
+
+    public IntIntHashMap() {
+        this(16);
+    }
+
+    public IntIntHashMap(int expectedSize) {
+        super(expectedSize);
+        values = new int[keys.length];
+    }
+
+    // Значение по ключу или missing, если ключа нет
+    public int get(int key, int missing) {
+        int position = indexOf(key);
+        return position >= 0 ? values[position] : missing;
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    public void put(int key, int value) {
+        int position = indexOf(key);
+        if (position < 0) {
+            position = append(key);
+        }
+        values[position] = value;
+    }
+
+    public boolean remove(int key) {
+        int position = indexOf(key);
+        if (position < 0) {
+            return false;
+        }
+        removeAt(position);
+        return true;
+    }
+
+    @Override
+    protected void growPayload(int capacity) {
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    protected void movePayload(int from, int to) {
+        values[to] = values[from];
+    }
+
+    @Override
+    protected void clearPayload() {
+    }
+}
@@ -0,0 +1,212 @@
+package tasktracker.util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Общая часть int-отображений и IntHashSet: ключи лежат в массиве keys в порядке добавления,
+// а хэш-таблица с открытой адресацией хранит для ключа его позицию + 1 (0 - пустая ячейка).
+// Удалённая позиция остаётся дырой (бит в dead), дыры убираются сдвигом, когда их становится
+// больше половины, поэтому порядок обхода - порядок добавления и после удалений
+abstract class IntKeyTable {
+
+    private static final int MIN_CAPACITY = 8;
+
+    protected int[] keys;
+    // Число живых ключей
+    protected int size;
+    // Граница занятых позиций: живые ключи и дыры лежат в [0, end)
+    protected int end;
+    protected int modCount;
+    private long[] dead;
+    private int[] table;
+    private int mask;
+
+    protected IntKeyTable(int expectedSize) {
+        int capacity = Math.max(MIN_CAPACITY, expectedSize);
+        keys = new int[capacity];
+        dead = new long[words(capacity)];
+        table = new int[tableSizeFor(capacity)];
+        mask = table.length - 1;
+    }
+
+    // Наследник расширяет свои массивы значений
+    protected abstract void growPayload(int capacity);
+
+    // Наследник переносит значение с позиции from на позицию to и очищает from (from == to - просто очистить)
+    protected abstract void movePayload(int from, int to);
+
+    // Наследник очищает значения в [0, end)
+    protected abstract void clearPayload();
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        clearPayload();
+        Arrays.fill(dead, 0);
+        size = 0;
+        end = 0;
+        modCount++;
+    }
+
+    public void forEachKey(IntConsumer action) {
+        int expectedModCount = modCount;
+        for (int i = 0; i < end; i++) {
+            if (isDead(i)) continue;
+            action.accept(keys[i]);
+            if (modCount != expectedModCount) {
+                throw new java.util.ConcurrentModificationException();
+            }
+        }
+    }
+
+    public int[] toKeyArray() {
+        if (end == size) {
+            return Arrays.copyOf(keys, size);
+        }
+        int[] result = new int[size];
+        int filled = 0;
+        for (int i = 0; i < end; i++) {
+            if (!isDead(i)) {
+                result[filled++] = keys[i];
+            }
+        }
+        return result;
+    }
+
+    // Позиция занята удалённым ключом
+    protected boolean isDead(int position) {
+        return (dead[position >>> 6] & (1L << position)) != 0;
+    }
+
+    // Позиция ключа в keys или -1
+    protected int indexOf(int key) {
+        int slot = hash(key) & mask;
+        while (true) {
+            int entry = table[slot];
+            if (entry == 0) return -1;
+            if (keys[entry - 1] == key) return entry - 1;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    // Добавляет ключ, которого ещё нет, и возвращает его позицию
+    protected int append(int key) {
+        if (end == keys.length) {
+            if ((end - size) * 2 >= end) {
+                compact();
+            } else {
+                int capacity = keys.length * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                dead = Arrays.copyOf(dead, words(capacity));
+                growPayload(capacity);
+            }
+        }
+        if ((size + 1) * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        int position = end++;
+        size++;
+        keys[position] = key;
+        place(key, position);
+        modCount++;
+        return position;
+    }
+
+    // Удаляет ключ с позиции position, оставляя на его месте дыру
+    protected void removeAt(int position) {
+        deleteSlot(slotOf(position));
+        movePayload(position, position);
+        dead[position >>> 6] |= 1L << position;
+        size--;
+        modCount++;
+
+        while (end > 0 && isDead(end - 1)) {
+            end--;
+            dead[end >>> 6] &= ~(1L << end);
+        }
+        if (end - size > MIN_CAPACITY && (end - size) * 2 > end) {
+            compact();
+        }
+    }
+
+    // Сдвигает живые ключи к началу с сохранением порядка и перестраивает таблицу
+    private void compact() {
+        int to = 0;
+        for (int from = 0; from < end; from++) {
+            if (isDead(from)) continue;
+            if (from != to) {
+                keys[to] = keys[from];
+                movePayload(from, to);
+            }
+            to++;
+        }
+        Arrays.fill(dead, 0);
+        end = to;
+        rehash(table.length);
+    }
+
+    private int slotOf(int position) {
+        int slot = hash(keys[position]) & mask;
+        while (table[slot] != position + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Удаление со сдвигом: элементы цепочки, которым пустая ячейка мешает найтись, переезжают на её место
+    private void deleteSlot(int slot) {
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (table[next] != 0) {
+            int ideal = hash(keys[table[next] - 1]) & mask;
+            boolean movable = hole <= next
+                    ? ideal <= hole || ideal > next
+                    : ideal <= hole && ideal > next;
+            if (movable) {
+                table[hole] = table[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[hole] = 0;
+    }
+
+    private void place(int key, int position) {
+        int slot = hash(key) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = position + 1;
+    }
+
+    private void rehash(int tableSize) {
+        table = new int[tableSize];
+        mask = tableSize - 1;
+        for (int i = 0; i < end; i++) {
+            if (!isDead(i)) {
+                place(keys[i], i);
+            }
+        }
+    }
+
+    private static int words(int capacity) {
+        return (capacity + 63) >>> 6;
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int size = Integer.highestOneBit(capacity * 2 - 1);
+        return Math.max(size * 2, MIN_CAPACITY * 2);
+    }
+}
@@ -0,0 +1,159 @@
+package tasktracker.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+import java.util.function.IntConsumer;
+
+// Список int на массиве примитивов. Реализует List<Integer>, чтобы его можно было сравнивать
+// с обычными списками и передавать туда, где ждут коллекцию; внутри код работает через методы *Int
+public class IntList extends AbstractList<Integer> implements RandomAccess {
+
+    private static final int[] EMPTY = new int[0];
+
+    private int[] data;
+    private int size;
+
+    public IntList() {
+        data = EMPTY;
+    }
+
+    public IntList(int capacity) {
+        data = capacity == 0 ? EMPTY : new int[capacity];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int getInt(int index) {
+        checkIndex(index);
+        return data[index];
+    }
+
+    @Override
+    public Integer get(int index) {
+        return getInt(index);
+    }
+
+    @Override
+    public Integer set(int index, Integer value) {
+        checkIndex(index);
+        int previous = data[index];
+        data[index] = value;
+        return previous;
+    }
+
+    public void addInt(int value) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, Math.max(4, size * 2));
+        }
+        data[size++] = value;
+        modCount++;
+    }
+
+    @Override
+    public boolean add(Integer value) {
+        addInt(value);
+        return true;
+    }
+
+    @Override
+    public void add(int index, Integer value) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Индекс " + index + ", размер " + size);
+        }
+        addInt(0);
+        System.arraycopy(data, index, data, index + 1, size - 1 - index);
+        data[index] = value;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Integer> values) {
+        if (values instanceof IntList other) {
+            if (other.size == 0) {
+                return false;
+            }
+            int[] source = other.data;
+            int count = other.size;
+            if (size + count > data.length) {
+                data = Arrays.copyOf(data, Math.max(size + count, size * 2));
+            }
+            System.arraycopy(source, 0, data, size, count);
+            size += count;
+            modCount++;
+            return true;
+        }
+        return super.addAll(values);
+    }
+
+    @Override
+    public Integer remove(int index) {
+        checkIndex(index);
+        int previous = data[index];
+        System.arraycopy(data, index + 1, data, index, size - index - 1);
+        size--;
+        modCount++;
+        return previous;
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        return value instanceof Integer number && removeInt(number);
+    }
+
+    // Удаляет первое вхождение значения
+    public boolean removeInt(int value) {
+        int index = indexOfInt(value);
+        if (index < 0) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    public int indexOfInt(int value) {
+        for (int i = 0; i < size; i++) {
+            if (data[i] == value) return i;
+        }
+        return -1;
+    }
+
+    public boolean containsInt(int value) {
+        return indexOfInt(value) >= 0;
+    }
+
+    @Override
+    public int indexOf(Object value) {
+        return value instanceof Integer number ? indexOfInt(number) : -1;
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return indexOf(value) >= 0;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        modCount++;
+    }
+
+    public void forEachInt(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(data[i]);
+        }
+    }
+
+    public int[] toIntArray() {
+        return Arrays.copyOf(data, size);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Индекс " + index + ", размер " + size);
+        }
+    }
+}
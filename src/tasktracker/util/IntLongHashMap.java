@@ -0,0 +1,59 @@
+package tasktracker.util;
+
+import java.util.Arrays;
+
+// Отображение int -> long без упаковки: 12 байт на запись против ~60 у HashMap<Integer, Long>
+public class IntLongHashMap extends IntKeyTable {
+
+    private long[] values;
+
+    public IntLongHashMap() {
+        this(16);
+    }
+
+    public IntLongHashMap(int expectedSize) {
+        super(expectedSize);
+        values = new long[keys.length];
+    }
+
+    // Значение по ключу или missing, если ключа нет
+    public long get(int key, long missing) {
+        int position = indexOf(key);
+        return position >= 0 ? values[position] : missing;
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    public void put(int key, long value) {
+        int position = indexOf(key);
+        if (position < 0) {
+            position = append(key);
+        }
+        values[position] = value;
+    }
+
+    public boolean remove(int key) {
+        int position = indexOf(key);
+        if (position < 0) {
+            return false;
+        }
+        removeAt(position);
+        return true;
+    }
+
+    @Override
+    protected void growPayload(int capacity) {
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    protected void movePayload(int from, int to) {
+        values[to] = values[from];
+    }
+
+    @Override
+    protected void clearPayload() {
+    }
+}
@@ -0,0 +1,126 @@
+package tasktracker.util;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+
+// Отображение int -> объект без упаковки ключей: вместо узла HashMap и объекта Integer на каждую
+// запись приходится int ключа, ссылка на значение и ячейка индекса.
+// Обход идёт в порядке добавления, в том числе после удалений
+public class IntObjectHashMap<V> extends IntKeyTable {
+
+    private Object[] values;
+
+    public IntObjectHashMap() {
+        this(16);
+    }
+
+    public IntObjectHashMap(int expectedSize) {
+        super(expectedSize);
+        values = new Object[keys.length];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int position = indexOf(key);
+        return position >= 0 ? (V) values[position] : null;
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        int position = indexOf(key);
+        if (position >= 0) {
+            V previous = (V) values[position];
+            values[position] = value;
+            return previous;
+        }
+        // append может заменить массив values, поэтому позицию получаем отдельно
+        int appended = append(key);
+        values[appended] = value;
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int position = indexOf(key);
+        if (position < 0) {
+            return null;
+        }
+        V previous = (V) values[position];
+        removeAt(position);
+        return previous;
+    }
+
+    public V computeIfAbsent(int key, IntFunction<? extends V> factory) {
+        V value = get(key);
+        if (value == null) {
+            value = factory.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    // Живое представление значений, как HashMap.values(); удалять через него нельзя
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    protected void growPayload(int capacity) {
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    protected void movePayload(int from, int to) {
+        values[to] = values[from];
+        values[from] = null;
+    }
+
+    @Override
+    protected void clearPayload() {
+        Arrays.fill(values, 0, end, null);
+    }
+
+    private class ValueIterator implements Iterator<V> {
+        private final int expectedModCount = modCount;
+        private int next;
+
+        @Override
+        public boolean hasNext() {
+            while (next < end && isDead(next)) {
+                next++;
+            }
+            return next < end;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return (V) values[next++];
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package tasktracker.util;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+
+// Неизменяемое отсортированное отображение на AVL-дереве. put и remove не меняют текущую версию,
+// а возвращают новую: копируется только путь от корня до изменённого узла (O(log n)),
+// остальные узлы у версий общие. Размеры поддеревьев дают размер любого диапазона за O(log n)
+public final class PersistentSortedMap<K, V> {
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final Node<K, V> left;
+        final Node<K, V> right;
+        final int height;
+        final int size;
+
+        Node(K key, V value, Node<K, V> left, Node<K, V> right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+
+    private final Comparator<? super K> comparator;
+    private final Node<K, V> root;
+
+    private PersistentSortedMap(Comparator<? super K> comparator, Node<K, V> root) {
+        this.comparator = comparator;
+        this.root = root;
+    }
+
+    public static <K, V> PersistentSortedMap<K, V> empty(Comparator<? super K> comparator) {
+        return new PersistentSortedMap<>(comparator, null);
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public V get(K key) {
+        Node<K, V> node = root;
+        while (node != null) {
+            int compared = comparator.compare(key, node.key);
+            if (compared == 0) return node.value;
+            node = compared < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    public PersistentSortedMap<K, V> put(K key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Значение не может быть null");
+        }
+        return new PersistentSortedMap<>(comparator, insert(root, key, value));
+    }
+
+    public PersistentSortedMap<K, V> remove(K key) {
+        if (!containsKey(key)) {
+            return this;
+        }
+        return new PersistentSortedMap<>(comparator, delete(root, key));
+    }
+
+    // Значения в порядке ключей: представление этой версии, обход без копирования
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new RangeIterator<>(PersistentSortedMap.this, null, null, false);
+            }
+
+            @Override
+            public int size() {
+                return PersistentSortedMap.this.size();
+            }
+        };
+    }
+
+    // Ключи из [from, to) этой версии; null - граница не задана
+    public SortedSet<K> keySet(K from, K to) {
+        return new KeyRange<>(this, from, to);
+    }
+
+    private Node<K, V> insert(Node<K, V> node, K key, V value) {
+        if (node == null) {
+            return new Node<>(key, value, null, null);
+        }
+        int compared = comparator.compare(key, node.key);
+        if (compared == 0) {
+            return new Node<>(key, value, node.left, node.right);
+        }
+        if (compared < 0) {
+            return balance(node.key, node.value, insert(node.left, key, value), node.right);
+        }
+        return balance(node.key, node.value, node.left, insert(node.right, key, value));
+    }
+
+    private Node<K, V> delete(Node<K, V> node, K key) {
+        int compared = comparator.compare(key, node.key);
+        if (compared < 0) {
+            return balance(node.key, node.value, delete(node.left, key), node.right);
+        }
+        if (compared > 0) {
+            return balance(node.key, node.value, node.left, delete(node.right, key));
+        }
+        if (node.left == null) return node.right;
+        if (node.right == null) return node.left;
+
+        Node<K, V> successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.key, successor.value, node.left, delete(node.right, successor.key));
+    }
+
+    private static <K, V> Node<K, V> balance(K key, V value, Node<K, V> left, Node<K, V> right) {
+        int diff = height(left) - height(right);
+        if (diff > 1) {
+            if (height(left.left) < height(left.right)) {
+                left = rotateLeft(left.key, left.value, left.left, left.right);
+            }
+            return rotateRight(key, value, left, right);
+        }
+        if (diff < -1) {
+            if (height(right.right) < height(right.left)) {
+                right = rotateRight(right.key, right.value, right.left, right.right);
+            }
+            return rotateLeft(key, value, left, right);
+        }
+        return new Node<>(key, value, left, right);
+    }
+
+    private static <K, V> Node<K, V> rotateRight(K key, V value, Node<K, V> left, Node<K, V> right) {
+        return new Node<>(left.key, left.value, left.left, new Node<>(key, value, left.right, right));
+    }
+
+    private static <K, V> Node<K, V> rotateLeft(K key, V value, Node<K, V> left, Node<K, V> right) {
+        return new Node<>(right.key, right.value, new Node<>(key, value, left, right.left), right.right);
+    }
+
+    // Число ключей меньше key
+    private int rank(K key) {
+        int rank = 0;
+        Node<K, V> node = root;
+        while (node != null) {
+            if (comparator.compare(key, node.key) <= 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    private static int height(Node<?, ?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Node<?, ?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    // In-order обход [from, to) со стеком пути: старт за O(log n), шаг в среднем O(1)
+    private static final class RangeIterator<K, V, E> implements Iterator<E> {
+        private final Comparator<? super K> comparator;
+        private final K to;
+        private final boolean keys;
+        private final Deque<Node<K, V>> stack = new ArrayDeque<>();
+
+        RangeIterator(PersistentSortedMap<K, V> map, K from, K to, boolean keys) {
+            this.comparator = map.comparator;
+            this.to = to;
+            this.keys = keys;
+            Node<K, V> node = map.root;
+            while (node != null) {
+                if (from == null || comparator.compare(node.key, from) >= 0) {
+                    stack.push(node);
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty() && (to == null || comparator.compare(stack.peek().key, to) < 0);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Node<K, V> node = stack.pop();
+            Node<K, V> child = node.right;
+            while (child != null) {
+                stack.push(child);
+                child = child.left;
+            }
+            return (E) (keys ? node.key : node.value);
+        }
+    }
+
+    private static final class KeyRange<K> extends AbstractSet<K> implements SortedSet<K> {
+        private final PersistentSortedMap<K, ?> map;
+        private final K from;
+        private final K to;
+
+        KeyRange(PersistentSortedMap<K, ?> map, K from, K to) {
+            this.map = map;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            return new RangeIterator<>(map, from, to, true);
+        }
+
+        @Override
+        public int size() {
+            int upper = to == null ? map.size() : map.rank(to);
+            int lower = from == null ? 0 : map.rank(from);
+            return Math.max(0, upper - lower);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean contains(Object o) {
+            K key = (K) o;
+            return inRange(key) && map.containsKey(key);
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return map.comparator;
+        }
+
+        @Override
+        public SortedSet<K> subSet(K fromElement, K toElement) {
+            return new KeyRange<>(map, later(from, fromElement), earlier(to, toElement));
+        }
+
+        @Override
+        public SortedSet<K> headSet(K toElement) {
+            return new KeyRange<>(map, from, earlier(to, toElement));
+        }
+
+        @Override
+        public SortedSet<K> tailSet(K fromElement) {
+            return new KeyRange<>(map, later(from, fromElement), to);
+        }
+
+        @Override
+        public K first() {
+            Iterator<K> iterator = iterator();
+            if (!iterator.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return iterator.next();
+        }
+
+        @Override
+        public K last() {
+            K last = null;
+            Node<K, ?> node = map.root;
+            while (node != null) {
+                if (to != null && map.comparator.compare(node.key, to) >= 0) {
+                    node = node.left;
+                } else {
+                    last = node.key;
+                    node = node.right;
+                }
+            }
+            if (last == null || !inRange(last)) {
+                throw new NoSuchElementException();
+            }
+            return last;
+        }
+
+        private boolean inRange(K key) {
+            return (from == null || map.comparator.compare(key, from) >= 0)
+                    && (to == null || map.comparator.compare(key, to) < 0);
+        }
+
+        private K later(K a, K b) {
+            if (a == null) return b;
+            return map.comparator.compare(a, b) >= 0 ? a : b;
+        }
+
+        private K earlier(K a, K b) {
+            if (a == null) return b;
+            return map.comparator.compare(a, b) <= 0 ? a : b;
+        }
+    }
+}
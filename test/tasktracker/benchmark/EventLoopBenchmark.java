@@ -0,0 +1,106 @@
+package tasktracker.benchmark;
+
+import tasktracker.manager.DurabilityPolicy;
+import tasktracker.manager.EventLoopTaskManager;
+import tasktracker.manager.FileBackedTaskManager;
+import tasktracker.manager.InMemoryTaskManager;
+import tasktracker.models.Status;
+import tasktracker.models.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+// Пропускная способность при многих вызывающих на виртуальных потоках: менеджер под общей блокировкой
+// против EventLoopTaskManager с одним исполнителем. Каждая операция - создание задачи и 4 смены статуса.
+// Менеджер в памяти и файловый с журналом SYNC (fsync на каждую запись или на группу).
+// Запуск: java -cp <классы> tasktracker.benchmark.EventLoopBenchmark [вызывающих] [операций в памяти] [операций с журналом]
+public class EventLoopBenchmark {
+
+    private static final int STATUS_UPDATES = 4;
+
+    public static void main(String[] args) throws Exception {
+        int callers = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int memoryOperations = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        int journalOperations = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+
+        PrintStream console = System.out;
+        // Менеджеры печатают сообщения о каждой задаче, на время замеров их глушим
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            // Прогрев
+            runLocked(new InMemoryTaskManager(), callers, 20_000);
+            runLoop(new InMemoryTaskManager(), callers, 20_000);
+
+            report(console, "в памяти, блокировка", memoryOperations,
+                    runLocked(new InMemoryTaskManager(), callers, memoryOperations));
+            report(console, "в памяти, исполнитель", memoryOperations,
+                    runLoop(new InMemoryTaskManager(), callers, memoryOperations));
+
+            report(console, "журнал SYNC, блокировка", journalOperations,
+                    runLocked(journaled(), callers, journalOperations));
+            report(console, "журнал SYNC, исполнитель", journalOperations,
+                    runLoop(journaled(), callers, journalOperations));
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    private static FileBackedTaskManager journaled() throws IOException {
+        File directory = Files.createTempDirectory("event-loop-benchmark").toFile();
+        directory.deleteOnExit();
+        return new FileBackedTaskManager(new File(directory, "board.csv"), DurabilityPolicy.SYNC);
+    }
+
+    private static long runLocked(InMemoryTaskManager manager, int callers, int operations) throws Exception {
+        Object lock = new Object();
+        return run(callers, operations, task -> {
+            synchronized (lock) {
+                manager.createTask(task);
+            }
+            for (int i = 0; i < STATUS_UPDATES; i++) {
+                synchronized (lock) {
+                    manager.updateTaskStatus(task.getId(), Status.values()[i % 3]);
+                }
+            }
+        });
+    }
+
+    private static long runLoop(InMemoryTaskManager manager, int callers, int operations) throws Exception {
+        try (EventLoopTaskManager loop = new EventLoopTaskManager(manager)) {
+            return run(callers, operations, task -> {
+                loop.createTask(task);
+                for (int i = 0; i < STATUS_UPDATES; i++) {
+                    loop.updateTaskStatus(task.getId(), Status.values()[i % 3]);
+                }
+            });
+        }
+    }
+
+    // Возвращает время в наносекундах
+    private static long run(int callers, int operations, Consumer<Task> operation) throws Exception {
+        long started = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < callers; c++) {
+                int share = operations / callers + (c < operations % callers ? 1 : 0);
+                executor.submit(() -> {
+                    for (int i = 0; i < share; i++) {
+                        operation.accept(new Task("Задача", "описание"));
+                    }
+                    return null;
+                });
+            }
+        }
+        return System.nanoTime() - started;
+    }
+
+    private static void report(PrintStream console, String name, int operations, long elapsed) {
+        console.printf("%-26s %,9d операций: %,7d мс, %,10.0f операций/с%n", name, operations,
+                elapsed / 1_000_000, operations * 1_000_000_000.0 / elapsed);
+    }
+}
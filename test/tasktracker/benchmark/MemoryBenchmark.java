@@ -0,0 +1,96 @@
+package tasktracker.benchmark;
+
+import tasktracker.models.Task;
+import tasktracker.util.IntList;
+import tasktracker.util.IntObjectHashMap;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Память на одну запись хранилища без учёта самих задач: HashMap<Integer, Task> против IntObjectHashMap
+// и ArrayList<Integer> против IntList для ID подзадач эпика. Память меряется по куче после сборки мусора,
+// поэтому цифры приблизительные; запускать с одинаковыми флагами JVM.
+// Запуск: java -Xmx2g -cp <классы> tasktracker.benchmark.MemoryBenchmark [размеры...]
+public class MemoryBenchmark {
+
+    // Эпик держит немного ID, поэтому списки меряем пачкой по 8 элементов
+    private static final int IDS_PER_EPIC = 8;
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[]{100_000, 1_000_000};
+
+        for (int size : sizes) {
+            List<Task> tasks = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                Task task = new Task("Задача " + i, "описание");
+                task.setId(i + 1_000);
+                tasks.add(task);
+            }
+
+            double boxedMap = bytesPerEntry(size, () -> {
+                HashMap<Integer, Task> map = new HashMap<>();
+                tasks.forEach(task -> map.put(task.getId(), task));
+                return map;
+            });
+            double primitiveMap = bytesPerEntry(size, () -> {
+                IntObjectHashMap<Task> map = new IntObjectHashMap<>();
+                tasks.forEach(task -> map.put(task.getId(), task));
+                return map;
+            });
+            double boxedList = bytesPerEntry(size, () -> {
+                List<ArrayList<Integer>> lists = new ArrayList<>(size / IDS_PER_EPIC);
+                for (int i = 0; i < size; i += IDS_PER_EPIC) {
+                    ArrayList<Integer> ids = new ArrayList<>();
+                    for (int j = 0; j < IDS_PER_EPIC; j++) {
+                        ids.add(1_000 + i + j);
+                    }
+                    lists.add(ids);
+                }
+                return lists;
+            });
+            double primitiveList = bytesPerEntry(size, () -> {
+                List<IntList> lists = new ArrayList<>(size / IDS_PER_EPIC);
+                for (int i = 0; i < size; i += IDS_PER_EPIC) {
+                    IntList ids = new IntList();
+                    for (int j = 0; j < IDS_PER_EPIC; j++) {
+                        ids.addInt(1_000 + i + j);
+                    }
+                    lists.add(ids);
+                }
+                return lists;
+            });
+
+            System.out.printf("%,d записей: HashMap<Integer, Task> %.1f Б, IntObjectHashMap %.1f Б, "
+                            + "ArrayList<Integer> %.1f Б, IntList %.1f Б на запись%n",
+                    size, boxedMap, primitiveMap, boxedList, primitiveList);
+        }
+    }
+
+    private static double bytesPerEntry(int size, Supplier<Object> factory) {
+        long before = usedMemory();
+        Object structure = factory.get();
+        long after = usedMemory();
+        // Держим ссылку до замера, чтобы структуру не собрали раньше времени
+        Reference.reachabilityFence(structure);
+        return (after - before) / (double) size;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,57 @@
+package tasktracker.benchmark;
+
+import tasktracker.manager.InMemoryTaskManager;
+import tasktracker.models.Task;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+// Скорость создания задач со временем: каждая createTask проверяет пересечение с уже созданными.
+// Запуск: java -Xmx4g -cp <классы> tasktracker.benchmark.OverlapBenchmark [размеры...]
+public class OverlapBenchmark {
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[]{10_000, 100_000, 1_000_000};
+
+        PrintStream console = System.out;
+        for (int size : sizes) {
+            List<Task> batch = createBatch(size);
+            InMemoryTaskManager manager = new InMemoryTaskManager();
+
+            // Менеджер печатает предупреждения в консоль, на время замера их глушим
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            long started = System.nanoTime();
+            for (Task task : batch) {
+                manager.createTask(task);
+            }
+            long elapsed = System.nanoTime() - started;
+            System.setOut(console);
+
+            console.printf("%,d задач: %,d мс, %,.0f задач/с, создано %,d%n", size, elapsed / 1_000_000,
+                    size * 1_000_000_000.0 / elapsed, manager.getTasks().size());
+        }
+    }
+
+    // Непересекающиеся задачи по 10 минут в слотах по 15 минут, в случайном порядке
+    private static List<Task> createBatch(int size) {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        List<Task> batch = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Task task = new Task("Задача " + i, "описание");
+            task.setStartTime(base.plusMinutes(15L * i));
+            task.setDuration(Duration.ofMinutes(10));
+            batch.add(task);
+        }
+        Collections.shuffle(batch, new Random(1));
+        return batch;
+    }
+}
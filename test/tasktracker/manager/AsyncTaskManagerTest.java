@@ -0,0 +1,130 @@
+package tasktracker.manager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tasktracker.models.Epic;
+import tasktracker.models.Status;
+import tasktracker.models.Subtask;
+import tasktracker.models.Task;
+import tasktracker.models.TaskType;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncTaskManagerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void adapterShouldRunOperationsOnExecutor() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            AsyncTaskManager manager = new AsyncTaskManagerAdapter(new InMemoryTaskManager(), executor);
+            Epic epic = new Epic("Эпик", "описание");
+            Subtask subtask = new Subtask("Подзадача", "описание");
+            subtask.setStartTime(LocalDateTime.of(2025, 1, 1, 9, 0));
+            subtask.setDuration(Duration.ofHours(1));
+
+            // Запросы отправляются подряд, однопоточный исполнитель выполняет их по порядку
+            manager.createEpic(epic);
+            manager.createSubtask(subtask, 1);
+            manager.updateSubtaskStatus(2, Status.DONE);
+            CompletableFuture<Epic> loaded = manager.getEpicById(1);
+            CompletableFuture<SortedSet<Task>> window = manager.getPrioritizedTasks(
+                    LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2025, 1, 2, 0, 0));
+
+            assertEquals(Status.DONE, loaded.join().getStatus());
+            assertEquals(List.of(subtask), new ArrayList<>(window.join()));
+            assertThrows(UnsupportedOperationException.class, () -> window.join().clear());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void adapterShouldAnswerIndexQueriesAndVisitTasks() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            AsyncTaskManager manager = new AsyncTaskManagerAdapter(new InMemoryTaskManager(), executor);
+            manager.createTask(new Task("Задача", "описание"));
+            manager.createEpic(new Epic("Эпик", "описание"));
+            manager.createSubtask(new Subtask("Подзадача", "описание"), 2);
+            manager.updateSubtaskStatus(3, Status.DONE);
+
+            assertEquals(List.of(2, 3), manager.findByStatus(Status.DONE).join().stream().map(Task::getId).toList());
+            assertEquals(1, manager.countByStatus(Status.NEW).join());
+            assertEquals(1, manager.countByStatus(TaskType.SUBTASK, Status.DONE).join());
+            assertEquals(1, manager.countByType(TaskType.EPIC).join());
+            assertEquals(1, manager.countEpicSubtasks(2, Status.DONE).join());
+
+            List<Integer> visited = new ArrayList<>();
+            manager.forEachTask(task -> visited.add(task.getId())).join();
+            manager.forEachSubtask(subtask -> visited.add(subtask.getId())).join();
+            assertEquals(List.of(1, 3), visited);
+
+            // Представление - копия на момент выполнения, её можно читать в любом потоке
+            Collection<Task> tasks = manager.getTasksView().join();
+            manager.deleteAllTasks().join();
+            assertEquals(1, tasks.size());
+            assertThrows(UnsupportedOperationException.class, tasks::clear);
+            assertEquals(1, manager.getEpicSubtasksView(2).join().size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void adapterShouldPassFailuresToFuture() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            AsyncTaskManager manager = new AsyncTaskManagerAdapter(new InMemoryTaskManager(), executor);
+            CompletableFuture<List<Task>> next = manager.getNextTasks(-1);
+
+            Exception exception = assertThrows(Exception.class, next::join);
+            assertInstanceOf(IllegalArgumentException.class, exception.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // Каждое завершённое будущее записи означает, что изменение уже есть в журнале на диске:
+    // проверяем это, читая файл в другом менеджере
+    @Test
+    void durableManagerShouldCompleteWritesAfterTheyReachDisk() {
+        File file = tempDir.resolve("board.csv").toFile();
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        List<Task> tasks = new ArrayList<>();
+
+        try (DurableAsyncTaskManager manager = new DurableAsyncTaskManager(
+                new FileBackedTaskManager(file, DurabilityPolicy.SYNC))) {
+            for (int i = 0; i < 300; i++) {
+                Task task = new Task("Задача " + i, "описание");
+                tasks.add(task);
+                writes.add(manager.createTask(task));
+            }
+            writes.getFirst().join();
+            assertNotNull(FileBackedTaskManager.loadFromFile(file).getTaskById(tasks.getFirst().getId()));
+
+            CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).join();
+            assertEquals(300, FileBackedTaskManager.loadFromFile(file).getTasks().size());
+            assertTrue(manager.getGroupsCommitted() < 300, "Записи из очереди должны объединяться");
+
+            CompletableFuture<Void> status = manager.updateTaskStatus(tasks.getLast().getId(), Status.DONE);
+            status.join();
+            assertEquals(Status.DONE,
+                    FileBackedTaskManager.loadFromFile(file).getTaskById(tasks.getLast().getId()).getStatus());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package tasktracker.manager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tasktracker.models.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinarySnapshotFormatTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void managerShouldSaveAndLoadBinarySnapshot() {
+        File file = tempDir.resolve("board.bin").toFile();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+
+        Task task = new Task("Задача, с запятой", "Описание");
+        task.setStartTime(LocalDateTime.of(2025, 1, 1, 9, 0));
+        task.setDuration(Duration.ofMinutes(45));
+        manager.createTask(task);
+        Epic epic = new Epic("Эпик", null);
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Подзадача", "Описание подзадачи");
+        subtask.setStartTime(LocalDateTime.of(2025, 1, 1, 12, 0));
+        subtask.setDuration(Duration.ofMinutes(30));
+        manager.createSubtask(subtask, epic.getId());
+        manager.updateSubtaskStatus(subtask.getId(), Status.DONE);
+
+        assertEquals(SnapshotFormat.BINARY, SnapshotFormat.detect(file));
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(file);
+        Task loadedTask = loadedManager.getTaskById(task.getId());
+        assertEquals("Задача, с запятой", loadedTask.getTitle());
+        assertEquals(task.getStartTime(), loadedTask.getStartTime());
+        assertEquals(task.getDuration(), loadedTask.getDuration());
+
+        Epic loadedEpic = loadedManager.getEpicById(epic.getId());
+        assertNull(loadedEpic.getDescription(), "null-строка должна сохраниться как null");
+        assertEquals(Status.DONE, loadedEpic.getStatus());
+        assertEquals(subtask.getStartTime(), loadedEpic.getStartTime());
+        assertEquals(1, loadedManager.getEpicSubtasks(epic.getId()).size());
+    }
+
+    @Test
+    void corruptTypeOrStatusByteShouldFailWithIOException() throws IOException {
+        Task task = new Task("Задача", "Описание");
+        task.setId(1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinarySnapshotFormat.write(out, List.of(task), List.of(), List.of());
+        byte[] valid = out.toByteArray();
+        // Заголовок: магия (4), версия (2), флаги (2), три счётчика (12); затем тип, ID (1 байт) и статус
+        int typeOffset = 20;
+
+        byte[] badType = valid.clone();
+        badType[typeOffset] = (byte) 0xFF;
+        assertThrows(IOException.class, () -> BinarySnapshotFormat.read(new ByteArrayInputStream(badType), t -> { }));
+
+        byte[] badStatus = valid.clone();
+        badStatus[typeOffset + 2] = 0x7F;
+        assertThrows(IOException.class, () -> BinarySnapshotFormat.read(new ByteArrayInputStream(badStatus), t -> { }));
+    }
+
+    @Test
+    void corruptLengthOrIdShouldFailWithIOException() throws IOException {
+        Task task = new Task("Задача", "Описание");
+        task.setId(1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinarySnapshotFormat.write(out, List.of(task), List.of(), List.of());
+        byte[] valid = out.toByteArray();
+        // Заголовок (20 байт), тип, ID, статус; затем длина заголовка задачи
+        int titleOffset = 23;
+
+        // Длина Integer.MAX_VALUE в zigzag-varint: память под строку выделять нельзя
+        ByteArrayOutputStream hugeTitle = new ByteArrayOutputStream();
+        hugeTitle.write(valid, 0, titleOffset);
+        hugeTitle.write(new byte[]{(byte) 0xFE, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F});
+        assertThrows(IOException.class,
+                () -> BinarySnapshotFormat.read(new ByteArrayInputStream(hugeTitle.toByteArray()), t -> { }));
+
+        // ID 2^32 не помещается в int и не должен молча обрезаться
+        ByteArrayOutputStream hugeId = new ByteArrayOutputStream();
+        hugeId.write(valid, 0, titleOffset - 2);
+        hugeId.write(new byte[]{(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x20});
+        hugeId.write(valid, titleOffset - 1, valid.length - titleOffset + 1);
+        assertThrows(IOException.class,
+                () -> BinarySnapshotFormat.read(new ByteArrayInputStream(hugeId.toByteArray()), t -> { }));
+    }
+
+    @Test
+    void converterShouldRoundTripCsv() throws IOException {
+        File csv = tempDir.resolve("data.csv").toFile();
+        Files.writeString(csv.toPath(), String.join(System.lineSeparator(),
+                CSVFormatter.getHeader(),
+                "1,TASK,обычная задача,IN_PROGRESS,\"описание, с запятой\",,2025-05-01T08:15,60,2025-05-01T09:15",
+                "2,EPIC,эпик,NEW,описание эпика,,2025-05-01T10:00,30,2025-05-01T10:30",
+                "3,SUBTASK,подзадача,NEW,описание подзадачи,2,2025-05-01T10:00,30,2025-05-01T10:30",
+                ""));
+        File binary = tempDir.resolve("data.bin").toFile();
+        File back = tempDir.resolve("back.csv").toFile();
+
+        BinarySnapshotFormat.csvToBinary(csv, binary);
+        BinarySnapshotFormat.binaryToCsv(binary, back);
+
+        assertTrue(binary.length() < csv.length(), "Бинарный снимок должен быть компактнее CSV");
+        assertEquals(Files.readString(csv.toPath()), Files.readString(back.toPath()));
+    }
+}
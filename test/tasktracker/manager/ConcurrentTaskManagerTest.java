@@ -0,0 +1,137 @@
+package tasktracker.manager;
+
+import org.junit.jupiter.api.Test;
+import tasktracker.models.Epic;
+import tasktracker.models.Status;
+import tasktracker.models.Subtask;
+import tasktracker.models.Task;
+import tasktracker.models.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+
+    private static final int WRITERS = 6;
+    private static final int READERS = 4;
+    private static final int EPICS_PER_WRITER = 20;
+    private static final int SUBTASKS_PER_EPIC = 5;
+
+    @Override
+    protected ConcurrentTaskManager createManager() {
+        return new ConcurrentTaskManager();
+    }
+
+    // Писатели создают свои эпики, подзадачи и задачи со временем и меняют статусы, читатели в это время
+    // читают списки и окна. В конце сводки эпиков сверяются с полным пересчётом, а список по приоритету -
+    // с задачами менеджера
+    @Test
+    void stressShouldKeepRollupsAndPrioritizedIndexConsistent() throws Exception {
+        manager.setRollupVerification(true);
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<?>> writers = new ArrayList<>();
+        List<Future<?>> readers = new ArrayList<>();
+
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            writers.add(executor.submit(() -> {
+                start.await();
+                Random random = new Random(writer);
+                List<Subtask> own = new ArrayList<>();
+                for (int e = 0; e < EPICS_PER_WRITER; e++) {
+                    Epic epic = new Epic("Эпик " + writer + "-" + e, "описание");
+                    manager.createEpic(epic);
+                    for (int s = 0; s < SUBTASKS_PER_EPIC; s++) {
+                        Subtask subtask = new Subtask("Подзадача", "описание");
+                        // У каждого писателя своя неделя, внутри неё подзадачи не пересекаются
+                        int slot = (e * SUBTASKS_PER_EPIC + s);
+                        subtask.setStartTime(base.plusWeeks(writer).plusHours(slot));
+                        subtask.setDuration(Duration.ofMinutes(30));
+                        manager.createSubtask(subtask, epic.getId());
+                        own.add(subtask);
+                    }
+                    Task task = new Task("Задача", "описание");
+                    manager.createTask(task);
+                    manager.updateTaskStatus(task.getId(), Status.IN_PROGRESS);
+                }
+                for (int i = 0; i < 2_000; i++) {
+                    Subtask subtask = own.get(random.nextInt(own.size()));
+                    manager.updateSubtaskStatus(subtask.getId(), Status.values()[random.nextInt(3)]);
+                }
+                // Часть эпиков удаляем целиком
+                manager.deleteEpicById(own.getFirst().getEpicId());
+                return null;
+            }));
+        }
+        for (int r = 0; r < READERS; r++) {
+            readers.add(executor.submit(() -> {
+                start.await();
+                while (writing.get()) {
+                    Set<Integer> ids = new HashSet<>();
+                    for (Task task : manager.getPrioritizedTasks()) {
+                        assertTrue(ids.add(task.getId()), "Задача в списке по приоритету дважды");
+                    }
+                    for (Task task : manager.getPrioritizedTasks(base, base.plusWeeks(WRITERS))) {
+                        assertNotNull(task.getStartTime());
+                    }
+                    for (Epic epic : manager.getEpics()) {
+                        manager.getEpicSubtasks(epic.getId());
+                        manager.getById(epic.getId());
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        try {
+            for (Future<?> future : writers) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            writing.set(false);
+        }
+        for (Future<?> future : readers) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(WRITERS * (EPICS_PER_WRITER - 1), manager.getEpics().size());
+        assertEquals(WRITERS * (EPICS_PER_WRITER - 1) * SUBTASKS_PER_EPIC, manager.getSubtasks().size());
+        assertEquals(WRITERS * EPICS_PER_WRITER, manager.getTasks().size());
+        assertEquals(manager.getSubtasks().size(), manager.getPrioritizedTasks().size());
+        for (Epic epic : manager.getEpics()) {
+            List<Subtask> subtasks = manager.getEpicSubtasks(epic.getId());
+            assertEquals(SUBTASKS_PER_EPIC, subtasks.size());
+            boolean allNew = subtasks.stream().allMatch(subtask -> subtask.getStatus() == Status.NEW);
+            boolean allDone = subtasks.stream().allMatch(subtask -> subtask.getStatus() == Status.DONE);
+            Status expected = allNew ? Status.NEW : allDone ? Status.DONE : Status.IN_PROGRESS;
+            assertEquals(expected, epic.getStatus(), "Статус эпика " + epic.getId());
+        }
+        for (Task task : manager.getTasks()) {
+            assertEquals(Status.IN_PROGRESS, task.getStatus());
+        }
+        for (Status status : Status.values()) {
+            long subtasks = manager.getSubtasks().stream().filter(subtask -> subtask.getStatus() == status).count();
+            long epics = manager.getEpics().stream().filter(epic -> epic.getStatus() == status).count();
+            assertEquals(subtasks, manager.countByStatus(TaskType.SUBTASK, status), "Индекс статусов " + status);
+            assertEquals(epics, manager.countByStatus(TaskType.EPIC, status), "Индекс статусов " + status);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package tasktracker.manager;
+
+import org.junit.jupiter.api.Test;
+import tasktracker.models.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvCodecTest {
+
+    @Test
+    void rowShouldMatchExistingCsvLayout() throws IOException {
+        Epic epic = new Epic("эпик", "описание эпика");
+        epic.setId(60);
+        epic.setDuration(Duration.ZERO);
+
+        Subtask subtask = new Subtask("Задача, с запятой", "Описание с \"кавычками\"");
+        subtask.setId(61);
+        subtask.setEpicId(60);
+        subtask.setStatus(Status.IN_PROGRESS);
+        subtask.setStartTime(LocalDateTime.of(2025, 1, 1, 10, 0));
+        subtask.setDuration(Duration.ofMinutes(90));
+
+        StringBuilder row = new StringBuilder();
+        CsvCodec.appendRow(epic, row);
+        assertEquals("60,EPIC,эпик,NEW,описание эпика,,,0,", row.toString());
+
+        row.setLength(0);
+        CsvCodec.appendRow(subtask, row);
+        assertEquals("61,SUBTASK,\"Задача, с запятой\",IN_PROGRESS,\"Описание с \"\"кавычками\"\"\",60,"
+                + "2025-01-01T10:00,90,2025-01-01T11:30", row.toString());
+    }
+
+    @Test
+    void dateTimeShouldBeWrittenLikeLocalDateTimeToString() throws IOException {
+        LocalDateTime[] times = {
+                LocalDateTime.of(2025, 3, 9, 7, 5),
+                LocalDateTime.of(2025, 3, 9, 7, 5, 1),
+                LocalDateTime.of(2025, 3, 9, 7, 5, 0, 120_000_000),
+                LocalDateTime.of(2025, 3, 9, 7, 5, 0, 123_456_000),
+                LocalDateTime.of(2025, 3, 9, 7, 5, 0, 1),
+                LocalDateTime.of(12025, 3, 9, 7, 5)
+        };
+        CsvCodec.RowCursor cursor = new CsvCodec.RowCursor();
+
+        for (LocalDateTime time : times) {
+            Task task = new Task("t", "d");
+            task.setId(1);
+            task.setStartTime(time);
+
+            StringBuilder row = new StringBuilder();
+            CsvCodec.appendRow(task, row);
+            assertEquals("1,TASK,t,NEW,d,," + time + ",,", row.toString());
+            assertEquals(time, cursor.reset(row).toTask().getStartTime());
+        }
+    }
+
+    @Test
+    void cursorShouldBeReusableAcrossRows() {
+        CsvCodec.RowCursor cursor = new CsvCodec.RowCursor();
+
+        Task first = cursor.reset("1,TASK,\"a,b\",DONE,\"x\"\"y\",,,,").toTask();
+        assertEquals("a,b", first.getTitle());
+        assertEquals("x\"y", first.getDescription());
+        assertEquals(Status.DONE, first.getStatus());
+
+        Subtask second = (Subtask) cursor.reset("2,SUBTASK,s,NEW,d,7,2025-01-01T10:00,15,").toTask();
+        assertEquals(7, second.getEpicId());
+        assertEquals(Duration.ofMinutes(15), second.getDuration());
+    }
+
+    @Test
+    void cursorShouldRejectUnknownType() {
+        CsvCodec.RowCursor cursor = new CsvCodec.RowCursor().reset("1,STORY,t,NEW,d,,,,");
+        assertThrows(IllegalArgumentException.class, cursor::toTask);
+    }
+}
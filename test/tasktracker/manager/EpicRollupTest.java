@@ -0,0 +1,130 @@
+package tasktracker.manager;
+
+import org.junit.jupiter.api.Test;
+import tasktracker.models.Epic;
+import tasktracker.models.Status;
+import tasktracker.models.Subtask;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EpicRollupTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private Subtask subtask(int id, Status status, LocalDateTime start, int minutes) {
+        Subtask subtask = new Subtask("Подзадача " + id, "описание");
+        subtask.setId(id);
+        subtask.setStatus(status);
+        subtask.setStartTime(start);
+        subtask.setDuration(start != null ? Duration.ofMinutes(minutes) : null);
+        return subtask;
+    }
+
+    @Test
+    void shouldTrackStatusAndTime() {
+        EpicRollup rollup = new EpicRollup();
+        assertEquals(Status.NEW, rollup.getStatus());
+        assertNull(rollup.getStartTime());
+        assertEquals(Duration.ZERO, rollup.getDuration());
+
+        rollup.add(subtask(1, Status.DONE, BASE.plusHours(2), 30));
+        rollup.add(subtask(2, Status.DONE, BASE, 60));
+        rollup.add(subtask(3, Status.DONE, null, 0));
+        assertEquals(Status.DONE, rollup.getStatus());
+        assertEquals(BASE, rollup.getStartTime());
+        assertEquals(BASE.plusHours(2).plusMinutes(30), rollup.getEndTime());
+        assertEquals(Duration.ofMinutes(90), rollup.getDuration());
+
+        rollup.add(subtask(2, Status.IN_PROGRESS, BASE.plusHours(1), 15));
+        assertEquals(Status.IN_PROGRESS, rollup.getStatus());
+        assertEquals(BASE.plusHours(1), rollup.getStartTime());
+        assertEquals(Duration.ofMinutes(45), rollup.getDuration());
+
+        rollup.remove(1);
+        rollup.remove(2);
+        assertEquals(Status.DONE, rollup.getStatus());
+        assertNull(rollup.getStartTime());
+        assertNull(rollup.getEndTime());
+        assertEquals(Duration.ZERO, rollup.getDuration());
+    }
+
+    @Test
+    void equalStartsShouldBeCountedAsMultiset() {
+        EpicRollup rollup = new EpicRollup();
+        rollup.add(subtask(1, Status.NEW, BASE, 30));
+        rollup.add(subtask(2, Status.NEW, BASE, 30));
+        rollup.remove(1);
+
+        assertEquals(BASE, rollup.getStartTime());
+        assertEquals(BASE.plusMinutes(30), rollup.getEndTime());
+    }
+
+    @Test
+    void managerRollupsShouldMatchFullRecalculation() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        manager.setRollupVerification(true);
+        Random random = new Random(11);
+        Status[] statuses = Status.values();
+
+        List<Integer> epicIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Epic epic = new Epic("Эпик " + i, "описание");
+            manager.createEpic(epic);
+            epicIds.add(epic.getId());
+        }
+
+        List<Integer> subtaskIds = new ArrayList<>();
+        int slot = 0;
+        for (int step = 0; step < 2000; step++) {
+            int action = random.nextInt(5);
+            if (action <= 1 || subtaskIds.isEmpty()) {
+                Subtask subtask = new Subtask("Подзадача", "описание");
+                if (random.nextBoolean()) {
+                    subtask.setStartTime(BASE.plusMinutes(30L * slot++));
+                    subtask.setDuration(Duration.ofMinutes(1 + random.nextInt(29)));
+                }
+                manager.createSubtask(subtask, epicIds.get(random.nextInt(epicIds.size())));
+                subtaskIds.add(subtask.getId());
+            } else if (action == 2) {
+                manager.updateSubtaskStatus(subtaskIds.get(random.nextInt(subtaskIds.size())),
+                        statuses[random.nextInt(statuses.length)]);
+            } else if (action == 3) {
+                Subtask current = manager.getSubtaskById(subtaskIds.get(random.nextInt(subtaskIds.size())));
+                Subtask moved = new Subtask(current.getTitle(), current.getDescription());
+                moved.setId(current.getId());
+                moved.setStatus(statuses[random.nextInt(statuses.length)]);
+                moved.setEpicId(epicIds.get(random.nextInt(epicIds.size())));
+                moved.setStartTime(BASE.plusMinutes(30L * slot++));
+                moved.setDuration(Duration.ofMinutes(10));
+                manager.updateSubtask(moved);
+            } else {
+                manager.deleteSubtaskById(subtaskIds.remove(random.nextInt(subtaskIds.size())));
+            }
+        }
+
+        for (Epic epic : manager.getEpics()) {
+            assertEquals(manager.getEpicSubtasks(epic.getId()).size(),
+                    manager.getSubtasks().stream().filter(s -> s.getEpicId() == epic.getId()).count(),
+                    "Перенесённая подзадача должна уйти из списка старого эпика");
+        }
+    }
+
+    @Test
+    void epicStatusShouldFollowCreatedSubtasks() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Epic epic = new Epic("Эпик", "описание");
+        manager.createEpic(epic);
+
+        Subtask done = new Subtask("Готово", "описание");
+        done.setStatus(Status.DONE);
+        manager.createSubtask(done, epic.getId());
+
+        assertEquals(Status.DONE, manager.getEpicById(epic.getId()).getStatus());
+    }
+}
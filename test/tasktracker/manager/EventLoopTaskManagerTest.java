@@ -0,0 +1,151 @@
+package tasktracker.manager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tasktracker.models.Epic;
+import tasktracker.models.Status;
+import tasktracker.models.Subtask;
+import tasktracker.models.Task;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventLoopTaskManagerTest extends TaskManagerTest<EventLoopTaskManager> {
+
+    @TempDir
+    Path tempDir;
+
+    @Override
+    protected EventLoopTaskManager createManager() {
+        return new EventLoopTaskManager(new InMemoryTaskManager());
+    }
+
+    @AfterEach
+    void closeManager() {
+        manager.close();
+    }
+
+    @Test
+    void virtualThreadCallersShouldAllBeServed() throws Exception {
+        Epic epic = new Epic("Эпик", "описание");
+        manager.createEpic(epic);
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 1_000; i++) {
+                int number = i;
+                futures.add(CompletableFuture.runAsync(() -> {
+                    Subtask subtask = new Subtask("Подзадача " + number, "описание");
+                    manager.createSubtask(subtask, epic.getId());
+                    manager.updateSubtaskStatus(subtask.getId(), Status.DONE);
+                }, callers));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get();
+        }
+
+        assertEquals(1_000, manager.getEpicSubtasks(epic.getId()).size());
+        assertEquals(Status.DONE, manager.getEpicById(epic.getId()).getStatus());
+    }
+
+    @Test
+    void queuedMutationsShouldBeWrittenInGroups() {
+        File file = tempDir.resolve("board.csv").toFile();
+        EventLoopTaskManager loop = new EventLoopTaskManager(new FileBackedTaskManager(file));
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                Task task = new Task("Задача " + i, "описание");
+                futures.add(loop.submitMutation(manager -> {
+                    manager.createTask(task);
+                    return null;
+                }));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+            assertTrue(loop.getGroupsCommitted() < 500, "Изменения из очереди должны объединяться");
+            assertEquals(500, FileBackedTaskManager.loadFromFile(file).getTasks().size());
+        } finally {
+            loop.close();
+        }
+    }
+
+    @Test
+    void readShouldSeeMutationsQueuedBeforeIt() {
+        Epic epic = new Epic("Эпик", "описание");
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Подзадача", "описание");
+        manager.createSubtask(subtask, epic.getId());
+
+        manager.submitMutation(m -> {
+            m.updateSubtaskStatus(subtask.getId(), Status.DONE);
+            return null;
+        });
+        CompletableFuture<Status> status = manager.submit(m -> m.getEpicById(epic.getId()).getStatus());
+
+        assertEquals(Status.DONE, status.join());
+    }
+
+    @Test
+    void closedManagerShouldRejectCommands() {
+        manager.createTask(new Task("Задача", "описание"));
+        manager.close();
+
+        assertThrows(IllegalStateException.class, () -> manager.createTask(new Task("Задача", "описание")));
+    }
+
+    @Test
+    void closeDuringSubmitsShouldCompleteEveryAcceptedCommand() throws Exception {
+        // Маленькая очередь: часть отправителей ждёт места в put в момент закрытия
+        EventLoopTaskManager small = new EventLoopTaskManager(new InMemoryTaskManager(), 2, 2);
+        List<CompletableFuture<?>> accepted = new ArrayList<>();
+        try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> sent = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                sent.add(senders.submit(() -> {
+                    try {
+                        CompletableFuture<?> future = small.submitMutation(
+                                manager -> {
+                                    manager.createTask(new Task("Задача", "описание"));
+                                    return null;
+                                });
+                        synchronized (accepted) {
+                            accepted.add(future);
+                        }
+                    } catch (IllegalStateException rejected) {
+                        // Отправлено после закрытия
+                    }
+                    return null;
+                }));
+            }
+            Thread.sleep(5);
+            small.close();
+            for (Future<?> future : sent) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        }
+        synchronized (accepted) {
+            for (CompletableFuture<?> future : accepted) {
+                assertTrue(future.handle((result, failure) -> true).get(10, TimeUnit.SECONDS));
+            }
+        }
+    }
+
+    @Test
+    void closeFromLoopThreadShouldBeRejected() {
+        manager.createTask(new Task("Задача", "описание"));
+
+        assertThrows(IllegalStateException.class, () -> manager.forEachTask(task -> manager.close()));
+        manager.createTask(new Task("Ещё задача", "описание"));
+        assertEquals(2, manager.getTasks().size());
+    }
+}
@@ -7,10 +7,17 @@ import tasktracker.models.Epic;
 import tasktracker.models.Status;
 import tasktracker.models.Subtask;
 import tasktracker.models.Task;
+import tasktracker.models.TaskType;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -51,6 +58,27 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         assertTrue(loadedManager.getSubtasks().isEmpty(), "Подзадачи должны быть пустыми");
     }
 
+    @Test
+    void loadShouldRebuildStatusIndex() {
+        Task task = new Task("Task", "Description");
+        manager.createTask(task);
+        manager.updateTaskStatus(task.getId(), Status.DONE);
+        Epic epic = new Epic("Epic", "Description");
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Subtask", "Description");
+        manager.createSubtask(subtask, epic.getId());
+        manager.updateSubtaskStatus(subtask.getId(), Status.IN_PROGRESS);
+        manager.save();
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(testFile);
+
+        assertEquals(1, loadedManager.countByStatus(Status.DONE));
+        assertEquals(2, loadedManager.countByStatus(Status.IN_PROGRESS));
+        assertEquals(1, loadedManager.countEpicSubtasks(epic.getId(), Status.IN_PROGRESS));
+        assertEquals(List.of(task.getId()),
+                loadedManager.findByStatus(TaskType.TASK, Status.DONE).stream().map(Task::getId).toList());
+    }
+
     @Test
     void testSaveAndLoadMultipleTasks() {
         //Создаём задачи
@@ -164,6 +192,283 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         assertEquals(memoryManager.getHistory().size(), fileManager.getHistory().size());
     }
 
+    @Test
+    void journalShouldRestoreStateWithoutFullRewrite() {
+        FileBackedTaskManager journaled = new FileBackedTaskManager(testFile, true);
+
+        Task task = new Task("Task", "Desc");
+        journaled.createTask(task);
+        Epic epic = new Epic("Epic", "Epic desc");
+        journaled.createEpic(epic);
+        Subtask subtask = new Subtask("Subtask", "Sub desc");
+        journaled.createSubtask(subtask, epic.getId());
+        journaled.updateSubtaskStatus(subtask.getId(), Status.DONE);
+        journaled.deleteTaskById(task.getId());
+        journaled.close();
+
+        // Снимок не перезаписывался, все изменения лежат в журнале
+        assertEquals(0, testFile.length(), "Снимок не должен перезаписываться в режиме журнала");
+        assertTrue(FileBackedTaskManager.getJournalFile(testFile).length() > 0, "Журнал должен содержать записи");
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(testFile, true);
+        assertTrue(loadedManager.getTasks().isEmpty(), "Удалённая задача не должна восстановиться");
+        assertEquals(Status.DONE, loadedManager.getSubtaskById(subtask.getId()).getStatus());
+        assertEquals(Status.DONE, loadedManager.getEpicById(epic.getId()).getStatus());
+        assertTrue(loadedManager.getEpicById(epic.getId()).getSubtaskIds().contains(subtask.getId()));
+        loadedManager.close();
+    }
+
+    @Test
+    void journalShouldSkipRecordCutMidLine() throws IOException {
+        FileBackedTaskManager journaled = new FileBackedTaskManager(testFile, true);
+        for (int i = 1; i <= 12; i++) {
+            journaled.createTask(new Task("Task " + i, "Desc"));
+        }
+        journaled.deleteTaskById(12);
+        journaled.close();
+
+        // Обрываем "DEL,12" до "DEL,1": такая строка разбирается, но применять её нельзя
+        File journalFile = FileBackedTaskManager.getJournalFile(testFile);
+        try (RandomAccessFile file = new RandomAccessFile(journalFile, "rw")) {
+            file.setLength(file.length() - System.lineSeparator().length() - 1);
+        }
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(testFile, true);
+        assertNotNull(loaded.getTaskById(1), "Оборванная запись не должна удалить задачу 1");
+        assertNotNull(loaded.getTaskById(12), "Удаление задачи 12 не дописано до конца");
+
+        // Новые записи не должны склеиться с оборванной строкой
+        loaded.deleteTaskById(11);
+        loaded.close();
+        FileBackedTaskManager reloaded = FileBackedTaskManager.loadFromFile(testFile, true);
+        assertEquals(11, reloaded.getTasks().size());
+        assertNull(reloaded.getTaskById(11));
+        assertNotNull(reloaded.getTaskById(1));
+        reloaded.close();
+    }
+
+    @Test
+    void autoScheduleShouldSaveOnce() {
+        int[] saves = new int[1];
+        FileBackedTaskManager counting = new FileBackedTaskManager(testFile) {
+            @Override
+            public void save() {
+                saves[0]++;
+                super.save();
+            }
+        };
+        Epic epic = new Epic("Epic", "Desc");
+        counting.createEpic(epic);
+        List<Task> unscheduled = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Subtask subtask = new Subtask("Subtask " + i, "Desc");
+            subtask.setEpicId(epic.getId());
+            subtask.setDuration(Duration.ofMinutes(30));
+            unscheduled.add(subtask);
+        }
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 9, 0);
+        saves[0] = 0;
+
+        assertEquals(5, counting.autoSchedule(unscheduled, from, from.plusHours(8)).size());
+        assertEquals(1, saves[0], "Все размещения должны записываться одним снимком");
+        assertEquals(from.plusMinutes(150), FileBackedTaskManager.loadFromFile(testFile).getEpicById(epic.getId()).getEndTime());
+    }
+
+    @Test
+    void failedBackgroundSnapshotShouldReachCaller() {
+        FileBackedTaskManager journaled = new FileBackedTaskManager(testFile, true);
+        journaled.enableCompaction(0, 0);
+        journaled.createTask(new Task("Task", "Desc"));
+        // Каталог на месте временного файла снимка: запись снимка в фоне завершится ошибкой
+        assertTrue(new File(testFile.getPath() + ".tmp").mkdir());
+
+        journaled.compact();
+        assertThrows(ManagerSaveException.class, journaled::awaitCompaction);
+
+        journaled.compact();
+        assertThrows(ManagerSaveException.class, journaled::close);
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(testFile, true);
+        assertEquals(1, loaded.getTasks().size(), "Задача должна восстановиться из архива журнала");
+        loaded.close();
+    }
+
+    @Test
+    void journalByteCountShouldMatchFileLength() {
+        File journalFile = FileBackedTaskManager.getJournalFile(testFile);
+        TaskJournal journal = new TaskJournal(journalFile);
+        Task task = new Task("Задача с кириллицей", "Описание 😀");
+        task.setId(1);
+        journal.appendPut(task);
+        journal.appendDelete(1);
+        journal.close();
+
+        assertEquals(journalFile.length(), journal.getByteCount());
+    }
+
+    @Test
+    void reopenedJournalShouldCountExistingRecords() {
+        File journalFile = FileBackedTaskManager.getJournalFile(testFile);
+        TaskJournal journal = new TaskJournal(journalFile);
+        for (int id = 1; id <= 3; id++) {
+            journal.appendDelete(id);
+        }
+        journal.close();
+
+        TaskJournal reopened = new TaskJournal(journalFile);
+        assertEquals(3, reopened.getRecordCount(), "Порог по числу записей должен учитывать журнал до перезапуска");
+        assertEquals(journalFile.length(), reopened.getByteCount());
+        reopened.appendDelete(4);
+        assertEquals(4, reopened.getRecordCount());
+        reopened.close();
+    }
+
+    @Test
+    void saveShouldWriteSnapshotAndTruncateJournal() {
+        FileBackedTaskManager journaled = new FileBackedTaskManager(testFile, true);
+        Task task = new Task("Task", "Desc");
+        journaled.createTask(task);
+
+        journaled.save();
+        assertEquals(0, FileBackedTaskManager.getJournalFile(testFile).length(), "Журнал должен быть очищен");
+
+        journaled.updateTaskStatus(task.getId(), Status.IN_PROGRESS);
+        journaled.close();
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(testFile);
+        assertEquals(Status.IN_PROGRESS, loadedManager.getTaskById(task.getId()).getStatus());
+    }
+
+    @Test
+    void groupCommitShouldPersistQueuedChangesAfterFlush() {
+        FileBackedTaskManager batched = new FileBackedTaskManager(testFile, DurabilityPolicy.BATCH, 64, 1000);
+        for (int i = 0; i < 100; i++) {
+            batched.createTask(new Task("Task " + i, "Desc " + i));
+        }
+
+        batched.flush();
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(testFile);
+        assertEquals(100, loadedManager.getTasks().size(), "После flush все изменения должны быть на диске");
+        batched.close();
+    }
+
+    @Test
+    void asyncJournalShouldWriteEverythingOnClose() {
+        Task task = new Task("Task", "Desc");
+        try (FileBackedTaskManager async = new FileBackedTaskManager(testFile, DurabilityPolicy.ASYNC)) {
+            async.createTask(task);
+            async.updateTaskStatus(task.getId(), Status.DONE);
+        }
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(testFile);
+        assertEquals(Status.DONE, loadedManager.getTaskById(task.getId()).getStatus());
+    }
+
+    @Test
+    void compactionShouldWriteSnapshotAndKeepJournalShort() {
+        FileBackedTaskManager journaled = new FileBackedTaskManager(testFile, DurabilityPolicy.BATCH);
+        journaled.enableCompaction(0, 10);
+
+        for (int i = 0; i < 55; i++) {
+            Task task = new Task("Task " + i, "Desc " + i);
+            journaled.createTask(task);
+            journaled.updateTaskStatus(task.getId(), Status.DONE);
+        }
+        journaled.close();
+
+        assertTrue(testFile.length() > 0, "Снимок должен быть записан");
+        assertFalse(FileBackedTaskManager.getArchivedJournalFile(testFile).exists(), "Архив журнала должен быть удалён");
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(testFile);
+        assertEquals(55, loadedManager.getTasks().size());
+        assertTrue(loadedManager.getTasks().stream().allMatch(task -> task.getStatus() == Status.DONE));
+    }
+
+    @Test
+    void loadShouldLinkSubtasksWrittenBeforeTheirEpic() throws IOException {
+        Files.writeString(testFile.toPath(), String.join(System.lineSeparator(),
+                CSVFormatter.getHeader(),
+                "3,SUBTASK,подзадача,DONE,описание,2,2025-01-01T10:00,30,",
+                "1,TASK,задача,NEW,описание,,,,",
+                "2,EPIC,эпик,DONE,описание,,,0,"));
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(testFile);
+
+        assertEquals(1, loadedManager.getTasks().size());
+        assertEquals(1, loadedManager.getEpicSubtasks(2).size(), "Подзадача должна привязаться к эпику");
+        assertEquals(30, loadedManager.getEpicById(2).getDuration().toMinutes(), "Время эпика должно пересчитаться");
+        assertEquals(3, loadedManager.getLastLoadStatistics().getRows());
+    }
+
+    @Test
+    void saveShouldReencodeOnlyChangedRows() {
+        Epic epic = new Epic("Epic", "Desc");
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Subtask", "Desc");
+        manager.createSubtask(subtask, epic.getId());
+        for (int i = 0; i < 10; i++) {
+            manager.createTask(new Task("Task " + i, "Desc"));
+        }
+
+        long encodedBefore = manager.getRowsEncoded();
+        long reusedBefore = manager.getRowsReused();
+        manager.updateSubtaskStatus(subtask.getId(), Status.DONE);
+
+        // Перекодированы только подзадача и её эпик, остальные строки взяты из кэша
+        assertEquals(2, manager.getRowsEncoded() - encodedBefore);
+        assertEquals(10, manager.getRowsReused() - reusedBefore);
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(testFile);
+        assertEquals(Status.DONE, loadedManager.getSubtaskById(subtask.getId()).getStatus());
+        assertEquals(Status.DONE, loadedManager.getEpicById(epic.getId()).getStatus());
+    }
+
+    @Test
+    void batchShouldSaveSnapshotOnce() {
+        Epic epic = new Epic("Epic", "Desc");
+        manager.createEpic(epic);
+        long encodedBefore = manager.getRowsEncoded();
+
+        List<BatchOperation> operations = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            operations.add(BatchOperation.createSubtask(new Subtask("Subtask " + i, "Desc"), epic.getId()));
+        }
+        manager.applyBatch(operations);
+
+        // Один снимок: 50 новых подзадач и пересчитанный эпик кодируются по одному разу
+        assertEquals(51, manager.getRowsEncoded() - encodedBefore);
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(testFile);
+        assertEquals(50, loadedManager.getEpicSubtasks(epic.getId()).size());
+    }
+
+    @Test
+    void batchShouldJournalFinalStateOfChangedTasks() {
+        FileBackedTaskManager journaled = new FileBackedTaskManager(testFile, DurabilityPolicy.BATCH);
+        Task removed = new Task("Removed", "Desc");
+        journaled.createTask(removed);
+        journaled.flush();
+        long recordsBefore = FileBackedTaskManager.getJournalFile(testFile).length();
+
+        Epic epic = new Epic("Epic", "Desc");
+        Subtask subtask = new Subtask("Subtask", "Desc");
+        subtask.setStatus(Status.DONE);
+        Task task = new Task("Task", "Desc");
+        List<BatchOperationResult> results = journaled.applyBatch(List.of(
+                BatchOperation.createEpic(epic),
+                BatchOperation.createTask(task),
+                BatchOperation.updateTaskStatus(removed.getId(), Status.DONE),
+                BatchOperation.deleteTask(removed.getId())));
+        assertTrue(results.stream().allMatch(BatchOperationResult::isSuccess), results.toString());
+        journaled.applyBatch(List.of(BatchOperation.createSubtask(subtask, epic.getId())));
+        journaled.close();
+
+        assertTrue(FileBackedTaskManager.getJournalFile(testFile).length() > recordsBefore);
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(testFile);
+        assertNull(loadedManager.getTaskById(removed.getId()));
+        assertNotNull(loadedManager.getTaskById(task.getId()));
+        assertEquals(Status.DONE, loadedManager.getEpicById(epic.getId()).getStatus());
+        assertEquals(List.of(subtask.getId()), loadedManager.getEpicById(epic.getId()).getSubtaskIds());
+    }
+
     //Выдать исключение, если файл недоступен для записи
     @Test
     void shouldThrowExeptionWhenFileNotWritable() throws IOException {
@@ -0,0 +1,137 @@
+package tasktracker.manager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tasktracker.models.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdAllocatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void atomicAllocatorShouldNotRepeatIdsUnderContention() throws Exception {
+        AtomicIdAllocator allocator = new AtomicIdAllocator();
+        Set<Integer> ids = allocateConcurrently(List.of(allocator), 8, 10_000);
+
+        assertEquals(80_000, ids.size());
+        allocator.advancePast(100_000);
+        assertEquals(100_001, allocator.nextId());
+        allocator.advancePast(5);
+        assertEquals(100_002, allocator.nextId());
+    }
+
+    @Test
+    void blockAllocatorsSharingLeaseFileShouldNotCollide() throws Exception {
+        File leaseFile = tempDir.resolve("ids.lease").toFile();
+        List<IdAllocator> allocators = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            allocators.add(new BlockIdAllocator(new FileIdBlockSource(leaseFile), 64));
+        }
+
+        Set<Integer> ids = allocateConcurrently(allocators, 8, 2_000);
+
+        assertEquals(16_000, ids.size());
+    }
+
+    @Test
+    void blockAllocatorShouldSkipPastLoadedIds() {
+        File leaseFile = tempDir.resolve("ids.lease").toFile();
+        BlockIdAllocator first = new BlockIdAllocator(new FileIdBlockSource(leaseFile), 10);
+        BlockIdAllocator second = new BlockIdAllocator(new FileIdBlockSource(leaseFile), 10);
+
+        assertEquals(1, first.nextId());
+        first.advancePast(5);
+        assertEquals(6, first.nextId());
+        first.advancePast(50);
+        assertEquals(51, first.nextId());
+        // Второй процесс не получит ID, которые первый уже видел в своём хранилище
+        assertEquals(61, second.nextId());
+    }
+
+    @Test
+    void leaseFileShouldNeverBeEmptyAndEmptyFileShouldBeRejected() throws IOException {
+        File leaseFile = tempDir.resolve("ids.lease").toFile();
+        FileIdBlockSource source = new FileIdBlockSource(leaseFile);
+        assertEquals(1, source.leaseBlock(100));
+        assertEquals(101, Integer.parseInt(Files.readString(leaseFile.toPath()).trim()));
+        assertEquals(101, source.leaseBlock(900));
+        assertEquals(1001, Integer.parseInt(Files.readString(leaseFile.toPath()).trim()));
+
+        // Пустой существующий файл - след сбоя, начинать с 1 нельзя: ID могли быть уже выданы
+        File emptyFile = tempDir.resolve("empty.lease").toFile();
+        assertTrue(emptyFile.createNewFile());
+        assertThrows(ManagerSaveException.class, () -> new FileIdBlockSource(emptyFile).leaseBlock(10));
+    }
+
+    @Test
+    void managersShouldNumberTasksIndependently() {
+        InMemoryTaskManager first = new InMemoryTaskManager();
+        InMemoryTaskManager second = new InMemoryTaskManager();
+        Task a = new Task("Задача", "описание");
+        Task b = new Task("Задача", "описание");
+
+        first.createTask(a);
+        second.createTask(b);
+
+        assertEquals(1, a.getId());
+        assertEquals(1, b.getId());
+    }
+
+    @Test
+    void segmentedStoresWithSharedLeaseShouldNotShareIds() {
+        File leaseFile = tempDir.resolve("ids.lease").toFile();
+        SegmentedFileTaskManager left = new SegmentedFileTaskManager(tempDir.resolve("left").toFile(),
+                new BlockIdAllocator(new FileIdBlockSource(leaseFile), 16));
+        SegmentedFileTaskManager right = new SegmentedFileTaskManager(tempDir.resolve("right").toFile(),
+                new BlockIdAllocator(new FileIdBlockSource(leaseFile), 16));
+
+        Set<Integer> ids = new HashSet<>();
+        for (int i = 0; i < 40; i++) {
+            Task leftTask = new Task("Слева " + i, "описание");
+            Task rightTask = new Task("Справа " + i, "описание");
+            left.createTask(leftTask);
+            right.createTask(rightTask);
+            assertTrue(ids.add(leftTask.getId()));
+            assertTrue(ids.add(rightTask.getId()));
+        }
+    }
+
+    private static Set<Integer> allocateConcurrently(List<IdAllocator> allocators, int threads, int perThread)
+            throws Exception {
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                IdAllocator allocator = allocators.get(t % allocators.size());
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        assertTrue(ids.add(allocator.nextId()), "ID выдан дважды");
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,110 @@
+package tasktracker.manager;
+
+import org.junit.jupiter.api.Test;
+import tasktracker.models.Epic;
+import tasktracker.models.Task;
+import tasktracker.models.TaskType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdRegistryTest {
+
+    @Test
+    void storesShouldStayConsistentWithRegistryAfterRandomOperations() {
+        IdRegistry registry = new IdRegistry();
+        TypedTaskStore<Task> tasks = registry.createStore(TaskType.TASK);
+        TypedTaskStore<Epic> epics = registry.createStore(TaskType.EPIC);
+        Map<Integer, Task> expected = new HashMap<>();
+        Random random = new Random(3);
+
+        for (int i = 0; i < 20_000; i++) {
+            int id = random.nextInt(500) + 1;
+            Task existing = expected.get(id);
+            if (existing != null && random.nextBoolean()) {
+                if (existing instanceof Epic) {
+                    assertSame(existing, epics.remove(id));
+                } else {
+                    assertSame(existing, tasks.remove(id));
+                }
+                expected.remove(id);
+            } else if (existing == null) {
+                Task task = random.nextBoolean() ? new Task("Задача", "описание") : new Epic("Эпик", "описание");
+                task.setId(id);
+                if (task instanceof Epic epic) {
+                    epics.put(id, epic);
+                } else {
+                    tasks.put(id, task);
+                }
+                expected.put(id, task);
+            }
+        }
+
+        assertEquals(expected.size(), registry.size());
+        assertEquals(expected.size(), tasks.size() + epics.size());
+        for (int id = 1; id <= 500; id++) {
+            Task task = expected.get(id);
+            assertSame(task, registry.get(id));
+            assertEquals(task != null && !(task instanceof Epic), tasks.containsKey(id));
+            assertEquals(task instanceof Epic, epics.containsKey(id));
+        }
+        for (Task task : tasks.values()) {
+            assertSame(task, expected.get(task.getId()));
+        }
+    }
+
+    @Test
+    void removalShouldKeepInsertionOrder() {
+        IdRegistry registry = new IdRegistry();
+        TypedTaskStore<Task> tasks = registry.createStore(TaskType.TASK);
+        Map<Integer, Task> expected = new LinkedHashMap<>();
+        Random random = new Random(11);
+
+        for (int i = 0; i < 10_000; i++) {
+            int id = random.nextInt(200) + 1;
+            if (expected.containsKey(id)) {
+                assertSame(expected.remove(id), tasks.remove(id));
+            } else if (random.nextInt(4) == 0) {
+                Task task = new Task("Задача", "описание");
+                task.setId(id);
+                tasks.put(id, task);
+                expected.put(id, task);
+            }
+        }
+
+        assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(tasks.values()));
+        List<Integer> ids = new ArrayList<>();
+        tasks.forEachKey(ids::add);
+        assertEquals(new ArrayList<>(expected.keySet()), ids);
+        for (Task task : expected.values()) {
+            assertSame(task, registry.get(task.getId()));
+        }
+    }
+
+    @Test
+    void idShouldNotBeReusedByAnotherType() {
+        IdRegistry registry = new IdRegistry();
+        TypedTaskStore<Task> tasks = registry.createStore(TaskType.TASK);
+        TypedTaskStore<Epic> epics = registry.createStore(TaskType.EPIC);
+        Task task = new Task("Задача", "описание");
+        task.setId(7);
+        tasks.put(7, task);
+
+        Epic epic = new Epic("Эпик", "описание");
+        epic.setId(7);
+        assertThrows(IllegalStateException.class, () -> epics.put(7, epic));
+        assertEquals(TaskType.TASK, registry.typeOf(7));
+        assertNull(epics.get(7));
+
+        tasks.clear();
+        assertFalse(registry.contains(7));
+        epics.put(7, epic);
+        assertEquals(TaskType.EPIC, registry.typeOf(7));
+    }
+}
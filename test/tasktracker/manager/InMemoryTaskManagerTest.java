@@ -7,6 +7,11 @@ import tasktracker.models.Status;
 import tasktracker.models.Subtask;
 import tasktracker.models.Task;
 
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
@@ -103,6 +108,34 @@ public class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager
         assertEquals(testStatus, returnedTask.getStatus());
     }
 
+    @Test
+    void viewsShouldBeLiveAndFailFast() {
+        InMemoryTaskManager live = new InMemoryTaskManager();
+        Epic liveEpic = new Epic("эпик", "описание");
+        live.createEpic(liveEpic);
+        Collection<Task> tasksView = live.getTasksView();
+        List<Subtask> epicSubtasks = live.getEpicSubtasksView(liveEpic.getId());
+
+        live.createTask(new Task("задача", "описание"));
+        Subtask liveSubtask = new Subtask("подзадача", "описание");
+        live.createSubtask(liveSubtask, liveEpic.getId());
+        assertEquals(1, tasksView.size());
+        assertEquals(List.of(liveSubtask), epicSubtasks);
+
+        Epic replacement = new Epic("новый эпик", "описание");
+        replacement.setId(liveEpic.getId());
+        replacement.getSubtaskIds().addInt(liveSubtask.getId());
+        live.updateEpic(replacement);
+        assertEquals(List.of(liveSubtask), epicSubtasks, "Представление ищет эпик по ID");
+
+        Iterator<Task> iterator = tasksView.iterator();
+        live.createTask(new Task("ещё задача", "описание"));
+        assertThrows(ConcurrentModificationException.class, iterator::next);
+
+        live.deleteEpicById(liveEpic.getId());
+        assertTrue(epicSubtasks.isEmpty());
+    }
+
     @Override
     protected InMemoryTaskManager createManager() {
         return new InMemoryTaskManager();
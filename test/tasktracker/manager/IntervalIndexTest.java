@@ -0,0 +1,107 @@
+package tasktracker.manager;
+
+import org.junit.jupiter.api.Test;
+import tasktracker.models.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntervalIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private Task task(int id, int startMinute, int minutes) {
+        Task task = new Task("Задача " + id, "описание");
+        task.setId(id);
+        task.setStartTime(BASE.plusMinutes(startMinute));
+        task.setDuration(Duration.ofMinutes(minutes));
+        return task;
+    }
+
+    private boolean overlapsBruteForce(List<Task> tasks, LocalDateTime start, LocalDateTime end, int excludeId) {
+        for (Task task : tasks) {
+            if (task.getId() != excludeId && task.getStartTime().isBefore(end) && start.isBefore(task.getEndTime())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    void shouldMatchBruteForceOnRandomIntervals() {
+        Random random = new Random(42);
+        IntervalIndex index = new IntervalIndex();
+        List<Task> live = new ArrayList<>();
+
+        for (int id = 1; id <= 2000; id++) {
+            Task task = task(id, random.nextInt(10_000), random.nextInt(60));
+            index.add(task);
+            live.add(task);
+            if (random.nextInt(4) == 0) {
+                Task removed = live.remove(random.nextInt(live.size()));
+                index.remove(removed.getId());
+            }
+        }
+        assertEquals(live.size(), index.size());
+
+        for (int i = 0; i < 5000; i++) {
+            LocalDateTime start = BASE.plusMinutes(random.nextInt(10_100));
+            LocalDateTime end = start.plusMinutes(random.nextInt(30));
+            int excludeId = live.get(random.nextInt(live.size())).getId();
+            assertEquals(overlapsBruteForce(live, start, end, excludeId),
+                    index.findOverlap(start, end, excludeId) != null, "Отрезок " + start + " - " + end);
+        }
+    }
+
+    @Test
+    void touchingIntervalsShouldNotOverlap() {
+        IntervalIndex index = new IntervalIndex();
+        index.add(task(1, 0, 30));
+
+        assertNull(index.findOverlap(BASE.plusMinutes(30), BASE.plusMinutes(60), 2));
+        assertNull(index.findOverlap(BASE.minusMinutes(30), BASE, 2));
+        assertEquals(1, index.findOverlap(BASE.plusMinutes(29), BASE.plusMinutes(31), 2));
+        assertNull(index.findOverlap(BASE.plusMinutes(10), BASE.plusMinutes(20), 1), "Задача не пересекается сама с собой");
+    }
+
+    @Test
+    void removeShouldUseKeyFromInsertion() {
+        IntervalIndex index = new IntervalIndex();
+        Task task = task(1, 0, 30);
+        index.add(task);
+
+        // Задачу изменили снаружи после вставки
+        task.setStartTime(BASE.plusDays(1));
+        index.remove(1);
+
+        assertEquals(0, index.size());
+        assertNull(index.findOverlap(BASE, BASE.plusMinutes(30), 2));
+    }
+
+    @Test
+    void maxEndBeforeShouldConsiderOnlyEarlierStarts() {
+        IntervalIndex index = new IntervalIndex();
+        index.add(task(1, 0, 120));
+        index.add(task(2, 30, 10));
+        index.add(task(3, 200, 500));
+
+        assertNull(index.maxEndBefore(BASE));
+        assertEquals(BASE.plusMinutes(120), index.maxEndBefore(BASE.plusMinutes(31)));
+        assertEquals(BASE.plusMinutes(700), index.maxEndBefore(BASE.plusMinutes(201)));
+    }
+
+    @Test
+    void tasksWithoutTimeShouldBeIgnored() {
+        IntervalIndex index = new IntervalIndex();
+        Task task = new Task("Без времени", "описание");
+        task.setId(1);
+        index.add(task);
+
+        assertEquals(0, index.size());
+    }
+}
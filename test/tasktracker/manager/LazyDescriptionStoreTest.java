@@ -0,0 +1,172 @@
+package tasktracker.manager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tasktracker.models.Epic;
+import tasktracker.models.Status;
+import tasktracker.models.Subtask;
+import tasktracker.models.Task;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LazyDescriptionStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File createBoard() {
+        File file = tempDir.resolve("board.csv").toFile();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        manager.createTask(new Task("Задача", "Описание, с запятой и \"кавычками\""));
+        Epic epic = new Epic("Эпик", "Описание эпика — юникод ✓ 😀");
+        manager.createEpic(epic);
+        manager.createSubtask(new Subtask("Подзадача", "Описание подзадачи"), epic.getId());
+        manager.close();
+        return file;
+    }
+
+    @Test
+    void descriptionsShouldBeReadOnFirstAccess() {
+        File file = createBoard();
+        FileBackedTaskManager eager = FileBackedTaskManager.loadFromFile(file);
+        FileBackedTaskManager lazy = FileBackedTaskManager.loadLazily(file, 16);
+        LazyDescriptionStore store = lazy.getDescriptionStore();
+
+        for (Task task : lazy.getTasks()) {
+            assertFalse(task.isDescriptionLoaded());
+        }
+        assertEquals(0, store.getReads());
+
+        for (Task task : eager.getTasks()) {
+            assertEquals(task.getDescription(), lazy.getTaskById(task.getId()).getDescription());
+        }
+        for (Epic epic : eager.getEpics()) {
+            assertEquals(epic.getDescription(), lazy.getEpicById(epic.getId()).getDescription());
+        }
+        for (Subtask subtask : eager.getSubtasks()) {
+            assertEquals(subtask.getDescription(), lazy.getSubtaskById(subtask.getId()).getDescription());
+        }
+        lazy.close();
+    }
+
+    @Test
+    void rowsAcrossReadBlocksShouldKeepOffsets() throws Exception {
+        File file = tempDir.resolve("big.csv").toFile();
+        StringBuilder csv = new StringBuilder(CSVFormatter.getHeader()).append("\r\n");
+        // Строки разной длины с кириллицей: границы блоков чтения попадают внутрь строк и символов
+        for (int id = 1; id <= 2_000; id++) {
+            csv.append(id).append(",TASK,Задача ").append(id).append(",NEW,")
+                    .append("Описание ").append("ж".repeat(id % 97)).append(",,,,\r\n");
+        }
+        Files.writeString(file.toPath(), csv, StandardCharsets.UTF_8);
+
+        FileBackedTaskManager lazy = FileBackedTaskManager.loadLazily(file, 0);
+        assertEquals(2_000, lazy.getTasks().size());
+        for (int id = 1; id <= 2_000; id++) {
+            assertEquals("Описание " + "ж".repeat(id % 97), lazy.getTaskById(id).getDescription());
+        }
+        lazy.close();
+    }
+
+    @Test
+    void saveShouldCopyUnchangedRowsWithoutReadingDescriptions() {
+        File file = createBoard();
+        FileBackedTaskManager lazy = FileBackedTaskManager.loadLazily(file, 0);
+        LazyDescriptionStore store = lazy.getDescriptionStore();
+        Task task = lazy.getTasks().getFirst();
+        Subtask subtask = lazy.getSubtasks().getFirst();
+        long encodedBefore = lazy.getRowsEncoded();
+
+        lazy.updateTaskStatus(task.getId(), Status.IN_PROGRESS);
+        assertEquals(1, lazy.getRowsEncoded() - encodedBefore, "Кодируется только изменённая задача");
+        assertEquals(1, store.getReads(), "Описание читается только у изменённой задачи");
+
+        lazy.updateSubtaskStatus(subtask.getId(), Status.DONE);
+        assertEquals(3, lazy.getRowsEncoded() - encodedBefore, "Подзадача и её эпик");
+        lazy.close();
+
+        FileBackedTaskManager reloaded = FileBackedTaskManager.loadFromFile(file);
+        assertEquals(Status.IN_PROGRESS, reloaded.getTaskById(task.getId()).getStatus());
+        assertEquals("Описание, с запятой и \"кавычками\"", reloaded.getTaskById(task.getId()).getDescription());
+        assertEquals("Описание эпика — юникод ✓ 😀", reloaded.getEpics().getFirst().getDescription());
+        assertEquals(Status.DONE, reloaded.getSubtaskById(subtask.getId()).getStatus());
+        assertEquals("Описание подзадачи", reloaded.getSubtaskById(subtask.getId()).getDescription());
+    }
+
+    @Test
+    void cacheShouldBeBounded() {
+        File file = createBoard();
+        FileBackedTaskManager lazy = FileBackedTaskManager.loadLazily(file, 1);
+        LazyDescriptionStore store = lazy.getDescriptionStore();
+
+        Task task = lazy.getTasks().getFirst();
+        task.getDescription();
+        task.getDescription();
+        assertEquals(1, store.getReads());
+        assertEquals(1, store.getCacheHits());
+
+        lazy.getEpics().getFirst().getDescription();
+        assertEquals(1, store.getCachedCount());
+        task.getDescription();
+        assertEquals(3, store.getReads(), "Вытесненное описание должно читаться заново");
+        lazy.close();
+    }
+
+    @Test
+    void saveShouldRebindOffsets() {
+        File file = createBoard();
+        FileBackedTaskManager lazy = FileBackedTaskManager.loadLazily(file, 0);
+
+        Task task = lazy.getTasks().getFirst();
+        Epic epic = lazy.getEpics().getFirst();
+        String epicDescription = epic.getDescription();
+
+        // Новое описание длиннее старого: строки после него сдвигаются в файле
+        Task updated = new Task(task.getTitle(), "Значительно более длинное описание задачи, чем было раньше");
+        updated.setId(task.getId());
+        lazy.updateTask(updated);
+        lazy.updateTaskStatus(task.getId(), Status.DONE);
+
+        assertFalse(lazy.getTaskById(task.getId()).isDescriptionLoaded());
+        assertEquals("Значительно более длинное описание задачи, чем было раньше",
+                lazy.getTaskById(task.getId()).getDescription());
+        assertEquals(epicDescription, lazy.getEpicById(epic.getId()).getDescription());
+        assertEquals("Описание подзадачи", lazy.getSubtasks().getFirst().getDescription());
+        lazy.close();
+
+        FileBackedTaskManager reloaded = FileBackedTaskManager.loadFromFile(file);
+        assertEquals("Значительно более длинное описание задачи, чем было раньше",
+                reloaded.getTaskById(task.getId()).getDescription());
+        assertEquals(epicDescription, reloaded.getEpicById(epic.getId()).getDescription());
+    }
+
+    @Test
+    void lazyModeShouldWorkWithJournal() {
+        File file = createBoard();
+        FileBackedTaskManager lazy = FileBackedTaskManager.loadLazily(file, DurabilityPolicy.SYNC, 8);
+        Task task = new Task("Новая", "Описание из журнала");
+        lazy.createTask(task);
+        lazy.close();
+
+        FileBackedTaskManager reloaded = FileBackedTaskManager.loadLazily(file, 8);
+        assertEquals("Описание из журнала", reloaded.getTaskById(task.getId()).getDescription());
+        reloaded.save();
+        assertEquals("Описание из журнала", reloaded.getTaskById(task.getId()).getDescription());
+        reloaded.close();
+    }
+
+    @Test
+    void binarySnapshotShouldBeRejected() {
+        File file = tempDir.resolve("board" + SnapshotFormat.BINARY_EXTENSION).toFile();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        manager.createTask(new Task("Задача", "описание"));
+        manager.close();
+
+        assertThrows(IllegalArgumentException.class, () -> FileBackedTaskManager.loadLazily(file, 8));
+    }
+}
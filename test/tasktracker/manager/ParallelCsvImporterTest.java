@@ -0,0 +1,112 @@
+package tasktracker.manager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tasktracker.models.Epic;
+import tasktracker.models.Status;
+import tasktracker.models.Task;
+import tasktracker.models.TaskType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelCsvImporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File writeBoard(List<String> extraRows) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(CSVFormatter.getHeader());
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        int id = 1;
+        for (int epic = 0; epic < 50; epic++) {
+            int epicId = id++;
+            lines.add(epicId + ",EPIC,Эпик " + epicId + ",NEW,описание,,,0,");
+            for (int sub = 0; sub < 20; sub++) {
+                LocalDateTime subStart = start.plusMinutes(15L * id);
+                lines.add(id + ",SUBTASK,\"Подзадача, " + id + "\",NEW,описание," + epicId + ","
+                        + subStart + ",15," + subStart.plusMinutes(15));
+                id++;
+            }
+        }
+        for (int task = 0; task < 1000; task++) {
+            lines.add(id + ",TASK,Задача " + id + ",DONE,описание,,,,");
+            id++;
+        }
+        lines.addAll(extraRows);
+        File file = tempDir.resolve("board.csv").toFile();
+        Files.write(file.toPath(), lines);
+        return file;
+    }
+
+    @Test
+    void importShouldMatchSequentialLoad() throws IOException {
+        File file = writeBoard(List.of());
+
+        FileBackedTaskManager imported = FileBackedTaskManager.importFromFile(file, 4);
+        ImportReport report = imported.getLastImportReport();
+
+        assertEquals(2050, report.getRowsParsed());
+        assertEquals(2050, report.getInserted());
+        assertFalse(report.hasConflicts(), report.getConflicts().toString());
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+        assertEquals(loaded.getTasks().size(), imported.getTasks().size());
+        assertEquals(loaded.getSubtasks().size(), imported.getSubtasks().size());
+        assertEquals(loaded.getPrioritizedTasks(), imported.getPrioritizedTasks());
+        for (Epic epic : loaded.getEpics()) {
+            Epic importedEpic = imported.getEpicById(epic.getId());
+            assertEquals(epic.getSubtaskIds().size(), importedEpic.getSubtaskIds().size());
+            assertEquals(epic.getStartTime(), importedEpic.getStartTime());
+            assertEquals(epic.getDuration(), importedEpic.getDuration());
+        }
+
+        Task created = new Task("Новая", "После импорта");
+        imported.createTask(created);
+        assertEquals(2051, created.getId(), "ID должен продолжиться после импорта");
+    }
+
+    @Test
+    void importShouldReportConflicts() throws IOException {
+        File file = writeBoard(List.of(
+                "5,TASK,Дубликат,NEW,описание,,,,",
+                "9000,SUBTASK,Сирота,NEW,описание,8999,,,",
+                "9001,TASK,Пересечение,NEW,описание,,2025-01-01T00:30,15,2025-01-01T00:45",
+                "битая строка"));
+
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        ImportReport report = new ParallelCsvImporter(3).importInto(manager, file);
+
+        assertEquals(4, report.getConflictCount(), report.getConflicts().toString());
+        assertNull(manager.getSubtaskById(9000), "Подзадача без эпика не должна вставляться");
+        assertNotNull(manager.getTaskById(9001), "Пересекающаяся задача вставляется и попадает в отчёт");
+        assertEquals("Подзадача, 5", manager.getSubtaskById(5).getTitle(), "При дубликате остаётся первая запись");
+    }
+
+    @Test
+    void importShouldRecalculateEpicStatus() throws IOException {
+        File file = tempDir.resolve("epics.csv").toFile();
+        Files.write(file.toPath(), List.of(CSVFormatter.getHeader(),
+                "1,EPIC,Устаревший статус,NEW,описание,,,0,",
+                "2,SUBTASK,Готова,DONE,описание,1,,,",
+                "3,SUBTASK,Готова,DONE,описание,1,,,",
+                "4,EPIC,Смешанный,DONE,описание,,,0,",
+                "5,SUBTASK,Новая,NEW,описание,4,,,",
+                "6,SUBTASK,Готова,DONE,описание,4,,,"));
+
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        new ParallelCsvImporter(2).importInto(manager, file);
+
+        assertEquals(Status.DONE, manager.getEpicById(1).getStatus());
+        assertEquals(Status.IN_PROGRESS, manager.getEpicById(4).getStatus());
+        assertEquals(1, manager.countByStatus(TaskType.EPIC, Status.DONE), "Индекс статусов должен следовать за эпиком");
+    }
+}
@@ -0,0 +1,138 @@
+package tasktracker.manager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tasktracker.models.Epic;
+import tasktracker.models.Status;
+import tasktracker.models.Subtask;
+import tasktracker.models.Task;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SegmentedFileTaskManagerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void mutationShouldRewriteOnlyAffectedSegment() {
+        File directory = tempDir.resolve("board").toFile();
+        SegmentedFileTaskManager manager = new SegmentedFileTaskManager(directory);
+
+        Epic first = new Epic("Эпик 1", "описание");
+        Epic second = new Epic("Эпик 2", "описание");
+        manager.createEpic(first);
+        manager.createEpic(second);
+        Subtask subtask = new Subtask("Подзадача", "описание");
+        manager.createSubtask(subtask, first.getId());
+        manager.createSubtask(new Subtask("Подзадача 2", "описание"), second.getId());
+        manager.createTask(new Task("Задача", "описание"));
+
+        assertTrue(new File(directory, SegmentedFileTaskManager.segmentName(first.getId())).exists());
+        assertTrue(new File(directory, SegmentedFileTaskManager.segmentName(second.getId())).exists());
+        assertTrue(new File(directory, SegmentedFileTaskManager.MANIFEST).exists());
+
+        long before = manager.getSegmentsWritten();
+        manager.updateSubtaskStatus(subtask.getId(), Status.DONE);
+        assertEquals(before + 1, manager.getSegmentsWritten(), "Должен перезаписаться только сегмент эпика");
+    }
+
+    @Test
+    void loadShouldRestoreAllSegments() {
+        File directory = tempDir.resolve("board").toFile();
+        SegmentedFileTaskManager manager = new SegmentedFileTaskManager(directory);
+
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0);
+        for (int e = 0; e < 5; e++) {
+            Epic epic = new Epic("Эпик " + e, "описание");
+            manager.createEpic(epic);
+            for (int s = 0; s < 3; s++) {
+                Subtask subtask = new Subtask("Подзадача, " + e + "-" + s, "описание");
+                subtask.setStartTime(start.plusHours(e * 3L + s));
+                subtask.setDuration(Duration.ofMinutes(30));
+                manager.createSubtask(subtask, epic.getId());
+            }
+        }
+        manager.createTask(new Task("Задача", "описание"));
+
+        SegmentedFileTaskManager loaded = SegmentedFileTaskManager.loadFromDirectory(directory, 4);
+
+        assertEquals(manager.getTasks(), loaded.getTasks());
+        assertEquals(manager.getEpics(), loaded.getEpics());
+        assertEquals(manager.getSubtasks(), loaded.getSubtasks());
+        for (Epic epic : manager.getEpics()) {
+            Epic restored = loaded.getEpicById(epic.getId());
+            assertEquals(epic.getSubtaskIds(), restored.getSubtaskIds());
+            assertEquals(epic.getStartTime(), restored.getStartTime());
+            assertEquals(epic.getDuration(), restored.getDuration());
+        }
+        assertEquals(manager.getPrioritizedTasks(), loaded.getPrioritizedTasks());
+        assertEquals(manager.getSegmentIds(), loaded.getSegmentIds());
+    }
+
+    @Test
+    void deletedEpicShouldDropItsSegment() {
+        File directory = tempDir.resolve("board").toFile();
+        SegmentedFileTaskManager manager = new SegmentedFileTaskManager(directory);
+
+        Epic epic = new Epic("Эпик", "описание");
+        manager.createEpic(epic);
+        manager.createSubtask(new Subtask("Подзадача", "описание"), epic.getId());
+        File segment = new File(directory, SegmentedFileTaskManager.segmentName(epic.getId()));
+        assertTrue(segment.exists());
+
+        manager.deleteEpicById(epic.getId());
+
+        assertFalse(segment.exists());
+        assertFalse(manager.getSegmentIds().contains(epic.getId()));
+        SegmentedFileTaskManager loaded = SegmentedFileTaskManager.loadFromDirectory(directory, 2);
+        assertTrue(loaded.getEpics().isEmpty());
+        assertTrue(loaded.getSubtasks().isEmpty());
+    }
+
+    @Test
+    void deleteAllEpicsShouldRemoveSegmentFiles() {
+        File directory = tempDir.resolve("board").toFile();
+        SegmentedFileTaskManager manager = new SegmentedFileTaskManager(directory);
+
+        manager.createEpic(new Epic("Эпик 1", "описание"));
+        manager.createEpic(new Epic("Эпик 2", "описание"));
+        manager.createTask(new Task("Задача", "описание"));
+
+        manager.deleteAllEpics();
+
+        String[] files = directory.list((dir, name) -> name.startsWith("epic-"));
+        assertNotNull(files);
+        assertEquals(0, files.length);
+        SegmentedFileTaskManager loaded = SegmentedFileTaskManager.loadFromDirectory(directory, 2);
+        assertEquals(1, loaded.getTasks().size());
+    }
+
+    @Test
+    void batchShouldWriteEachSegmentOnce() {
+        File directory = tempDir.resolve("board").toFile();
+        SegmentedFileTaskManager manager = new SegmentedFileTaskManager(directory);
+        Epic epic = new Epic("Эпик", "описание");
+        manager.createEpic(epic);
+        long before = manager.getSegmentsWritten();
+
+        List<BatchOperation> operations = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            operations.add(BatchOperation.createSubtask(new Subtask("Подзадача " + i, "описание"), epic.getId()));
+        }
+        operations.add(BatchOperation.createTask(new Task("Задача", "описание")));
+        manager.applyBatch(operations);
+
+        assertEquals(before + 2, manager.getSegmentsWritten(), "Сегмент эпика и сегмент задач - по одной записи");
+        SegmentedFileTaskManager loaded = SegmentedFileTaskManager.loadFromDirectory(directory, 2);
+        assertEquals(20, loaded.getEpicSubtasks(epic.getId()).size());
+        assertEquals(1, loaded.getTasks().size());
+    }
+}
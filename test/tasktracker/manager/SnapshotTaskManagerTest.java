@@ -0,0 +1,136 @@
+package tasktracker.manager;
+
+import org.junit.jupiter.api.Test;
+import tasktracker.models.Epic;
+import tasktracker.models.Status;
+import tasktracker.models.Subtask;
+import tasktracker.models.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotTaskManagerTest extends TaskManagerTest<SnapshotTaskManager> {
+
+    @Override
+    protected SnapshotTaskManager createManager() {
+        return new SnapshotTaskManager();
+    }
+
+    @Test
+    void oldSnapshotShouldNotSeeLaterWrites() {
+        Epic epic = new Epic("Эпик", "описание");
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Подзадача", "описание");
+        manager.createSubtask(subtask, epic.getId());
+        BoardSnapshot before = manager.snapshot();
+
+        manager.updateSubtaskStatus(subtask.getId(), Status.DONE);
+        manager.createTask(new Task("Задача", "описание"));
+
+        assertEquals(Status.NEW, before.getSubtask(subtask.getId()).getStatus());
+        assertEquals(Status.NEW, before.getEpic(epic.getId()).getStatus());
+        assertTrue(before.getTasks().isEmpty());
+
+        BoardSnapshot after = manager.snapshot();
+        assertTrue(after.getVersion() > before.getVersion());
+        assertEquals(Status.DONE, after.getEpic(epic.getId()).getStatus());
+        assertEquals(1, after.getTasks().size());
+        assertEquals(List.of(after.getSubtask(subtask.getId())), after.getEpicSubtasks(epic.getId()));
+    }
+
+    @Test
+    void viewsShouldStayOnVersionOfCall() {
+        Epic epic = new Epic("Эпик", "описание");
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Подзадача", "описание");
+        manager.createSubtask(subtask, epic.getId());
+        Collection<Task> tasksView = manager.getTasksView();
+        List<Subtask> epicSubtasks = manager.getEpicSubtasksView(epic.getId());
+
+        manager.createTask(new Task("Задача", "описание"));
+        manager.deleteSubtaskById(subtask.getId());
+
+        assertTrue(tasksView.isEmpty());
+        assertEquals(1, epicSubtasks.size());
+        assertEquals(1, manager.getTasksView().size());
+        assertTrue(manager.getEpicSubtasksView(epic.getId()).isEmpty());
+    }
+
+    @Test
+    void batchShouldPublishOneVersion() {
+        long before = manager.snapshot().getVersion();
+        List<BatchOperation> operations = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            operations.add(BatchOperation.createTask(new Task("Задача " + i, "описание")));
+        }
+
+        manager.applyBatch(operations);
+
+        assertEquals(before + 1, manager.snapshot().getVersion());
+        assertEquals(10, manager.snapshot().getTasks().size());
+    }
+
+    // Писатель переносит задачи между двумя эпиками так, что у каждого эпика всегда ровно одна подзадача
+    // в статусе DONE. Читатель в любой версии должен видеть это равенство
+    @Test
+    void readersShouldSeeConsistentVersionsWhileWriterRuns() throws Exception {
+        Epic epic = new Epic("Эпик", "описание");
+        manager.createEpic(epic);
+        List<Subtask> subtasks = new ArrayList<>();
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int i = 0; i < 10; i++) {
+            Subtask subtask = new Subtask("Подзадача " + i, "описание");
+            subtask.setStartTime(base.plusHours(i));
+            subtask.setDuration(Duration.ofMinutes(30));
+            manager.createSubtask(subtask, epic.getId());
+            subtasks.add(subtask);
+        }
+        manager.updateSubtaskStatus(subtasks.getFirst().getId(), Status.DONE);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        List<Future<?>> readers = new ArrayList<>();
+        for (int r = 0; r < 2; r++) {
+            readers.add(executor.submit(() -> {
+                while (running.get()) {
+                    BoardSnapshot snapshot = manager.snapshot();
+                    long done = snapshot.getSubtasks().stream().filter(s -> s.getStatus() == Status.DONE).count();
+                    assertEquals(1, done, "Версия " + snapshot.getVersion());
+                    assertEquals(Status.IN_PROGRESS, snapshot.getEpic(epic.getId()).getStatus());
+                    assertEquals(10, snapshot.getPrioritizedTasks().size());
+                }
+                return null;
+            }));
+        }
+
+        Future<?> writer = executor.submit(() -> {
+            for (int i = 1; i < 2_000; i++) {
+                Subtask previous = subtasks.get((i - 1) % subtasks.size());
+                Subtask next = subtasks.get(i % subtasks.size());
+                manager.applyBatch(List.of(
+                        BatchOperation.updateSubtaskStatus(previous.getId(), Status.NEW),
+                        BatchOperation.updateSubtaskStatus(next.getId(), Status.DONE)));
+            }
+            return null;
+        });
+        try {
+            writer.get(60, TimeUnit.SECONDS);
+        } finally {
+            running.set(false);
+        }
+        for (Future<?> reader : readers) {
+            reader.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,103 @@
+package tasktracker.manager;
+
+import org.junit.jupiter.api.Test;
+import tasktracker.models.Epic;
+import tasktracker.models.Status;
+import tasktracker.models.Subtask;
+import tasktracker.models.Task;
+import tasktracker.models.TaskType;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatusIndexTest {
+
+    @Test
+    void countsShouldMatchScanAfterRandomOperations() {
+        StatusIndex index = new StatusIndex();
+        Map<Integer, Task> expected = new HashMap<>();
+        Random random = new Random(5);
+        Status[] statuses = Status.values();
+
+        for (int i = 0; i < 20_000; i++) {
+            int id = random.nextInt(300) + 1;
+            if (expected.containsKey(id) && random.nextInt(4) == 0) {
+                index.remove(id);
+                expected.remove(id);
+                continue;
+            }
+            Task task = expected.get(id);
+            if (task == null) {
+                task = switch (id % 3) {
+                    case 0 -> new Task("Задача", "описание");
+                    case 1 -> new Epic("Эпик", "описание");
+                    default -> new Subtask("Подзадача", "описание");
+                };
+                task.setId(id);
+                expected.put(id, task);
+            }
+            // Статус меняется до переиндексации, как в менеджере
+            task.setStatus(statuses[random.nextInt(statuses.length)]);
+            index.put(task);
+        }
+
+        for (TaskType type : TaskType.values()) {
+            int typeTotal = 0;
+            for (Status status : statuses) {
+                long scanned = expected.values().stream()
+                        .filter(task -> typeOf(task) == type && task.getStatus() == status)
+                        .count();
+                assertEquals(scanned, index.count(type, status));
+                assertEquals(scanned, index.ids(type, status).length);
+                typeTotal += index.count(type, status);
+            }
+            assertEquals(typeTotal, index.count(type));
+        }
+        for (Status status : statuses) {
+            int[] ids = index.ids(status);
+            assertEquals(index.count(status), ids.length);
+            for (int i = 1; i < ids.length; i++) {
+                assertTrue(ids[i - 1] < ids[i], "ID должны идти по возрастанию");
+            }
+        }
+    }
+
+    @Test
+    void clearShouldDropOnlyOneType() {
+        StatusIndex index = new StatusIndex();
+        Task task = new Task("Задача", "описание");
+        task.setId(1);
+        Epic epic = new Epic("Эпик", "описание");
+        epic.setId(2);
+        index.put(task);
+        index.put(epic);
+
+        index.clear(TaskType.TASK);
+        assertEquals(0, index.count(TaskType.TASK));
+        assertEquals(1, index.count(Status.NEW));
+
+        index.put(task);
+        assertEquals(2, index.count(Status.NEW), "После очистки задачу можно добавить заново");
+    }
+
+    @Test
+    void taskWithoutStatusShouldCountOnlyByType() {
+        StatusIndex index = new StatusIndex();
+        Task task = new Task("Задача", "описание");
+        task.setId(1);
+        task.setStatus(null);
+        index.put(task);
+
+        assertEquals(1, index.count(TaskType.TASK));
+        assertEquals(0, index.count(Status.NEW));
+        assertThrows(IllegalArgumentException.class, () -> index.count(TaskType.TASK, null));
+    }
+
+    private static TaskType typeOf(Task task) {
+        if (task instanceof Epic) return TaskType.EPIC;
+        return task instanceof Subtask ? TaskType.SUBTASK : TaskType.TASK;
+    }
+}
@@ -7,7 +7,10 @@ import tasktracker.models.*;
 import java.io.IOException;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.SortedSet;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -30,6 +33,26 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals(task, manager.getTaskById(task.getId()));
     }
 
+    @Test
+    void getById_shouldFindAnyTypeAndRespectTypedGetters() {
+        Task task = new Task("Задача", "описание");
+        Epic epic = new Epic("Эпик", "описание");
+        manager.createTask(task);
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Подзадача", "описание");
+        manager.createSubtask(subtask, epic.getId());
+
+        assertEquals(task, manager.getById(task.getId()));
+        assertEquals(epic, manager.getById(epic.getId()));
+        assertEquals(subtask, manager.getById(subtask.getId()));
+        assertNull(manager.getTaskById(epic.getId()));
+        assertNull(manager.getEpicById(subtask.getId()));
+
+        manager.deleteTaskById(task.getId());
+        assertNull(manager.getById(task.getId()));
+        assertEquals(subtask, manager.getById(subtask.getId()));
+    }
+
     @Test
     void createEpic_shouldAddEpic() {
         Epic epic = new Epic("Test Epic", "Description");
@@ -71,6 +94,311 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals("Task 1", prioritized.get(1).getTitle());
     }
 
+    @Test
+    void getPrioritizedTasksInRange_shouldReturnLiveWindow() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int hour = 0; hour < 48; hour += 2) {
+            Task task = new Task("Task " + hour, "Desc");
+            task.setStartTime(base.plusHours(hour));
+            task.setDuration(Duration.ofHours(1));
+            manager.createTask(task);
+        }
+
+        SortedSet<Task> window = manager.getPrioritizedTasks(base.plusHours(10), base.plusHours(20));
+        assertEquals(5, window.size());
+        assertEquals(base.plusHours(10), window.first().getStartTime());
+        assertEquals(base.plusHours(18), window.last().getStartTime());
+        assertThrows(UnsupportedOperationException.class, () -> window.remove(window.first()));
+
+        Task late = new Task("Late", "Desc");
+        late.setStartTime(base.plusHours(19));
+        late.setDuration(Duration.ofMinutes(30));
+        manager.createTask(late);
+        assertEquals(6, window.size(), "Представление должно видеть новые задачи");
+
+        assertTrue(manager.getPrioritizedTasks(base.plusDays(10), base.plusDays(11)).isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.getPrioritizedTasks(base.plusHours(2), base.plusHours(1)));
+    }
+
+    @Test
+    void views_shouldMatchCopiesAndRejectModification() {
+        Task task = new Task("Задача", "описание");
+        task.setStartTime(LocalDateTime.of(2025, 1, 1, 10, 0));
+        task.setDuration(Duration.ofMinutes(30));
+        manager.createTask(task);
+        Epic epic = new Epic("Эпик", "описание");
+        manager.createEpic(epic);
+        Subtask first = new Subtask("Первая", "описание");
+        Subtask second = new Subtask("Вторая", "описание");
+        manager.createSubtask(first, epic.getId());
+        manager.createSubtask(second, epic.getId());
+
+        assertEquals(manager.getTasks(), new ArrayList<>(manager.getTasksView()));
+        assertEquals(manager.getEpics(), new ArrayList<>(manager.getEpicsView()));
+        assertEquals(manager.getSubtasks(), new ArrayList<>(manager.getSubtasksView()));
+        assertEquals(manager.getEpicSubtasks(epic.getId()), manager.getEpicSubtasksView(epic.getId()));
+        assertEquals(manager.getPrioritizedTasks(), new ArrayList<>(manager.getPrioritizedTasksView()));
+        assertTrue(manager.getEpicSubtasksView(Integer.MAX_VALUE).isEmpty());
+        assertEquals(2, manager.getSubtasksView().stream().filter(s -> s.getEpicId() == epic.getId()).count());
+
+        Collection<Task> tasksView = manager.getTasksView();
+        assertThrows(UnsupportedOperationException.class, () -> tasksView.add(new Task("Чужая", "описание")));
+        assertThrows(UnsupportedOperationException.class, tasksView::clear);
+        assertThrows(UnsupportedOperationException.class,
+                () -> manager.getEpicSubtasksView(epic.getId()).remove(0));
+        assertThrows(UnsupportedOperationException.class,
+                () -> manager.getPrioritizedTasksView().remove(task));
+    }
+
+    @Test
+    void forEach_shouldVisitEveryTask() {
+        Task task = new Task("Задача", "описание");
+        manager.createTask(task);
+        Epic epic = new Epic("Эпик", "описание");
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Подзадача", "описание");
+        subtask.setStartTime(LocalDateTime.of(2025, 1, 1, 10, 0));
+        subtask.setDuration(Duration.ofMinutes(30));
+        manager.createSubtask(subtask, epic.getId());
+
+        List<Task> visited = new ArrayList<>();
+        manager.forEachTask(visited::add);
+        manager.forEachEpic(visited::add);
+        manager.forEachSubtask(visited::add);
+        assertEquals(List.of(task, epic, subtask), visited);
+
+        List<Task> prioritized = new ArrayList<>();
+        manager.forEachPrioritized(prioritized::add);
+        assertEquals(manager.getPrioritizedTasks(), prioritized);
+    }
+
+    @Test
+    void statusIndex_shouldFollowCreateUpdateAndDelete() {
+        Task task = new Task("Задача", "описание");
+        manager.createTask(task);
+        Epic epic = new Epic("Эпик", "описание");
+        manager.createEpic(epic);
+        Subtask first = new Subtask("Первая", "описание");
+        Subtask second = new Subtask("Вторая", "описание");
+        manager.createSubtask(first, epic.getId());
+        manager.createSubtask(second, epic.getId());
+
+        assertEquals(4, manager.countByStatus(Status.NEW));
+        assertEquals(2, manager.countByType(TaskType.SUBTASK));
+
+        manager.updateTaskStatus(task.getId(), Status.IN_PROGRESS);
+        manager.updateSubtaskStatus(first.getId(), Status.DONE);
+        assertEquals(List.of(task, manager.getEpicById(epic.getId())), manager.findByStatus(Status.IN_PROGRESS));
+        assertEquals(List.of(manager.getSubtaskById(first.getId())),
+                manager.findByStatus(TaskType.SUBTASK, Status.DONE));
+        assertEquals(1, manager.countByStatus(TaskType.EPIC, Status.IN_PROGRESS));
+        assertEquals(1, manager.countEpicSubtasks(epic.getId(), Status.DONE));
+        assertEquals(1, manager.countEpicSubtasks(epic.getId(), Status.NEW));
+
+        manager.updateSubtaskStatus(second.getId(), Status.DONE);
+        assertEquals(3, manager.countByStatus(Status.DONE), "Эпик переиндексирован вместе с подзадачами");
+
+        Task replacement = new Task("Задача", "новое описание");
+        replacement.setId(task.getId());
+        replacement.setStatus(Status.DONE);
+        manager.updateTask(replacement);
+        assertEquals(0, manager.countByStatus(Status.IN_PROGRESS));
+        assertEquals(4, manager.countByStatus(Status.DONE));
+
+        manager.deleteSubtaskById(first.getId());
+        assertEquals(1, manager.countEpicSubtasks(epic.getId(), Status.DONE));
+        assertEquals(1, manager.countByType(TaskType.SUBTASK));
+
+        manager.deleteAllSubtasks();
+        assertEquals(0, manager.countByType(TaskType.SUBTASK));
+        assertEquals(1, manager.countByStatus(TaskType.EPIC, Status.NEW), "Эпик без подзадач снова NEW");
+
+        manager.deleteEpicById(epic.getId());
+        manager.deleteTaskById(task.getId());
+        for (TaskType type : TaskType.values()) {
+            assertEquals(0, manager.countByType(type));
+        }
+        assertEquals(0, manager.countEpicSubtasks(epic.getId(), Status.NEW));
+        assertTrue(manager.findByStatus(Status.DONE).isEmpty());
+    }
+
+    @Test
+    void deleteById_withIdOfAnotherType_shouldKeepStatusIndex() {
+        Task task = new Task("Задача", "описание");
+        manager.createTask(task);
+        Epic epic = new Epic("Эпик", "описание");
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Подзадача", "описание");
+        manager.createSubtask(subtask, epic.getId());
+
+        manager.deleteTaskById(epic.getId());
+        manager.deleteTaskById(subtask.getId());
+        manager.deleteEpicById(task.getId());
+        manager.deleteEpicById(subtask.getId());
+        manager.deleteSubtaskById(task.getId());
+        manager.deleteSubtaskById(epic.getId());
+
+        assertEquals(1, manager.getTasks().size());
+        assertEquals(1, manager.getEpics().size());
+        assertEquals(1, manager.getSubtasks().size());
+        for (TaskType type : TaskType.values()) {
+            assertEquals(1, manager.countByType(type), "Тип " + type);
+        }
+        assertEquals(3, manager.countByStatus(Status.NEW));
+        assertEquals(3, manager.findByStatus(Status.NEW).size());
+    }
+
+    @Test
+    void getNextTasks_shouldReturnLimitedTasksFromMoment() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int hour = 0; hour < 10; hour++) {
+            Task task = new Task("Task " + hour, "Desc");
+            task.setStartTime(base.plusHours(hour));
+            task.setDuration(Duration.ofMinutes(30));
+            manager.createTask(task);
+        }
+
+        List<Task> next = manager.getNextTasks(base.plusHours(7), 5);
+        assertEquals(3, next.size());
+        assertEquals(base.plusHours(7), next.getFirst().getStartTime());
+        assertEquals(2, manager.getNextTasks(base, 2).size());
+        assertTrue(manager.getNextTasks(base, 0).isEmpty());
+        assertTrue(manager.getNextTasks(5).isEmpty(), "Все задачи в прошлом");
+    }
+
+    @Test
+    void findEarliestFreeSlot_shouldSkipBusyIntervals() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 9, 0);
+        Task morning = new Task("Morning", "Desc");
+        morning.setStartTime(base);
+        morning.setDuration(Duration.ofMinutes(60));
+        Task noon = new Task("Noon", "Desc");
+        noon.setStartTime(base.plusMinutes(90));
+        noon.setDuration(Duration.ofMinutes(60));
+        manager.createTask(morning);
+        manager.createTask(noon);
+
+        assertEquals(base.plusMinutes(60), manager.findEarliestFreeSlot(Duration.ofMinutes(30), base, null));
+        assertEquals(base.plusMinutes(150), manager.findEarliestFreeSlot(Duration.ofMinutes(45), base, null));
+        assertEquals(base.plusMinutes(60),
+                manager.findEarliestFreeSlot(Duration.ofMinutes(30), base.plusMinutes(30), null),
+                "Задача, начавшаяся до окна, занимает его начало");
+        assertNull(manager.findEarliestFreeSlot(Duration.ofMinutes(45), base, base.plusMinutes(180)));
+        assertEquals(base.minusHours(1), manager.findEarliestFreeSlot(Duration.ofMinutes(60), base.minusHours(1), null));
+        assertThrows(IllegalArgumentException.class, () -> manager.findEarliestFreeSlot(Duration.ZERO, base, null));
+    }
+
+    @Test
+    void autoSchedule_shouldPackTasksIntoGaps() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 9, 0);
+        Task busy = new Task("Busy", "Desc");
+        busy.setStartTime(base.plusMinutes(30));
+        busy.setDuration(Duration.ofMinutes(60));
+        manager.createTask(busy);
+
+        Task longTask = new Task("Long", "Desc");
+        longTask.setDuration(Duration.ofMinutes(45));
+        Task shortTask = new Task("Short", "Desc");
+        shortTask.setDuration(Duration.ofMinutes(30));
+        Task tooLong = new Task("Too long", "Desc");
+        tooLong.setDuration(Duration.ofHours(5));
+
+        List<Task> scheduled = manager.autoSchedule(List.of(longTask, shortTask, tooLong), base, base.plusHours(3));
+
+        assertEquals(List.of(longTask, shortTask), scheduled);
+        assertEquals(base.plusMinutes(90), longTask.getStartTime());
+        assertEquals(base, shortTask.getStartTime());
+        assertNull(tooLong.getStartTime());
+        assertEquals(3, manager.getTasks().size());
+        assertEquals(List.of(shortTask, busy, longTask), manager.getPrioritizedTasks());
+    }
+
+    @Test
+    void applyBatch_shouldApplyOperationsAndReportResults() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 9, 0);
+        Epic epic = new Epic("Epic", "Desc");
+        manager.createEpic(epic);
+
+        Subtask first = new Subtask("First", "Desc");
+        first.setStartTime(base);
+        first.setDuration(Duration.ofMinutes(30));
+        first.setStatus(Status.DONE);
+        Subtask second = new Subtask("Second", "Desc");
+        second.setStartTime(base.plusHours(1));
+        second.setDuration(Duration.ofMinutes(30));
+        Subtask overlapping = new Subtask("Overlapping", "Desc");
+        overlapping.setStartTime(base.plusMinutes(10));
+        overlapping.setDuration(Duration.ofMinutes(30));
+
+        List<BatchOperationResult> results = manager.applyBatch(List.of(
+                BatchOperation.createSubtask(first, epic.getId()),
+                BatchOperation.createSubtask(second, epic.getId()),
+                BatchOperation.createSubtask(overlapping, epic.getId()),
+                BatchOperation.updateSubtaskStatus(Integer.MAX_VALUE, Status.DONE)));
+
+        assertTrue(results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+        assertFalse(results.get(2).isSuccess());
+        assertNotNull(results.get(2).getMessage());
+        assertFalse(results.get(3).isSuccess());
+        assertEquals(2, manager.getEpicSubtasks(epic.getId()).size());
+
+        Epic stored = manager.getEpicById(epic.getId());
+        assertEquals(Status.IN_PROGRESS, stored.getStatus());
+        assertEquals(base, stored.getStartTime());
+        assertEquals(Duration.ofMinutes(60), stored.getDuration());
+    }
+
+    @Test
+    void applyBatch_shouldReportUpdateRejectedForOverlap() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 9, 0);
+        Task first = new Task("First", "Desc");
+        first.setStartTime(base);
+        first.setDuration(Duration.ofMinutes(30));
+        manager.createTask(first);
+        Task second = new Task("Second", "Desc");
+        second.setStartTime(base.plusHours(1));
+        second.setDuration(Duration.ofMinutes(30));
+        manager.createTask(second);
+
+        // Обычный сценарий: задачу достают из менеджера, меняют на месте и передают в update
+        Task moved = manager.getTaskById(second.getId());
+        moved.setStartTime(base.plusMinutes(10));
+        List<BatchOperationResult> results = manager.applyBatch(List.of(BatchOperation.updateTask(moved)));
+
+        assertFalse(results.get(0).isSuccess());
+        assertNotNull(results.get(0).getMessage());
+    }
+
+    @Test
+    void applyBatch_shouldRejectWholeBatchWhenInvalid() {
+        Task task = new Task("Task", "Desc");
+
+        List<BatchOperationResult> results = manager.applyBatch(List.of(
+                BatchOperation.createTask(task),
+                BatchOperation.updateTaskStatus(1, null)));
+
+        assertFalse(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertTrue(manager.getTasks().isEmpty());
+    }
+
+    @Test
+    void deleteTaskById_shouldKeepCreationOrder() {
+        for (int i = 1; i <= 4; i++) {
+            manager.createTask(new Task("Task " + i, "Desc"));
+        }
+
+        manager.deleteTaskById(1);
+
+        List<Integer> ids = new ArrayList<>();
+        for (Task task : manager.getTasks()) {
+            ids.add(task.getId());
+        }
+        assertEquals(List.of(2, 3, 4), ids);
+    }
+
     @Test
     void shouldNotAddTaskWithTimeOverlap() {
         Task task1 = new Task("Task 1", "Desc");
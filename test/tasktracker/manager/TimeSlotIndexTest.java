@@ -0,0 +1,168 @@
+package tasktracker.manager;
+
+import org.junit.jupiter.api.Test;
+import tasktracker.models.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimeSlotIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private Task task(int id, LocalDateTime start, int minutes) {
+        Task task = new Task("Задача " + id, "описание");
+        task.setId(id);
+        task.setStartTime(start);
+        task.setDuration(Duration.ofMinutes(minutes));
+        return task;
+    }
+
+    @Test
+    void shouldAgreeWithIntervalIndex() {
+        Random random = new Random(7);
+        TimeSlotIndex slots = new TimeSlotIndex(15);
+        IntervalIndex intervals = new IntervalIndex();
+        List<Task> live = new ArrayList<>();
+
+        for (int id = 1; id <= 3000; id++) {
+            // Задачи до нескольких часов, в том числе через полночь
+            Task task = task(id, BASE.plusMinutes(15L * random.nextInt(2000)), 15 * (1 + random.nextInt(20)));
+            slots.add(task);
+            intervals.add(task);
+            live.add(task);
+            if (random.nextInt(3) == 0) {
+                Task removed = live.remove(random.nextInt(live.size()));
+                slots.remove(removed.getId());
+                intervals.remove(removed.getId());
+            }
+        }
+
+        for (int i = 0; i < 3000; i++) {
+            int id = random.nextBoolean() ? live.get(random.nextInt(live.size())).getId() : 100_000 + i;
+            Task probe = task(id, BASE.plusMinutes(15L * random.nextInt(2100)), 15 * (1 + random.nextInt(12)));
+            boolean expected = intervals.findOverlap(probe.getStartTime(), probe.getEndTime(), id) != null;
+            assertEquals(expected, slots.hasConflict(probe), "Проба " + probe);
+            assertEquals(expected, !slots.findConflicts(probe).isEmpty());
+        }
+    }
+
+    @Test
+    void shouldReportCollidingSlots() {
+        TimeSlotIndex slots = new TimeSlotIndex(15);
+        slots.add(task(1, BASE.plusHours(23), 90)); // 23:00 - 00:30 следующего дня
+
+        List<LocalDateTime> conflicts = slots.findConflicts(task(2, BASE.plusHours(23).plusMinutes(45), 60));
+
+        assertEquals(List.of(BASE.plusHours(23).plusMinutes(45), BASE.plusDays(1), BASE.plusDays(1).plusMinutes(15)),
+                conflicts);
+    }
+
+    @Test
+    void sharedSlotShouldStayOccupiedAfterOneRemoval() {
+        TimeSlotIndex slots = new TimeSlotIndex(15);
+        slots.add(task(1, BASE, 30));
+        slots.add(task(2, BASE, 30));
+
+        assertTrue(slots.hasConflict(task(1, BASE, 15)), "Слот занят ещё задачей 2");
+        slots.remove(2);
+        assertFalse(slots.hasConflict(task(1, BASE, 15)), "Собственный слот не конфликтует");
+        assertTrue(slots.hasConflict(task(3, BASE, 15)));
+        slots.remove(1);
+        assertFalse(slots.hasConflict(task(3, BASE, 15)));
+    }
+
+    @Test
+    void unalignedTasksShouldDisableGrid() {
+        TimeSlotIndex slots = new TimeSlotIndex(15);
+        Task aligned = task(1, BASE, 15);
+        Task unaligned = task(2, BASE.plusMinutes(7), 10);
+
+        assertTrue(slots.covers(aligned));
+        assertFalse(slots.covers(unaligned));
+        slots.add(unaligned);
+        assertFalse(slots.covers(aligned), "Сетка не видит задачу вне слотов");
+        slots.remove(2);
+        assertTrue(slots.covers(aligned));
+    }
+
+    @Test
+    void zeroDurationTaskInsideSlotShouldConflictWithCoveringTask() {
+        TimeSlotIndex slots = new TimeSlotIndex(15);
+        slots.add(task(1, BASE.plusMinutes(7), 0));
+
+        assertEquals(0, slots.getUnalignedCount());
+        assertTrue(slots.hasConflict(task(2, BASE, 60)));
+        assertFalse(slots.hasConflict(task(3, BASE.plusMinutes(15), 15)));
+
+        // На границе слота точка пересекается только с задачей, накрывающей её с обеих сторон: решает индекс интервалов
+        slots.add(task(4, BASE.plusHours(2), 0));
+        assertEquals(1, slots.getUnalignedCount());
+        assertFalse(slots.covers(task(5, BASE, 15)));
+    }
+
+    @Test
+    void zeroDurationTaskShouldGiveSameAnswerWithAndWithoutGrid() {
+        for (int minute : new int[]{30, 37}) {
+            InMemoryTaskManager plain = new InMemoryTaskManager();
+            InMemoryTaskManager grid = new InMemoryTaskManager();
+            grid.enableTimeSlotIndex(15);
+            for (InMemoryTaskManager manager : List.of(plain, grid)) {
+                Task point = new Task("Точка", "описание");
+                point.setStartTime(BASE.plusMinutes(minute));
+                point.setDuration(Duration.ZERO);
+                manager.createTask(point);
+
+                Task hour = new Task("Час", "описание");
+                hour.setStartTime(BASE);
+                hour.setDuration(Duration.ofMinutes(60));
+                manager.createTask(hour);
+            }
+            assertEquals(1, plain.getTasks().size(), "Задача нулевой длины внутри часа пересекается с ним");
+            assertEquals(plain.getTasks().size(), grid.getTasks().size(), "Сетка не должна менять ответ");
+        }
+    }
+
+    @Test
+    void slotLengthShouldDivideDay() {
+        assertThrows(IllegalArgumentException.class, () -> new TimeSlotIndex(7));
+        assertThrows(IllegalArgumentException.class, () -> new TimeSlotIndex(0));
+    }
+
+    @Test
+    void managerShouldUseGridForOverlapChecks() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        manager.enableTimeSlotIndex(15);
+
+        Task first = new Task("Первая", "описание");
+        first.setStartTime(BASE);
+        first.setDuration(Duration.ofMinutes(30));
+        manager.createTask(first);
+
+        Task overlapping = new Task("Вторая", "описание");
+        overlapping.setStartTime(BASE.plusMinutes(15));
+        overlapping.setDuration(Duration.ofMinutes(30));
+        assertEquals(List.of(BASE.plusMinutes(15)), manager.findSlotConflicts(overlapping));
+        manager.createTask(overlapping);
+        assertEquals(1, manager.getTasks().size());
+
+        // Задача вне сетки проверяется индексом интервалов
+        Task unaligned = new Task("Третья", "описание");
+        unaligned.setStartTime(BASE.plusMinutes(29));
+        unaligned.setDuration(Duration.ofMinutes(5));
+        manager.createTask(unaligned);
+        assertEquals(1, manager.getTasks().size());
+
+        Task moved = new Task("Первая", "описание");
+        moved.setId(first.getId());
+        moved.setStartTime(BASE.plusMinutes(15));
+        moved.setDuration(Duration.ofMinutes(30));
+        manager.updateTask(moved);
+        assertEquals(BASE.plusMinutes(15), manager.getTaskById(first.getId()).getStartTime());
+    }
+}
@@ -0,0 +1,57 @@
+package tasktracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntListTest {
+
+    @Test
+    void shouldBeEqualToBoxedList() {
+        IntList list = new IntList();
+        for (int i = 0; i < 10; i++) {
+            list.addInt(i * 10);
+        }
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            expected.add(i * 10);
+        }
+        assertEquals(expected, list);
+        assertEquals(list, expected);
+        assertEquals(expected.hashCode(), list.hashCode());
+    }
+
+    @Test
+    void removeShouldDeleteValueNotIndex() {
+        IntList list = new IntList();
+        list.addInt(5);
+        list.addInt(0);
+        list.addInt(7);
+
+        assertTrue(list.remove((Integer) 0));
+        assertEquals(List.of(5, 7), list);
+        assertFalse(list.removeInt(0));
+        assertEquals(7, list.remove(1));
+        assertEquals(List.of(5), list);
+    }
+
+    @Test
+    void addAllShouldCopyAnotherIntList() {
+        IntList source = new IntList();
+        source.addInt(1);
+        source.addInt(2);
+        IntList target = new IntList();
+        target.addInt(0);
+
+        target.addAll(source);
+        target.add(1, 9);
+
+        assertArrayEquals(new int[]{0, 9, 1, 2}, target.toIntArray());
+        assertTrue(target.containsInt(9));
+        assertThrows(IndexOutOfBoundsException.class, () -> target.getInt(4));
+    }
+}
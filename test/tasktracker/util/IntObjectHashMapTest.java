@@ -0,0 +1,97 @@
+package tasktracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntObjectHashMapTest {
+
+    @Test
+    void shouldMatchHashMapOnRandomOperations() {
+        Random random = new Random(17);
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        Map<Integer, String> expected = new HashMap<>();
+
+        for (int i = 0; i < 50_000; i++) {
+            // Узкий диапазон ключей, чтобы вставки и удаления часто попадали в одни и те же цепочки
+            int key = random.nextInt(2_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                String value = "v" + i;
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (int key = -1_000; key < 1_000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+        assertEquals(expected.size(), map.values().size());
+        assertTrue(map.values().containsAll(expected.values()));
+    }
+
+    @Test
+    void shouldIterateInInsertionOrder() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>(2);
+        for (int key = 100; key > 0; key -= 3) {
+            map.put(key, "v" + key);
+        }
+
+        List<Integer> keys = new ArrayList<>();
+        map.forEachKey(keys::add);
+        assertEquals(100, keys.getFirst());
+        assertEquals(1, keys.getLast());
+        assertEquals("v100", map.values().iterator().next());
+    }
+
+    @Test
+    void removalShouldKeepInsertionOrder() {
+        Random random = new Random(29);
+        IntObjectHashMap<String> map = new IntObjectHashMap<>(2);
+        Map<Integer, String> expected = new LinkedHashMap<>();
+
+        // Много удалений подряд, чтобы сработало и сжатие дыр
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(300);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.put(key, "v" + i), map.put(key, "v" + i));
+            } else {
+                assertEquals(expected.remove(key), map.remove(key));
+            }
+            if (i % 997 == 0) {
+                List<Integer> keys = new ArrayList<>();
+                map.forEachKey(keys::add);
+                assertEquals(new ArrayList<>(expected.keySet()), keys);
+                assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(map.values()));
+            }
+        }
+        List<Integer> keys = new ArrayList<>();
+        for (int key : map.toKeyArray()) {
+            keys.add(key);
+        }
+        assertEquals(new ArrayList<>(expected.keySet()), keys);
+    }
+
+    @Test
+    void clearShouldRemoveEverything() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        map.put(1, "a");
+        map.put(2, "b");
+
+        map.clear();
+
+        assertTrue(map.isEmpty());
+        assertNull(map.get(1));
+        assertFalse(map.values().iterator().hasNext());
+        map.put(2, "c");
+        assertEquals("c", map.get(2));
+    }
+}
@@ -0,0 +1,67 @@
+package tasktracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistentSortedMapTest {
+
+    @Test
+    void shouldMatchTreeMapAndKeepOldVersions() {
+        Random random = new Random(11);
+        PersistentSortedMap<Integer, String> map = PersistentSortedMap.empty(Comparator.naturalOrder());
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        List<PersistentSortedMap<Integer, String>> versions = new ArrayList<>();
+        List<TreeMap<Integer, String>> expectedVersions = new ArrayList<>();
+
+        for (int i = 0; i < 5_000; i++) {
+            int key = random.nextInt(1_000);
+            if (random.nextInt(3) == 0) {
+                map = map.remove(key);
+                expected.remove(key);
+            } else {
+                map = map.put(key, "v" + i);
+                expected.put(key, "v" + i);
+            }
+            if (i % 500 == 0) {
+                versions.add(map);
+                expectedVersions.add(new TreeMap<>(expected));
+            }
+        }
+
+        assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(map.values()));
+        for (int i = 0; i < versions.size(); i++) {
+            assertEquals(new ArrayList<>(expectedVersions.get(i).values()), new ArrayList<>(versions.get(i).values()),
+                    "Старая версия не должна меняться");
+        }
+    }
+
+    @Test
+    void keyRangeShouldMatchSubMap() {
+        PersistentSortedMap<Integer, Integer> map = PersistentSortedMap.empty(Comparator.naturalOrder());
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int key = 0; key < 300; key += 3) {
+            map = map.put(key, key);
+            expected.put(key, key);
+        }
+
+        SortedSet<Integer> range = map.keySet(10, 100);
+        assertEquals(new ArrayList<>(expected.subMap(10, 100).keySet()), new ArrayList<>(range));
+        assertEquals(expected.subMap(10, 100).size(), range.size());
+        assertEquals(12, range.first());
+        assertEquals(99, range.last());
+        assertEquals(List.of(12, 15), new ArrayList<>(range.headSet(18)));
+        assertEquals(List.of(96, 99), new ArrayList<>(range.tailSet(95)));
+        assertTrue(range.contains(30));
+        assertFalse(range.contains(3));
+        assertTrue(map.keySet(1_000, null).isEmpty());
+        assertEquals(expected.size(), map.keySet(null, null).size());
+    }
+}